@@ -0,0 +1,93 @@
+package functionComponents;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import net.objecthunter.exp4j.Expression;
+
+/*
+ * The values of the named constants that expressions can use (e.g. a*sin(b*x)), shared by all the plotted functions like the SearchScope.
+ * 
+ * Changing a value doesn't parse anything again: the constants are variables of the parsed expressions,
+ * and the functions set their current values on them before evaluating.
+ * The version changes with every new value, so an expression only needs its values set again when it's different.
+ */
+public class ConstantValues implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public static final String[] NAMES = {"a", "b", "c"};
+	private final double DEFAULT_VALUE = 1;
+	
+	// replaced instead of changed, so the threads evaluating with the old values never see half of a change
+	private volatile double[] values;
+	private volatile long version;
+	
+	
+	public ConstantValues() {
+		double[] defaultValues = new double[NAMES.length];
+		Arrays.fill(defaultValues, DEFAULT_VALUE);
+		values = defaultValues;
+	}
+	
+	// a snapshot of the other's current values, which doesn't follow their later changes (the values array is never changed, only replaced)
+	public ConstantValues(ConstantValues constants) {
+		values = constants.values;
+		version = constants.version;
+	}
+	
+	public double getValue(String name) {
+		return values[getIndex(name)];
+	}
+	
+	public synchronized void setValue(String name, double value) {
+		if(!Double.isFinite(value))
+			throw new IllegalArgumentException("The value of " + name + " must be finite.");
+		
+		int index = getIndex(name);
+		if(values[index] == value) return;
+		
+		double[] newValues = values.clone();
+		newValues[index] = value;
+		values = newValues;
+		version++;
+	}
+	
+	public long getVersion() {
+		return version;
+	}
+	
+	private int getIndex(String name) {
+		for(int i = 0; i < NAMES.length; i++)
+			if(NAMES[i].equals(name))
+				return i;
+		throw new IllegalArgumentException("There's no constant named " + name + ".");
+	}
+	
+	// the expression must have been built with the constants as variables
+	public void applyTo(Expression expression) {
+		double[] currentValues = values;
+		for(int i = 0; i < NAMES.length; i++)
+			expression.setVariable(NAMES[i], currentValues[i]);
+	}
+	
+	// identifies the current values in the caches' keys
+	public String getKey() {
+		double[] currentValues = values;
+		StringBuilder key = new StringBuilder();
+		for(int i = 0; i < NAMES.length; i++) {
+			if(i > 0) key.append(',');
+			key.append(NAMES[i]).append('=').append(currentValues[i]);
+		}
+		return key.toString();
+	}
+	
+	// whether the expression uses any of the constants (or just x)
+	public static boolean areUsedBy(Expression expression) {
+		for(String name : NAMES)
+			if(expression.getVariableNames().contains(name))
+				return true;
+		return false;
+	}
+	
+}
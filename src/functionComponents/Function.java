@@ -4,13 +4,18 @@ import java.awt.Dimension;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map.Entry;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.UnaryOperator;
 
+import functionComponents.GridScanner.Brackets;
+import functionComponents.SolutionEnumerator.ChunkSearcher;
 import graphingCalculator.utils.RoundingUtils;
 
-import java.util.Random;
-
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 
@@ -24,82 +29,223 @@ public class Function implements Serializable {
 	private int width, height;
 	private ReferentialLimits referentialLimits;
 	private String expression;
+	private SearchScope searchScope;
+	private ConstantValues constants;
+	
+	private Expression function;
+	// not null if the expression is a polynomial, which has a faster evaluation and its roots/extremes found algebraically
+	private Polynomial polynomial;
+	
+	// whether the expression uses any of the named constants, and the version of the constants last set on the expression
+	private boolean usesConstants;
+	private long appliedConstantsVersion;
 	
-	// secondary function is the function chosen to find the intersection with
-	// it's declared here so that findRoot() and findIntersection() can be the same block of code
-	private Expression function, secondaryFunction;
+	// while a constant is being changed (e.g. with a slider), or for an exported image, the points are sampled with this accuracy instead, 0 when they aren't
+	private double previewAccuracy;
 	
 	private ArrayList<Point> points;
+	// built the first time a value range is asked for the current points (again after being read back, it isn't serialized)
+	private transient SampleSummary pointsSummary;
+	// point i is at x = pointsStart + i*pointsStep
+	private double pointsStart, pointsStep;
 	
 	// determines how fluid is the function's drawing
 	// setting it any higher than this can cause significant loading times
 	private final double DRAWING_ACCURACY = 20000;
+	// an exported image wider than the screen gets this many points per pixel instead, up to MAX_EXPORT_ACCURACY points (a few tens of MB)
+	private final int EXPORT_SAMPLES_PER_PIXEL = 2;
+	private final double MAX_EXPORT_ACCURACY = 1 << 20;
 	
-	private final double SEARCH_AREA = 2000;
-	
-	private final double TOLERANCE = 0.000001;
+	public static final double DEFAULT_TOLERANCE = 0.000001;
+	private final double TOLERANCE = DEFAULT_TOLERANCE;
 	private final double GOLDEN_RATIO = (Math.sqrt(5)-1)/2;
 	
-	private final double SEARCH_STEP = 0.1;
-	private final int SEARCH_DECIMAL_PLACES = RoundingUtils.numberOfDecimalPlaces(SEARCH_STEP);
+	// samples used to find the max/min values of an interval, if the points drawn don't already have enough of them
+	private final int RANGE_SAMPLES = 10000;
 	private final int CALCULATION_DECIMAL_PLACES = RoundingUtils.numberOfDecimalPlaces(TOLERANCE)-1;
 	
+	// xs where a parsed polynomial is compared with exp4j's evaluation of the expression
+	private final double[] POLYNOMIAL_CHECK_POINTS = {-2.7, -0.6, 0.3, 1.4, 3.1};
+	private final double POLYNOMIAL_CHECK_TOLERANCE = 0.000000001;
+	
 
 	public Function(Dimension size, ReferentialLimits referentialLimits, String expression) {
 		this.width = size.width;
 		this.height = size.height;
 		this.referentialLimits = referentialLimits;
+		searchScope = new SearchScope();
+		constants = new ConstantValues();
 		
 		setExpression(expression);
-		secondaryFunction = null;
 	}
 
+	/*
+	 * A copy of parsedFunction for another frame and view, which reuses its parsed expression instead of parsing it again.
+	 * The copy gets a snapshot of the constants' current values, so it can be drawn on another thread while they keep changing.
+	 */
+	public Function(Dimension size, ReferentialLimits referentialLimits, Function parsedFunction) {
+		this.width = size.width;
+		this.height = size.height;
+		this.referentialLimits = referentialLimits;
+		searchScope = new SearchScope();
+		constants = new ConstantValues(parsedFunction.constants);
+		
+		expression = parsedFunction.expression;
+		function = new Expression(parsedFunction.function);
+		polynomial = parsedFunction.polynomial;
+		usesConstants = parsedFunction.usesConstants;
+		constants.applyTo(function);
+		appliedConstantsVersion = constants.getVersion();
+	}
+	
 	public String getExpression() {
 		return expression;
 	}
 	
+	// the scope is shared by all the plotted functions, like the referential limits
+	public void setSearchScope(SearchScope searchScope) {
+		this.searchScope = searchScope;
+	}
+	
+	// the constants are shared by all the plotted functions, like the search scope
+	public void setConstants(ConstantValues constants) {
+		this.constants = constants;
+		constants.applyTo(function);
+		appliedConstantsVersion = constants.getVersion();
+		points = null;
+		pointsSummary = null;
+	}
+	
+	public ConstantValues getConstants() {
+		return constants;
+	}
+	
+	public boolean usesConstants() {
+		return usesConstants;
+	}
+	
+	// only sets the values again on the parsed expression if they changed since they were last set, nothing is parsed again
+	private void applyConstants() {
+		if(appliedConstantsVersion == constants.getVersion()) return;
+		constants.applyTo(function);
+		appliedConstantsVersion = constants.getVersion();
+	}
+	
+	// the constants are declared for every expression, an expression that doesn't use them is parsed and evaluated the same way
+	private Expression buildExpression(String expression) {
+		Expression parsedExpression = new ExpressionBuilder(expression).variable("x").variables(ConstantValues.NAMES).build();
+		constants.applyTo(parsedExpression);
+		return parsedExpression;
+	}
+	
+	// identifies the constants' values in the cache keys of this function's samples and searches, empty if they don't affect them
+	private String getConstantsKey(String secondaryExpression) {
+		return usesConstants || secondaryExpression != null ? constants.getKey() : "";
+	}
+	
+	/*
+	 * Makes the points be sampled coarsely (previewAccuracy points across the view) while a constant is being changed,
+	 * or normally again with 0. The preview points aren't kept in the SampleTileCache since they're only drawn once.
+	 */
+	public void setPreviewAccuracy(double previewAccuracy) {
+		this.previewAccuracy = previewAccuracy;
+		points = null;
+		pointsSummary = null;
+	}
+	
+	/*
+	 * Makes the points be sampled for an image of this function's size instead of the screen (see GraphicsDrawer.createPngExport):
+	 * never more coarsely than DRAWING_ACCURACY, and with EXPORT_SAMPLES_PER_PIXEL per pixel for images too wide for it.
+	 * Like the preview points, they're evaluated directly instead of filling the SampleTileCache with tiles no view uses.
+	 */
+	public void setExportAccuracy() {
+		setPreviewAccuracy(Math.min(Math.max(DRAWING_ACCURACY, (double) width*EXPORT_SAMPLES_PER_PIXEL), MAX_EXPORT_ACCURACY));
+	}
+	
 	public Expression getParsedExpression() {
 		return function;
 	}
 	
 	public void setExpression(String expression) {
+		if(this.expression != null) {
+			SearchCache.invalidate(this.expression);
+			SampleTileCache.invalidate(this.expression);
+		}
 		this.expression = expression;
-		this.function = new ExpressionBuilder(expression).variable("x").build();
-		computeFunctionPoints();
+		this.function = buildExpression(expression);
+		appliedConstantsVersion = constants.getVersion();
+		usesConstants = ConstantValues.areUsedBy(function);
+		this.polynomial = usesConstants ? null : parseVerifiedPolynomial(expression, function);
+		points = null;
+		pointsSummary = null;
 	}
 	
+	// the xs are multiples of the step so their ys can be shared with other views through the SampleTileCache
 	private void computeFunctionPoints() {
-		double xLength = referentialLimits.getXLength();
-		double step = xLength/DRAWING_ACCURACY;
-		int pointCount = (int) Math.ceil(xLength/step);
+		double accuracy = previewAccuracy > 0 ? previewAccuracy : DRAWING_ACCURACY;
+		double step = referentialLimits.getXLength()/accuracy;
+		long firstIndex = (long) Math.ceil(referentialLimits.getXMin()/step);
+		long lastIndex = (long) Math.floor(referentialLimits.getXMax()/step);
 		
-		points = new ArrayList<>(pointCount);
+		points = new ArrayList<>((int) Math.max(0, lastIndex-firstIndex+1));
+		setPointsSampling(firstIndex*step, step);
+		double limits[] = referentialLimits.getLimits();
 		
-		double y;
-		for(double i=referentialLimits.getXMin(); i<=referentialLimits.getXMax(); i+=step) {
-			y = f(i);
+		double[] tile = null;
+		long tilePos = 0;
+		for(long i = firstIndex; i <= lastIndex; i++) {
+			double x = i*step;
+			double y;
+			if(previewAccuracy > 0)
+				y = f(x);
+			else {
+				if(tile == null || Math.floorDiv(i, SampleTileCache.TILE_SIZE) != tilePos) {
+					tilePos = Math.floorDiv(i, SampleTileCache.TILE_SIZE);
+					tile = getSampleTile(step, tilePos);
+				}
+				y = tile[Math.floorMod(i, SampleTileCache.TILE_SIZE)];
+			}
 			if(Double.isFinite(y))
-				points.add(new Point(i, y, width, height, referentialLimits.getLimits()));
+				points.add(new Point(x, y, width, height, limits));
 			else
 				points.add(null);
 		}
 	}
 	
+	private double[] getSampleTile(double step, long tilePos) {
+		String key = SampleTileCache.getTileKey(expression, getConstantsKey(null), step, tilePos);
+		double[] tile = SampleTileCache.get(key);
+		if(tile == null) {
+			tile = new double[SampleTileCache.TILE_SIZE];
+			long tileStart = tilePos*SampleTileCache.TILE_SIZE;
+			for(int i = 0; i < tile.length; i++)
+				tile[i] = f((tileStart+i)*step);
+			SampleTileCache.put(key, tile);
+		}
+		return tile;
+	}
+	
+	// the points are only computed when they're first needed, a function that's never drawn (e.g. in the batch calculator) never computes them
 	public ArrayList<Point> getPoints() {
+		if(points == null)
+			computeFunctionPoints();
 		return points;
 	}
 	
-	public ArrayList<Point> getPointsInInterval(double lowerBound, double upperBound) {
-		double xLength = upperBound-lowerBound;
-		double step = xLength/DRAWING_ACCURACY;
-		int pointCount = (int) Math.ceil(xLength/step);
-		
-		points = new ArrayList<>(pointCount);
-		
-		for(double i=lowerBound; i<=upperBound; i+=step)
-			points.add(new Point(i, f(i), width, height, referentialLimits.getLimits()));
+	// a view of the points in [lowerBound, upperBound] (null for the undefined ones), nothing is evaluated
+	public List<Point> getPointsInInterval(double lowerBound, double upperBound) {
+		ArrayList<Point> points = getPoints();
+		int first = (int) Math.max(0, Math.ceil((lowerBound-pointsStart)/pointsStep));
+		int end = (int) Math.min(points.size(), Math.floor((upperBound-pointsStart)/pointsStep) + 1);
+		if(first >= end) return Collections.emptyList();
 		
-		return points;
+		return points.subList(first, end);
+	}
+	
+	private void setPointsSampling(double start, double step) {
+		pointsStart = start;
+		pointsStep = step;
+		pointsSummary = null;
 	}
 	
 	private Point createPoint(double x, double y) {
@@ -109,74 +255,154 @@ public class Function implements Serializable {
 	public void recalculateFrameSize(Dimension size) {
 		this.width = size.width;
 		this.height = size.height;
-		computeFunctionPoints();
+		points = null;
+		pointsSummary = null;
 	}
 	
 	private double f(double x) {
+		if(polynomial != null)
+			return polynomial.evaluate(x);
 		try {
+			applyConstants();
 			return function.setVariable("x", x).evaluate();
 		} catch(Exception e) {
 			return Double.NaN;
 		}
 	}
 	
-	private double h(double x) {
-		try {
-			if(secondaryFunction == null)
-				return function.setVariable("x", x).evaluate();
-			else
-				return function.setVariable("x", x).evaluate() - secondaryFunction.setVariable("x", x).evaluate();
-		} catch(Exception e) {
-			return Double.NaN;
-		}
+	// exp4j expressions store their variables' values, so each thread evaluating this function needs its own copy of the expression
+	public DoubleUnaryOperator createEvaluator() {
+		if(polynomial != null)
+			return polynomial::evaluate;
+		return createExpressionEvaluator();
 	}
 	
-	public double getMaxValueInInterval(double lowerBound, double upperBound) {
-		double maxValue = Double.MIN_VALUE;
-		for(double i = lowerBound; i < upperBound; i += SEARCH_STEP) {
-			double y = f(i);
-			if(y > maxValue)
-				maxValue = y;
+	// evaluates the expression itself even when it's a polynomial, e.g. to check the polynomial's results
+	private DoubleUnaryOperator createExpressionEvaluator() {
+		Expression expressionCopy = new Expression(function);
+		constants.applyTo(expressionCopy);
+		return x -> {
+			try {
+				return expressionCopy.setVariable("x", x).evaluate();
+			} catch(Exception e) {
+				return Double.NaN;
+			}
+		};
+	}
+	
+	// evaluates f(x) - secondaryFunction(x), or just f(x) if there's no secondary function
+	// the secondary function is kept as its expression since that's also what identifies the search's results in the SearchCache
+	private DoubleUnaryOperator createDifferenceEvaluator(DoubleUnaryOperator f, String secondaryExpression) {
+		if(secondaryExpression == null) return f;
+		
+		Expression secondaryFunction = buildExpression(secondaryExpression);
+		return x -> {
+			try {
+				return f.applyAsDouble(x) - secondaryFunction.setVariable("x", x).evaluate();
+			} catch(Exception e) {
+				return Double.NaN;
+			}
+		};
+	}
+	
+	// the polynomial is only used if it agrees with exp4j, in case the parser reads the expression differently
+	private Polynomial parseVerifiedPolynomial(String expression, Expression parsedExpression) {
+		Polynomial p = PolynomialParser.parse(expression);
+		if(p == null) return null;
+		
+		Polynomial magnitude = p.absolute();
+		for(double x : POLYNOMIAL_CHECK_POINTS) {
+			double expected;
+			try {
+				expected = new Expression(parsedExpression).setVariable("x", x).evaluate();
+			} catch(Exception e) {
+				return null;
+			}
+			// the rounding errors grow with the size of the terms, not of the result
+			if(!(Math.abs(p.evaluate(x)-expected) <= POLYNOMIAL_CHECK_TOLERANCE*Math.max(1, magnitude.evaluate(Math.abs(x)))))
+				return null;
 		}
+		return p;
+	}
+	
+	// f - secondary function as a polynomial, null if either of them isn't one
+	private Polynomial getDifferencePolynomial(String secondaryExpression) {
+		if(polynomial == null || secondaryExpression == null) return polynomial;
 		
-		return maxValue;
+		Expression secondaryFunction = buildExpression(secondaryExpression);
+		if(ConstantValues.areUsedBy(secondaryFunction)) return null;
+		Polynomial secondaryPolynomial = parseVerifiedPolynomial(secondaryExpression, secondaryFunction);
+		return secondaryPolynomial == null ? null : polynomial.subtract(secondaryPolynomial);
 	}
 	
-	public double getMinValueInInterval(double lowerBound, double upperBound) {
-		double minValue = Double.MAX_VALUE;
-		for(double i = lowerBound; i < upperBound; i += SEARCH_STEP) {
-			double y = f(i);
-			if(y < minValue)
-				minValue = y;
+	// lowest and highest values in [lowerBound, upperBound], found in a single pass
+	public ValueRange getValueRange(double lowerBound, double upperBound) {
+		if(lowerBound > upperBound)
+			return getValueRange(upperBound, lowerBound);
+		
+		ValueRange range = new ValueRange();
+		range.include(lowerBound, f(lowerBound));
+		range.include(upperBound, f(upperBound));
+		
+		// besides the bounds, a polynomial's extremes can only be where its derivative is 0
+		if(polynomial != null) {
+			for(Polynomial.Root root : polynomial.derivative().getRealRoots())
+				if(root.getX() > lowerBound && root.getX() < upperBound)
+					range.include(root.getX(), f(root.getX()));
+			return range;
+		}
+		
+		// the step is relative to the interval, and the points already computed are used if they're at least as close together
+		double step = (upperBound-lowerBound)/RANGE_SAMPLES;
+		if(pointsSummary == null && points != null)
+			pointsSummary = new SampleSummary(points, pointsStart, pointsStep);
+		if(pointsSummary != null && pointsSummary.covers(lowerBound, upperBound) && pointsSummary.getStep() <= step) {
+			range.include(pointsSummary.getRange(lowerBound, upperBound));
+			return range;
 		}
 		
-		return minValue;
+		for(int i = 1; i < RANGE_SAMPLES; i++) {
+			double x = lowerBound + i*step;
+			range.include(x, f(x));
+		}
+		return range;
 	}
 	
 	// G-Solve functions
+	// the searches can be followed and cancelled through a SearchListener, which can be null when that isn't needed
 	
-	private double[] getSearchLimitCoords() {
-		double limits[] = referentialLimits.getLimits();
-		double searchLimits[] = {limits[0] - SEARCH_AREA/2, limits[1] + SEARCH_AREA/2};
-		return searchLimits;
+	private SearchGrid createSearchGrid() {
+		double searchLimits[] = searchScope.getSearchLimits(referentialLimits);
+		double step = searchScope.getStep(referentialLimits, width, searchLimits);
+		return new SearchGrid(searchLimits[0], searchLimits[1], step, SCAN_CHUNK_SIZE);
 	}
 	
 	public ArrayList<Point> getRoots() {
-		secondaryFunction = null;
-		double searchLimits[] = getSearchLimitCoords();
-		return findRoots(searchLimits[0], searchLimits[1]);
+		return getRoots(TOLERANCE, null);
+	}
+	
+	public ArrayList<Point> getRoots(double tolerance) {
+		return getRoots(tolerance, null);
+	}
+	
+	public ArrayList<Point> getRoots(double tolerance, SearchListener listener) {
+		return findRoots(createSearchGrid(), null, tolerance, listener);
 	}
 	
 	public ArrayList<Point> getMaximum() {
-		secondaryFunction = null;
-		double searchLimits[] = getSearchLimitCoords();
-		return findFunctionMaximums(searchLimits[0], searchLimits[1]);
+		return getMaximum(null);
+	}
+	
+	public ArrayList<Point> getMaximum(SearchListener listener) {
+		return findFunctionMaximums(createSearchGrid(), listener);
 	}
 	
 	public ArrayList<Point> getMinimum() {
-		secondaryFunction = null;
-		double searchLimits[] = getSearchLimitCoords();
-		return findFunctionMinimums(searchLimits[0], searchLimits[1]);
+		return getMinimum(null);
+	}
+	
+	public ArrayList<Point> getMinimum(SearchListener listener) {
+		return findFunctionMinimums(createSearchGrid(), listener);
 	}
 	
 	public Point getYAxisIntersection() {
@@ -188,9 +414,27 @@ public class Function implements Serializable {
 	}
 	
 	public ArrayList<Point> getFunctionIntersections(Function g) {
-		secondaryFunction = g.getParsedExpression();
-		double searchLimits[] = getSearchLimitCoords();
-		return findRoots(searchLimits[0], searchLimits[1]);
+		return getFunctionIntersections(g, TOLERANCE, null);
+	}
+	
+	public ArrayList<Point> getFunctionIntersections(Function g, double tolerance) {
+		return getFunctionIntersections(g, tolerance, null);
+	}
+	
+	public ArrayList<Point> getFunctionIntersections(Function g, double tolerance, SearchListener listener) {
+		return findRoots(createSearchGrid(), g.getExpression(), tolerance, listener);
+	}
+	
+	/*
+	 * Intersections between every pair of the functions, searched in a single pass over the search area.
+	 * Each function is only evaluated once per x of the grid, and the pairs' differences are scanned from those values.
+	 * All the functions must share the same referential limits (which is always the case for the plotted functions).
+	 * 
+	 * The listener gets all the intersections found so far, of every pair.
+	 */
+	public static ArrayList<FunctionIntersections> getAllIntersections(List<Function> functions, double tolerance, SearchListener listener) {
+		Function reference = functions.get(0);
+		return reference.findAllIntersections(functions, reference.createSearchGrid(), tolerance, listener);
 	}
 	
 	public Point getYValue(double x) {
@@ -202,241 +446,702 @@ public class Function implements Serializable {
 	}
 	
 	public ArrayList<Point> getXValue(double x) {
-		secondaryFunction = new ExpressionBuilder(String.valueOf(x)).variable("").build();
-		double searchLimits[] = getSearchLimitCoords();
-		return findRoots(searchLimits[0], searchLimits[1]);
+		return getXValue(x, TOLERANCE, null);
+	}
+	
+	public ArrayList<Point> getXValue(double x, double tolerance) {
+		return getXValue(x, tolerance, null);
+	}
+	
+	public ArrayList<Point> getXValue(double x, double tolerance, SearchListener listener) {
+		return findRoots(createSearchGrid(), String.valueOf(x), tolerance, listener);
 	}
 	
-	public double getIntegral(double lowerBound, double upperBound) {
+	// lazy versions of the root searches, which only search the grid outwards from the view's center as the solutions are needed
+	
+	public SolutionEnumerator getRootEnumerator(double tolerance) {
+		return createRootEnumerator(null, tolerance);
+	}
+	
+	public SolutionEnumerator getFunctionIntersectionEnumerator(Function g, double tolerance) {
+		return createRootEnumerator(g.getExpression(), tolerance);
+	}
+	
+	public SolutionEnumerator getXValueEnumerator(double x, double tolerance) {
+		return createRootEnumerator(String.valueOf(x), tolerance);
+	}
+	
+	public IntegralResult getIntegral(double lowerBound, double upperBound) {
 		return computeIntegral(lowerBound, upperBound);
 	}
 	
+	public IntegralResult getQuasiMonteCarloIntegral(double lowerBound, double upperBound) {
+		return computeQuasiMonteCarloIntegral(lowerBound, upperBound);
+	}
+	
 	
 	// G-Solve function helpers
 	
 	/*
-	 * How this method works:
+	 * How the search works:
+	 * 
+	 * The search area is turned into a grid of xs (see SearchScope and SearchGrid), which is split into chunks of SCAN_CHUNK_SIZE xs that are
+	 * scanned and refined in parallel (fork/join). The chunks' results are joined in order.
+	 * Each chunk has its own GridScanner and its own copies of the expressions, since neither can be shared between threads.
+	 * 
+	 * The secondary function is the function the intersections are searched with (f(x) - secondaryFunction(x) = 0).
+	 * It's null when searching for the function's own roots and extremes.
 	 * 
-	 * Two consecutive xs are kept at a time. If the first x's evaluation value happens to 0, it's saved as a root.
-	 * Otherwise, if the two xs signs differ it means there's a root in the area between them. All root areas are saved and later their respective roots calculated
+	 * The chunks are aligned to x = 0 instead of the search area's start so that a chunk covers the same xs in every search,
+	 * which lets the chunks already searched by a previous search be taken from the SearchCache instead of being searched again.
 	 */
-	private ArrayList<Point> findRoots(double minCoord, double maxCoord) {
-		ArrayList<Point> roots = new ArrayList<>();
-		HashMap<Double, Double> rootAreas = new HashMap<>();
+	private final int SCAN_CHUNK_SIZE = 1000;
+	
+	private enum SearchType { ROOTS, MAXIMUMS, MINIMUMS }
+	
+	/*
+	 * resultsProcessor turns the raw results of the chunks searched so far into the G-Solve results (sorted, filtered).
+	 * It's applied once at the end and, if there's a listener, every time a chunk is done so the listener gets the results found so far.
+	 */
+	private ArrayList<Point> searchArea(SearchType searchType, SearchGrid grid, String secondaryExpression, double tolerance,
+			SearchListener listener, UnaryOperator<ArrayList<Point>> resultsProcessor) {
+		long lastIndex = grid.getLastIndex();
+		if(lastIndex < 0) return new ArrayList<>();
 		
-		double prevY = 0;
-		boolean prevWasNan = false;
+		SearchProgress progress = listener == null ? null : new SearchProgress(listener, lastIndex+1, resultsProcessor);
+		SearchTask task = new SearchTask(searchType, secondaryExpression, grid, 0, lastIndex, tolerance, progress);
+		// a search started from a ForkJoinPool's thread (e.g. by the batch calculator) stays in that pool, so it never uses more threads than the pool has
+		ArrayList<Point> results = ForkJoinTask.inForkJoinPool() ? task.invoke() : ForkJoinPool.commonPool().invoke(task);
+		return resultsProcessor.apply(results);
+	}
+	
+	private class SearchTask extends RecursiveTask<ArrayList<Point>> {
 		
-		// first iteration is skipped
-		for(double x = Math.floor(minCoord); x <= maxCoord; x = RoundingUtils.roundToDecimalPlaces(x+SEARCH_STEP, SEARCH_DECIMAL_PLACES)) {
-			double currY = h(x);
-			
-			if(Double.isNaN(currY))  {
-				prevWasNan = true;
-				continue;
-			}
+		private static final long serialVersionUID = 1L;
+		
+		private SearchType searchType;
+		private String secondaryExpression;
+		// ForkJoinTasks are Serializable but a search is never serialized, so the parts that can't be are transient
+		private transient SearchGrid grid;
+		private double tolerance;
+		private long firstIndex, lastIndex;
+		private transient SearchProgress progress;
+		
+		private SearchTask(SearchType searchType, String secondaryExpression, SearchGrid grid, long firstIndex, long lastIndex, double tolerance, SearchProgress progress) {
+			this.searchType = searchType;
+			this.secondaryExpression = secondaryExpression;
+			this.grid = grid;
+			this.firstIndex = firstIndex;
+			this.lastIndex = lastIndex;
+			this.tolerance = tolerance;
+			this.progress = progress;
+		}
+		
+		@Override
+		protected ArrayList<Point> compute() {
+			if(progress != null && progress.isCancelled()) return new ArrayList<>();
 			
-			if(prevWasNan) {
-				prevWasNan = false;
-				prevY = currY;
-				continue;
-			}
+			long firstChunk = grid.getChunk(firstIndex);
+			long lastChunk = grid.getChunk(lastIndex);
 			
-			if(currY == 0) {
-				roots.add(createPoint(x, f(x)));
+			if(firstChunk == lastChunk) {
+				ArrayList<Point> results = searchCachedChunk(searchType, secondaryExpression, grid, firstIndex, lastIndex, tolerance);
+				if(progress != null) progress.chunkSearched(results, lastIndex-firstIndex+1);
+				return results;
 			}
-			else if(currY*prevY < 0)
-				rootAreas.put(x-SEARCH_STEP, x);
 			
-			prevY = currY;
+			// split between two chunks so that every chunk stays whole
+			long middleChunk = firstChunk + (lastChunk-firstChunk+1)/2;
+			long middleIndex = grid.getChunkFirstIndex(middleChunk)-1;
+			SearchTask left = new SearchTask(searchType, secondaryExpression, grid, firstIndex, middleIndex, tolerance, progress);
+			SearchTask right = new SearchTask(searchType, secondaryExpression, grid, middleIndex+1, lastIndex, tolerance, progress);
+			left.fork();
+			ArrayList<Point> rightResults = right.compute();
+			ArrayList<Point> results = left.join();
+			results.addAll(rightResults);
+			return results;
+		}
+		
+	}
+	
+	// gathers the results of the chunks as they're done and passes the results found so far to the listener
+	private static class SearchProgress {
+		
+		private SearchListener listener;
+		private UnaryOperator<ArrayList<Point>> resultsProcessor;
+		private long totalPoints, searchedPoints;
+		private ArrayList<Point> rawResults;
+		
+		private SearchProgress(SearchListener listener, long totalPoints, UnaryOperator<ArrayList<Point>> resultsProcessor) {
+			this.listener = listener;
+			this.totalPoints = totalPoints;
+			this.resultsProcessor = resultsProcessor;
+			rawResults = new ArrayList<>();
 		}
 		
-		for(Entry<Double, Double> rootArea : rootAreas.entrySet()) {
-			double x = computeRoot(rootArea.getKey(), rootArea.getValue());
-			roots.add(createPoint(x, f(x)));
+		private boolean isCancelled() {
+			return listener.isCancelled();
 		}
 		
-		ArrayList<Point> localExtremes = findLocalExtremes(minCoord, maxCoord, FIND_MAX);
-		localExtremes.addAll(findLocalExtremes(minCoord, maxCoord, FIND_MIN));
+		// synchronized so that the listener always gets the results in the order they were found
+		private synchronized void chunkSearched(ArrayList<Point> chunkResults, long chunkPoints) {
+			searchedPoints += chunkPoints;
+			rawResults.addAll(chunkResults);
+			listener.resultsUpdated(resultsProcessor.apply(new ArrayList<>(rawResults)), (double) searchedPoints/totalPoints);
+		}
 		
-		for(Point localExtreme : localExtremes)
-			if(RoundingUtils.roundToDecimalPlaces(h(localExtreme.getX()), CALCULATION_DECIMAL_PLACES) == 0)
-				roots.add(localExtreme);
+	}
+	
+	/*
+	 * Only whole chunks are cached. The scanner also evaluates the two xs before a chunk (even before the grid's first index),
+	 * so a chunk at the very start of the search area has the same results as the same chunk in any other search.
+	 */
+	private ArrayList<Point> searchCachedChunk(SearchType searchType, String secondaryExpression, SearchGrid grid, long firstIndex, long lastIndex, double tolerance) {
+		long chunk = grid.getChunk(firstIndex);
+		boolean wholeChunk = firstIndex == grid.getChunkFirstIndex(chunk) && lastIndex-firstIndex+1 == grid.getChunkSize();
+		if(!wholeChunk) return searchChunk(searchType, secondaryExpression, grid, firstIndex, lastIndex, tolerance);
 		
-		Collections.sort(roots);
-		return roots;
+		String key = SearchCache.getChunkKey(expression, secondaryExpression, getConstantsKey(secondaryExpression), searchType.name(), grid.getStep(), tolerance, chunk);
+		ArrayList<Point> results = SearchCache.get(key);
+		if(results == null) {
+			results = searchChunk(searchType, secondaryExpression, grid, firstIndex, lastIndex, tolerance);
+			SearchCache.put(key, results);
+		}
+		return results;
 	}
 	
 	/*
 	 * How this method works:
-	 * Three consecutive xs are kept at time. If the middle x is evaluated higher/lower than the other variables, it means there's a local extreme in the area between the outer xs.
-	 * All local extremes areas are saved and their extremes calculated.
 	 * 
-	 * The returned ArrayList Points aren't rounded to the usual amount or sorted since this is only used as an intermediate step in other functions
-	 */ 
-	private ArrayList<Point> findLocalExtremes(double minCoord, double maxCoord, boolean findMax) {
-		ArrayList<Point> localExtremes = new ArrayList<>();
-		HashMap<Double, Double> localExtremeAreas = new HashMap<>();
+	 * The scanner saves the xs evaluated exactly to 0 as roots and the areas between two consecutive xs with different signs as root areas,
+	 * whose roots are then calculated.
+	 * Roots that touch the x axis without crossing it (e.g. x^2) don't change sign, so the local extremes found in the same scan that evaluate to 0 are also roots.
+	 * 
+	 * For maximums/minimums, the scanner saves the areas between three consecutive xs where the middle x is evaluated higher/lower than the other two,
+	 * meaning there's a local extreme in that area. The extreme of each area is then calculated.
+	 * 
+	 * The returned points aren't sorted since this is only used as an intermediate step in other functions
+	 */
+	private ArrayList<Point> searchChunk(SearchType searchType, String secondaryExpression, SearchGrid grid, long firstIndex, long lastIndex, double tolerance) {
+		DoubleUnaryOperator f = createEvaluator();
+		DoubleUnaryOperator h = createDifferenceEvaluator(f, secondaryExpression);
 		
-		double pprevY = 0, prevY = 0;
-		int iterationsSinceNan = 0;
+		GridScanner scanner = restrictToSearchArea(getChunkScan(h, secondaryExpression, grid, firstIndex), grid, firstIndex, lastIndex);
 		
-		// first two iterations are skipped
-		for(double x = Math.floor(minCoord); x <= maxCoord; x = RoundingUtils.roundToDecimalPlaces(x+SEARCH_STEP, SEARCH_DECIMAL_PLACES)) {
-			double currY = h(x);
-			if(Double.isNaN(currY))  {
-				iterationsSinceNan = 1;
-				continue;
-			}
-			
-			// two iterations must happen after a NaN to resume the loop correctly
-			// since three points are needed at a time
-			if(iterationsSinceNan >= 0) {
-				iterationsSinceNan--;
-				prevY = currY;
-				pprevY = h(x-1);
-				continue;
-			}
-
-			if(findMax && prevY > pprevY && prevY > currY)
-				localExtremeAreas.put(x-2, x);
-			else if(!findMax && prevY < pprevY && prevY < currY)
-				localExtremeAreas.put(x-2, x);
-			
-			pprevY = prevY;
-			prevY = currY;
+		if(searchType == SearchType.MAXIMUMS)
+			return computeLocalExtremes(scanner, f, h, FIND_MAX);
+		if(searchType == SearchType.MINIMUMS)
+			return computeLocalExtremes(scanner, f, h, FIND_MIN);
+		
+		return collectRoots(scanner, f, h, tolerance);
+	}
+	
+	/*
+	 * The scan of the whole chunk the index is in, taken from the SearchCache if it was already scanned.
+	 * Whole chunks are always scanned (even at the edges of the search area) so that every scan can be kept and later searches
+	 * only scan the chunks no search has scanned before.
+	 */
+	private GridScanner getChunkScan(DoubleUnaryOperator h, String secondaryExpression, SearchGrid grid, long index) {
+		long chunk = grid.getChunk(index);
+		String key = SearchCache.getScanKey(expression, secondaryExpression, getConstantsKey(secondaryExpression), grid.getStep(), chunk);
+		
+		GridScanner chunkScan = SearchCache.getScan(key);
+		if(chunkScan == null) {
+			long chunkFirstIndex = grid.getChunkFirstIndex(chunk);
+			chunkScan = new GridScanner();
+			chunkScan.scan(h, grid.getStart(), grid.getStep(), chunkFirstIndex, chunkFirstIndex+grid.getChunkSize()-1);
+			SearchCache.putScan(key, chunkScan);
+		}
+		return chunkScan;
+	}
+	
+	// the part of the scan between the two indexes, without anything that starts before the search area
+	private GridScanner restrictToSearchArea(GridScanner scanner, SearchGrid grid, long firstIndex, long lastIndex) {
+		return scanner.restrict(grid.getStart(), grid.getX(firstIndex), grid.getX(lastIndex));
+	}
+	
+	// roots of h found by the scanner, with their ys taken from f (the roots of f - g are the intersections of f and g)
+	private ArrayList<Point> collectRoots(GridScanner scanner, DoubleUnaryOperator f, DoubleUnaryOperator h, double tolerance) {
+		ArrayList<Point> roots = new ArrayList<>();
+		
+		Brackets exactRoots = scanner.getExactRoots();
+		for(int i = 0; i < exactRoots.size(); i++) {
+			double x = exactRoots.getStart(i);
+			roots.add(createPoint(x, f.applyAsDouble(x)));
 		}
 		
+		Brackets rootAreas = scanner.getRootBrackets();
+		for(int i = 0; i < rootAreas.size(); i++) {
+			double x = computeRoot(h, rootAreas.getStart(i), rootAreas.getEnd(i), tolerance);
+			roots.add(createPoint(x, f.applyAsDouble(x)));
+		}
+		
+		ArrayList<Point> localExtremes = computeLocalExtremes(scanner, f, h, FIND_MAX);
+		localExtremes.addAll(computeLocalExtremes(scanner, f, h, FIND_MIN));
+		
+		for(Point localExtreme : localExtremes)
+			if(RoundingUtils.roundToDecimalPlaces(h.applyAsDouble(localExtreme.getX()), CALCULATION_DECIMAL_PLACES) == 0)
+				roots.add(localExtreme);
+		
+		return roots;
+	}
+	
+	// the returned ArrayList Points aren't rounded to the usual amount
+	private ArrayList<Point> computeLocalExtremes(GridScanner scanner, DoubleUnaryOperator f, DoubleUnaryOperator h, boolean findMax) {
+		Brackets localExtremeAreas = scanner.getExtremeBrackets(findMax);
+		ArrayList<Point> localExtremes = new ArrayList<>(localExtremeAreas.size());
+		
 		double x, y;
-		for(Entry<Double, Double> localExtremeArea : localExtremeAreas.entrySet()) {
-			x = computeExtreme(localExtremeArea.getKey(), localExtremeArea.getValue(), findMax);
-			y = RoundingUtils.roundToDecimalPlaces(f(x), CALCULATION_DECIMAL_PLACES);
+		for(int i = 0; i < localExtremeAreas.size(); i++) {
+			x = computeExtreme(h, localExtremeAreas.getStart(i), localExtremeAreas.getEnd(i), findMax);
+			y = RoundingUtils.roundToDecimalPlaces(f.applyAsDouble(x), CALCULATION_DECIMAL_PLACES);
 			localExtremes.add(createPoint(x, y));
 		}
 		
 		return localExtremes;
 	}
 	
-	private ArrayList<Point> findFunctionMaximums(double minCoord, double maxCoord) {
-		ArrayList<Point> localMaximums = findLocalExtremes(minCoord, maxCoord, FIND_MAX);
-		ArrayList<Point> functionMaximums = new ArrayList<>();
+	private ArrayList<Point> findRoots(SearchGrid grid, String secondaryExpression, double tolerance, SearchListener listener) {
+		Polynomial h = getDifferencePolynomial(secondaryExpression);
+		// a constant difference has no roots or is 0 everywhere, the grid search already handles both
+		if(h != null && !h.isConstant()) {
+			ArrayList<Point> roots = computePolynomialRoots(h, grid, secondaryExpression, listener);
+			if(roots != null)
+				return withFinalResults(roots, listener);
+		}
+		
+		return searchArea(SearchType.ROOTS, grid, secondaryExpression, tolerance, listener, this::sortRoots);
+	}
+	
+	// same grid as searchArea so the solutions found are the same
+	private SolutionEnumerator createRootEnumerator(String secondaryExpression, double tolerance) {
+		SearchGrid grid = createSearchGrid();
+		double center = referentialLimits.getXMin() + referentialLimits.getXLength()/2;
+		
+		ChunkSearcher chunkSearcher = (firstIndex, lastChunkIndex, listener) -> searchCachedChunk(SearchType.ROOTS, secondaryExpression, grid, firstIndex, lastChunkIndex, tolerance);
+		Polynomial h = getDifferencePolynomial(secondaryExpression);
+		if(h != null && !h.isConstant())
+			chunkSearcher = new PolynomialChunkSearcher(h, grid, secondaryExpression, chunkSearcher);
+		
+		return new SolutionEnumerator(chunkSearcher, this::sortRoots, grid.getStart(), grid.getStep(), grid.getLastIndex(), center, grid.getChunkSize(), grid.getChunkFirstIndex(0));
+	}
+	
+	private ArrayList<FunctionIntersections> findAllIntersections(List<Function> functions, SearchGrid grid, double tolerance, SearchListener listener) {
+		int functionCount = functions.size();
+		int pairCount = functionCount*(functionCount-1)/2;
+		
+		ArrayList<ArrayList<Point>> pairsIntersections = new ArrayList<>(pairCount);
+		for(int i = 0; i < pairCount; i++)
+			pairsIntersections.add(new ArrayList<>());
+		
+		long lastIndex = grid.getLastIndex();
+		long totalPoints = lastIndex+1;
+		long[] searchedPoints = {0};
+		ArrayList<Point> intersectionsSoFar = new ArrayList<>();
 		
-		double y, maxY = Double.MIN_VALUE;
-		for(Point localMaximum : localMaximums) {
-			y = localMaximum.getY();
-			if(y >= maxY) {
-				if(y > maxY && !localMaximums.isEmpty()) {
-					maxY = y;
-					functionMaximums.clear();
+		// the chunks are the same as in searchArea, each one is sampled and scanned by a single thread
+		long firstChunk = grid.getChunk(0);
+		long lastChunk = lastIndex < 0 ? firstChunk-1 : grid.getChunk(lastIndex);
+		LongStream.rangeClosed(firstChunk, lastChunk).parallel().forEach(chunk -> {
+			if(listener != null && listener.isCancelled()) return;
+			
+			long firstIndex = Math.max(0, grid.getChunkFirstIndex(chunk));
+			long chunkLastIndex = Math.min(lastIndex, grid.getChunkFirstIndex(chunk+1)-1);
+			ArrayList<ArrayList<Point>> chunkIntersections = searchIntersectionsChunk(functions, grid, firstIndex, chunkLastIndex, tolerance);
+			
+			synchronized(pairsIntersections) {
+				for(int i = 0; i < pairCount; i++) {
+					pairsIntersections.get(i).addAll(chunkIntersections.get(i));
+					intersectionsSoFar.addAll(chunkIntersections.get(i));
+				}
+				
+				searchedPoints[0] += chunkLastIndex-firstIndex+1;
+				if(listener != null) {
+					ArrayList<Point> sortedIntersections = new ArrayList<>(intersectionsSoFar);
+					Collections.sort(sortedIntersections);
+					listener.resultsUpdated(sortedIntersections, (double) searchedPoints[0]/totalPoints);
 				}
-				functionMaximums.add(localMaximum);
 			}
+		});
+		
+		ArrayList<FunctionIntersections> allIntersections = new ArrayList<>(pairCount);
+		int pairPos = 0;
+		for(int i = 0; i < functionCount; i++)
+			for(int j = i+1; j < functionCount; j++)
+				allIntersections.add(new FunctionIntersections(i, j, sortRoots(pairsIntersections.get(pairPos++))));
+		
+		return allIntersections;
+	}
+	
+	// the intersections of each pair (in the same order as the pairs in findAllIntersections), found from the functions' values sampled once
+	private ArrayList<ArrayList<Point>> searchIntersectionsChunk(List<Function> functions, SearchGrid grid, long firstIndex, long lastIndex, double tolerance) {
+		int functionCount = functions.size();
+		
+		// the two xs before the chunk are sampled too, like GridScanner does
+		long sampleStart = firstIndex-2;
+		int sampleCount = (int) (lastIndex-sampleStart+1);
+		
+		DoubleUnaryOperator[] evaluators = new DoubleUnaryOperator[functionCount];
+		double[][] values = new double[functionCount][sampleCount];
+		for(int i = 0; i < functionCount; i++) {
+			evaluators[i] = functions.get(i).createEvaluator();
+			for(int j = 0; j < sampleCount; j++)
+				values[i][j] = evaluators[i].applyAsDouble(grid.getX(sampleStart+j));
 		}
-
-		Collections.sort(functionMaximums);
-		return functionMaximums;
+		
+		ArrayList<ArrayList<Point>> chunkIntersections = new ArrayList<>();
+		GridScanner scanner = new GridScanner();
+		for(int i = 0; i < functionCount; i++)
+			for(int j = i+1; j < functionCount; j++) {
+				double[] fValues = values[i], gValues = values[j];
+				scanner.scanValues(index -> fValues[(int) (index-sampleStart)] - gValues[(int) (index-sampleStart)], grid.getStart(), grid.getStep(), firstIndex, lastIndex);
+				
+				DoubleUnaryOperator f = evaluators[i], g = evaluators[j];
+				GridScanner pairScanner = restrictToSearchArea(scanner, grid, firstIndex, lastIndex);
+				chunkIntersections.add(collectRoots(pairScanner, f, x -> f.applyAsDouble(x) - g.applyAsDouble(x), tolerance));
+			}
+		
+		return chunkIntersections;
+	}
+	
+	private ArrayList<Point> sortRoots(ArrayList<Point> roots) {
+		Collections.sort(roots);
+		
+		// a tangent root that happens to be on the grid is found both as an exact root and as an extreme
+		for(int i = roots.size()-1; i > 0; i--)
+			if(roots.get(i).getX()-roots.get(i-1).getX() < TOLERANCE)
+				roots.remove(i);
+		
+		return roots;
+	}
+	
+	/*
+	 * The real roots of h (f - secondary function) that are inside the search area, polished on the expressions themselves,
+	 * since evaluating the expanded coefficients loses accuracy near multiple roots (e.g. (x-1)^5).
+	 * Returns null if a root still doesn't agree with the expressions after polishing, so the grid search is used instead,
+	 * and no roots if the listener cancels the search.
+	 */
+	private ArrayList<Point> computePolynomialRoots(Polynomial h, SearchGrid grid, String secondaryExpression, SearchListener listener) {
+		ArrayList<Point> roots = new ArrayList<>();
+		double maxX = grid.getX(grid.getLastIndex());
+		DoubleUnaryOperator g = createDifferenceEvaluator(createExpressionEvaluator(), secondaryExpression);
+		Polynomial magnitude = h.absolute();
+		
+		for(Polynomial.Root root : h.getRealRoots(() -> isCancelled(listener))) {
+			if(isCancelled(listener)) return new ArrayList<>();
+			if(root.getX() < grid.getStart() || root.getX() > maxX) continue;
+			
+			double x = polishPolynomialRoot(g, root);
+			// the rounding errors grow with the size of the terms, not of the result (like in parseVerifiedPolynomial)
+			if(!(Math.abs(g.applyAsDouble(x)) <= POLYNOMIAL_CHECK_TOLERANCE*Math.max(1, magnitude.evaluate(Math.abs(x)))))
+				return null;
+			if(x >= grid.getStart() && x <= maxX)
+				roots.add(createPoint(x, f(x)));
+		}
+		
+		return sortRoots(roots);
 	}
 	
-	private ArrayList<Point> findFunctionMinimums(double minCoord, double maxCoord) {
-		ArrayList<Point> localMinimums = findLocalExtremes(minCoord, maxCoord, FIND_MIN);
-		ArrayList<Point> functionMinimums = new ArrayList<>();
+	/*
+	 * The roots of the coefficients are only off by about eps^(1/multiplicity), so the root of the expressions is searched for close to them:
+	 * as a sign change, or where |g| is lowest for the roots that touch 0 without crossing it (even multiplicity).
+	 */
+	private double polishPolynomialRoot(DoubleUnaryOperator g, Polynomial.Root root) {
+		double x = root.getX();
+		double delta = Math.max(TOLERANCE, 4*Math.pow(Math.ulp(1.0), 1.0/root.getMultiplicity())*Math.max(1, Math.abs(x)));
+		double a = x-delta, b = x+delta;
+		
+		double polished;
+		if(g.applyAsDouble(a)*g.applyAsDouble(b) < 0)
+			polished = computeRoot(g, a, b, TOLERANCE);
+		else
+			polished = computeExtreme(t -> Math.abs(g.applyAsDouble(t)), a, b, FIND_MIN);
 		
-		double y, minY = Double.MAX_VALUE;
-		for(Point localMinimum : localMinimums) {
-			y = localMinimum.getY();
-			if(y <= minY) {
-				if(y < minY && !functionMinimums.isEmpty()) {
-					minY = y;
-					functionMinimums.clear();
+		// the polished root is only used if it's better than the polynomial's
+		return Math.abs(g.applyAsDouble(polished)) < Math.abs(g.applyAsDouble(x)) ? polished : x;
+	}
+	
+	// takes each chunk's roots out of the polynomial's roots, which are all found the first time a chunk is searched
+	// if they don't agree with the expressions, the chunks are searched on the grid instead
+	private class PolynomialChunkSearcher implements ChunkSearcher {
+		
+		private Polynomial h;
+		private SearchGrid grid;
+		private String secondaryExpression;
+		private ChunkSearcher gridSearcher;
+		
+		private ArrayList<Point> roots;
+		private boolean useGrid;
+		
+		private PolynomialChunkSearcher(Polynomial h, SearchGrid grid, String secondaryExpression, ChunkSearcher gridSearcher) {
+			this.h = h;
+			this.grid = grid;
+			this.secondaryExpression = secondaryExpression;
+			this.gridSearcher = gridSearcher;
+		}
+		
+		@Override
+		public ArrayList<Point> searchChunk(long firstIndex, long lastIndex, SearchListener listener) {
+			synchronized(this) {
+				if(roots == null && !useGrid) {
+					ArrayList<Point> computedRoots = computePolynomialRoots(h, grid, secondaryExpression, listener);
+					// nothing is kept, the roots are found again the next time
+					if(isCancelled(listener)) return null;
+					if(computedRoots == null)
+						useGrid = true;
+					else
+						roots = computedRoots;
 				}
-				functionMinimums.add(localMinimum);
 			}
+			if(useGrid) return gridSearcher.searchChunk(firstIndex, lastIndex, listener);
+			
+			ArrayList<Point> chunkRoots = new ArrayList<>();
+			for(Point root : roots)
+				if(root.getX() > grid.getX(firstIndex-1) && root.getX() <= grid.getX(lastIndex))
+					chunkRoots.add(root);
+			return chunkRoots;
+		}
+		
+	}
+	
+	private static boolean isCancelled(SearchListener listener) {
+		return listener != null && listener.isCancelled();
+	}
+	
+	private ArrayList<Point> computePolynomialExtremes(SearchGrid grid, boolean findMax, SearchListener listener) {
+		ArrayList<Point> localExtremes = new ArrayList<>();
+		double maxX = grid.getX(grid.getLastIndex());
+		
+		for(double x : polynomial.getLocalExtremes(findMax, () -> isCancelled(listener)))
+			if(x >= grid.getStart() && x <= maxX)
+				localExtremes.add(createPoint(x, RoundingUtils.roundToDecimalPlaces(f(x), CALCULATION_DECIMAL_PLACES)));
+		
+		return filterFunctionExtremes(localExtremes, findMax);
+	}
+	
+	private ArrayList<Point> findFunctionMaximums(SearchGrid grid, SearchListener listener) {
+		if(polynomial != null)
+			return withFinalResults(computePolynomialExtremes(grid, FIND_MAX, listener), listener);
+		return searchArea(SearchType.MAXIMUMS, grid, null, TOLERANCE, listener, localMaximums -> filterFunctionExtremes(localMaximums, FIND_MAX));
+	}
+	
+	private ArrayList<Point> findFunctionMinimums(SearchGrid grid, SearchListener listener) {
+		if(polynomial != null)
+			return withFinalResults(computePolynomialExtremes(grid, FIND_MIN, listener), listener);
+		return searchArea(SearchType.MINIMUMS, grid, null, TOLERANCE, listener, localMinimums -> filterFunctionExtremes(localMinimums, FIND_MIN));
+	}
+	
+	// the algebraic searches finish at once, the listener only gets the final results
+	private ArrayList<Point> withFinalResults(ArrayList<Point> results, SearchListener listener) {
+		if(listener != null)
+			listener.resultsUpdated(new ArrayList<>(results), 1);
+		return results;
+	}
+	
+	// keeps only the highest/lowest of the local extremes (more than one if they're tied)
+	private ArrayList<Point> filterFunctionExtremes(ArrayList<Point> localExtremes, boolean findMax) {
+		ArrayList<Point> functionExtremes = new ArrayList<>();
+		
+		double y, extremeY = findMax ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		for(Point localExtreme : localExtremes) {
+			y = localExtreme.getY();
+			if((findMax && y > extremeY) || (!findMax && y < extremeY)) {
+				extremeY = y;
+				functionExtremes.clear();
+			}
+			if(y == extremeY)
+				functionExtremes.add(localExtreme);
 		}
 		
-		Collections.sort(functionMinimums);
-		return functionMinimums;
+		Collections.sort(functionExtremes);
+		return functionExtremes;
 	}
 	
 	
 	// Mathematical Algorithms
 	
 	// Root Finding Algorithm
-	// Bissection Method
+	// Brent's Method
 	// find the root that exists between two points with different signs
 	// if the secondaryFunction variable is set then this method returns the intersection between the two functions
-	private double computeRoot(double a, double b) {
-		if(h(a)*h(b) > 0) return Double.NaN;
-		double m = (a+b)/2;
-		if(h(m) == 0) return m;
-		
-		double y1, ym;
-		while(b-a > TOLERANCE) {
-			y1 = h(a);
-			ym = h(m);
+	// 
+	// Each iteration tries an inverse quadratic interpolation (or a secant step when only two points are known) through the last points,
+	// falling back to bisection whenever the interpolated step wouldn't shrink the bracket fast enough.
+	// b is always the best estimate and c the opposite end of the bracket, and every point's value is only ever evaluated once.
+	private final int MAX_ROOT_ITERATIONS = 100;
+	
+	private double computeRoot(DoubleUnaryOperator h, double a, double b, double tolerance) {
+		double fa = h.applyAsDouble(a), fb = h.applyAsDouble(b);
+		if(fa == 0) return a;
+		if(fb == 0) return b;
+		if(!(fa*fb < 0)) return Double.NaN;
+		
+		double c = a, fc = fa;
+		double d = b-a, e = d;
+		
+		for(int i = 0; i < MAX_ROOT_ITERATIONS; i++) {
+			// keep the root between b and c
+			if(fb*fc > 0) {
+				c = a;
+				fc = fa;
+				d = e = b-a;
+			}
+			// keep b as the point closest to the root
+			if(Math.abs(fc) < Math.abs(fb)) {
+				a = b; fa = fb;
+				b = c; fb = fc;
+				c = a; fc = fa;
+			}
 			
-			if(y1*ym < 0)
-				b = m;
-			else
-				a = m;
+			double tol = 2*Math.ulp(1.0)*Math.abs(b) + tolerance/2;
+			double m = (c-b)/2;
+			if(Math.abs(m) <= tol || fb == 0) return b;
+			
+			if(Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+				double p, q, s = fb/fa;
+				if(a == c) {
+					// secant
+					p = 2*m*s;
+					q = 1-s;
+				}
+				else {
+					// inverse quadratic interpolation
+					double r1 = fa/fc, r2 = fb/fc;
+					p = s*(2*m*r1*(r1-r2) - (b-a)*(r2-1));
+					q = (r1-1)*(r2-1)*(s-1);
+				}
+				
+				if(p > 0) q = -q;
+				else p = -p;
+				
+				if(2*p < Math.min(3*m*q - Math.abs(tol*q), Math.abs(e*q))) {
+					e = d;
+					d = p/q;
+				}
+				else {
+					d = m;
+					e = m;
+				}
+			}
+			else {
+				d = m;
+				e = m;
+			}
 			
-			m = (a+b)/2;
+			a = b;
+			fa = fb;
+			b += Math.abs(d) > tol ? d : Math.copySign(tol, m);
+			fb = h.applyAsDouble(b);
+			
+			// the function isn't defined somewhere inside the bracket, so the bracket is only halved
+			if(Double.isNaN(fb)) {
+				b = a + m;
+				fb = h.applyAsDouble(b);
+				if(Double.isNaN(fb)) return a;
+			}
 		}
 		
-		return m;
+		return b;
 	}
 	
 	// Maximum/Minimum Finding Algorithm
-	// Golden Section Search Method
+	// Brent's Method for minimization
 	// find the maximum/minimum that exists between two points
-	private double computeExtreme(double a, double b, boolean findMaximum) {
-		double x1, x2, d;
-		boolean cond;
-		
-		while(b-a > TOLERANCE) {
-			d = GOLDEN_RATIO*(b-a);
-			x1 = a+d;
-			x2 = b-d;
-			
-			if(findMaximum)
-				cond = h(x1) > h(x2);
-			else
-				cond = h(x1) < h(x2);
+	// 
+	// A parabola is fitted through the three best points found so far and its vertex is tried as the next point.
+	// When the parabolic step isn't acceptable (falls outside the area or doesn't shrink fast enough) a golden section step is taken instead.
+	// Maximums are found as the minimums of -h, and every point is only evaluated once.
+	private final int MAX_EXTREME_ITERATIONS = 100;
+	private final double SQRT_EPSILON = Math.sqrt(Math.ulp(1.0));
+	// the relative tolerance is only used where it's tighter than TOLERANCE (near 0), this keeps it from reaching 0 there
+	private final double MIN_EXTREME_TOLERANCE = TOLERANCE/1000;
+	
+	private double computeExtreme(DoubleUnaryOperator h, double a, double b, boolean findMaximum) {
+		double sign = findMaximum ? -1 : 1;
+		double goldenSection = 1-GOLDEN_RATIO;
 		
-			if(cond)
-				a = x2;
-			else
-				b = x1;
+		// x is the best point so far, w the second best and v the previous value of w
+		double x = a + goldenSection*(b-a);
+		double w = x, v = x;
+		double fx = sign*h.applyAsDouble(x);
+		double fw = fx, fv = fx;
+		double d = 0, e = 0;
+		
+		for(int i = 0; i < MAX_EXTREME_ITERATIONS; i++) {
+			double m = (a+b)/2;
+			// sqrt(eps)*|x| gets looser than TOLERANCE once |x| is above ~70, so it can only tighten it
+			double tol1 = Math.max(Math.min(SQRT_EPSILON*Math.abs(x), TOLERANCE/3), MIN_EXTREME_TOLERANCE);
+			double tol2 = 2*tol1;
+			if(Math.abs(x-m) <= tol2 - (b-a)/2) break;
+			
+			boolean goldenStep = true;
+			if(Math.abs(e) > tol1) {
+				double r = (x-w)*(fx-fv);
+				double q = (x-v)*(fx-fw);
+				double p = (x-v)*q - (x-w)*r;
+				q = 2*(q-r);
+				if(q > 0) p = -p;
+				else q = -q;
+				
+				double prevE = e;
+				e = d;
+				if(Math.abs(p) < Math.abs(q*prevE/2) && p > q*(a-x) && p < q*(b-x)) {
+					// parabolic step
+					d = p/q;
+					double u = x+d;
+					if(u-a < tol2 || b-u < tol2)
+						d = Math.copySign(tol1, m-x);
+					goldenStep = false;
+				}
+			}
+			
+			if(goldenStep) {
+				e = x >= m ? a-x : b-x;
+				d = goldenSection*e;
+			}
+			
+			double u = Math.abs(d) >= tol1 ? x+d : x+Math.copySign(tol1, d);
+			double fu = sign*h.applyAsDouble(u);
+			
+			if(fu <= fx) {
+				if(u < x) b = x;
+				else a = x;
+				v = w; fv = fw;
+				w = x; fw = fx;
+				x = u; fx = fu;
+			}
+			else {
+				if(u < x) a = u;
+				else b = u;
+				
+				if(fu <= fw || w == x) {
+					v = w; fv = fw;
+					w = u; fw = fu;
+				}
+				else if(fu <= fv || v == x || v == w) {
+					v = u; fv = fu;
+				}
+			}
 		}
 		
-		return (a+b)/2;
+		return x;
 	}
 	
 	// Integral Calculation Algorithm
-	// Monte Carlo integration using anthitetic variables for variance reduction
-	private final int SAMPLE_SIZE = 100000;
-	
-	private double computeIntegral(double a, double b) {
-		Random rand = new Random();
-		double range = (b-a);
-		double randValues[] = new double[SAMPLE_SIZE];
-		double funcSamples[] = new double[SAMPLE_SIZE];
-		double funcSamplesSum = 0;
-		
-		// the generated values must be generated from a Standard Uniform Distribution in order for the anthitetic variables method to be used
-		// hence first generating the value between 0 and 1 (and its opposite) and only then performing the scaling to the specified bounds
-		for(int i = 0; i < SAMPLE_SIZE; i+=2) {
-			randValues[i] = rand.nextDouble();
-			randValues[i+1] = 1-randValues[i];
-			randValues[i] = randValues[i]*range + a;
-			randValues[i+1] = randValues[i+1]*range + a;
-		}
-		
-		for(int i = 0; i < SAMPLE_SIZE; i++) {
-			funcSamples[i] = range*f(randValues[i]);
-			funcSamplesSum += funcSamples[i];
-		}
-		
-		return funcSamplesSum/SAMPLE_SIZE;
+	// Adaptive Gauss-Kronrod quadrature (see GaussKronrodIntegrator)
+	// returns null if the integral doesn't converge or the function isn't defined somewhere in the interval
+	private IntegralResult computeIntegral(double a, double b) {
+		return new GaussKronrodIntegrator(this::f).integrate(a, b);
+	}
+	
+	// Quasi-Monte Carlo integration for the integrands the quadrature struggles with (see QuasiMonteCarloIntegrator)
+	// sampling stops once the QMC_CONFIDENCE_LEVEL confidence interval is narrower than the 3 decimal places the result is shown with
+	private final double QMC_ABSOLUTE_TOLERANCE = 0.0005;
+	private final double QMC_RELATIVE_TOLERANCE = 0.000001;
+	private final double QMC_CONFIDENCE_LEVEL = 0.95;
+	
+	private IntegralResult computeQuasiMonteCarloIntegral(double a, double b) {
+		return new QuasiMonteCarloIntegrator(this::createEvaluator).integrate(a, b, QMC_ABSOLUTE_TOLERANCE, QMC_RELATIVE_TOLERANCE, QMC_CONFIDENCE_LEVEL);
 	}
 	
 }
@@ -0,0 +1,199 @@
+package functionComponents;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+import net.objecthunter.exp4j.Expression;
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+/*
+ * A family of curves f(x; a), with the parameter a swept over curveCount evenly spaced values (like the calculator's DYNA mode).
+ *
+ * All the curves share a single parsed expression and the same xs, so the family is sampled in one pass:
+ * each x is set once and then every value of a is evaluated for it. The ys are kept in one array per curve
+ * instead of as Points, since a family can have hundreds of curves.
+ */
+public class FunctionFamily {
+	
+	public static final String PARAMETER = "a";
+	public static final int MAX_CURVES = 1000;
+	
+	// hundreds of curves are drawn at once, so they're sampled per pixel column instead of with Function's fixed accuracy
+	private final int SAMPLES_PER_PIXEL = 2;
+	// bounds the samples of all the curves together (32MB), a family drawn very wide (e.g. a poster sized export) gets fewer samples per pixel instead
+	private final int MAX_TOTAL_SAMPLES = 1 << 22;
+	// the xs evaluated by each task when sampling in parallel
+	private final int SAMPLING_CHUNK_SIZE = 256;
+	
+	private int width, height;
+	private ReferentialLimits referentialLimits;
+	private String expression;
+	private double parameterMin, parameterMax;
+	private int curveCount;
+	
+	private Expression function;
+	// the other constants (b and c) keep their shared values, the parameter's value set by the family takes the place of a's
+	private ConstantValues constants;
+	
+	// while a constant is being changed the curves are sampled with this many points across the view instead, 0 when they aren't
+	private double previewAccuracy;
+	
+	// samples[curve][i] is the y of x = (firstIndex+i)*step, NaN where it's undefined
+	private double[][] samples;
+	private long firstIndex;
+	private double step;
+	
+	
+	public FunctionFamily(Dimension size, ReferentialLimits referentialLimits, String expression, double parameterMin, double parameterMax, int curveCount) {
+		if(curveCount < 1 || curveCount > MAX_CURVES)
+			throw new IllegalArgumentException("A family must have between 1 and " + MAX_CURVES + " curves.");
+		if(!Double.isFinite(parameterMin) || !Double.isFinite(parameterMax))
+			throw new IllegalArgumentException("The parameter's range must be finite.");
+		
+		this.width = size.width;
+		this.height = size.height;
+		this.referentialLimits = referentialLimits;
+		this.expression = expression;
+		this.parameterMin = parameterMin;
+		this.parameterMax = parameterMax;
+		this.curveCount = curveCount;
+		
+		constants = new ConstantValues();
+		function = new ExpressionBuilder(expression).variable("x").variables(ConstantValues.NAMES).build();
+	}
+	
+	// a copy of parsedFamily for another frame and view, which reuses its parsed expression instead of parsing it again (with a snapshot of its constants, like Function's copies)
+	public FunctionFamily(Dimension size, ReferentialLimits referentialLimits, FunctionFamily parsedFamily) {
+		this.width = size.width;
+		this.height = size.height;
+		this.referentialLimits = referentialLimits;
+		expression = parsedFamily.expression;
+		parameterMin = parsedFamily.parameterMin;
+		parameterMax = parsedFamily.parameterMax;
+		curveCount = parsedFamily.curveCount;
+		constants = new ConstantValues(parsedFamily.constants);
+		
+		function = new Expression(parsedFamily.function);
+	}
+	
+	public String getExpression() {
+		return expression;
+	}
+	
+	public double getParameterMin() {
+		return parameterMin;
+	}
+	
+	public double getParameterMax() {
+		return parameterMax;
+	}
+	
+	public int getCurveCount() {
+		return curveCount;
+	}
+	
+	public double getParameterValue(int curve) {
+		if(curveCount == 1) return parameterMin;
+		return parameterMin + (parameterMax-parameterMin)*curve/(curveCount-1);
+	}
+	
+	public void setConstants(ConstantValues constants) {
+		this.constants = constants;
+		samples = null;
+	}
+	
+	// whether the curves use any constant besides the parameter
+	public boolean usesConstants() {
+		for(String name : ConstantValues.NAMES)
+			if(!name.equals(PARAMETER) && function.getVariableNames().contains(name))
+				return true;
+		return false;
+	}
+	
+	public void recalculateFrameSize(Dimension size) {
+		this.width = size.width;
+		this.height = size.height;
+		samples = null;
+	}
+	
+	// like Function.setPreviewAccuracy, the samples are computed again either way since this is called after the constants changed
+	public void setPreviewAccuracy(double previewAccuracy) {
+		this.previewAccuracy = previewAccuracy;
+		samples = null;
+	}
+	
+	// like Function's points, the samples are only computed when they're first needed
+	public double[][] getSamples() {
+		if(samples == null)
+			computeSamples();
+		return samples;
+	}
+	
+	public double getSampleX(int i) {
+		getSamples();
+		return (firstIndex+i)*step;
+	}
+	
+	// the xs are multiples of the step, like Function's points, so the curves line up with the functions drawn with them
+	private void computeSamples() {
+		double samplesAcross = Math.min((double) Math.max(1, width)*SAMPLES_PER_PIXEL, Math.max(1, MAX_TOTAL_SAMPLES/curveCount));
+		if(previewAccuracy > 0)
+			samplesAcross = Math.min(samplesAcross, previewAccuracy);
+		step = referentialLimits.getXLength()/samplesAcross;
+		firstIndex = (long) Math.ceil(referentialLimits.getXMin()/step);
+		long lastIndex = (long) Math.floor(referentialLimits.getXMax()/step);
+		int sampleCount = (int) Math.max(0, lastIndex-firstIndex+1);
+		
+		double[] parameterValues = new double[curveCount];
+		for(int c = 0; c < curveCount; c++)
+			parameterValues[c] = getParameterValue(c);
+		
+		double[][] newSamples = new double[curveCount][sampleCount];
+		int chunks = (sampleCount + SAMPLING_CHUNK_SIZE-1)/SAMPLING_CHUNK_SIZE;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			// exp4j expressions store their variables' values, so each task needs its own copy
+			Expression expressionCopy = new Expression(function);
+			constants.applyTo(expressionCopy);
+			int end = Math.min(sampleCount, (chunk+1)*SAMPLING_CHUNK_SIZE);
+			for(int i = chunk*SAMPLING_CHUNK_SIZE; i < end; i++) {
+				expressionCopy.setVariable("x", (firstIndex+i)*step);
+				for(int c = 0; c < curveCount; c++)
+					newSamples[c][i] = evaluate(expressionCopy, parameterValues[c]);
+			}
+		});
+		samples = newSamples;
+	}
+	
+	private double evaluate(Expression expression, double parameterValue) {
+		try {
+			return expression.setVariable(PARAMETER, parameterValue).evaluate();
+		} catch(Exception e) {
+			return Double.NaN;
+		}
+	}
+	
+	// a curve as Points, like Function.getPoints() (null for the undefined points), for code that draws Points (e.g. the svg export)
+	public ArrayList<Point> getCurvePoints(int curve) {
+		double[] ys = getSamples()[curve];
+		double limits[] = referentialLimits.getLimits();
+		
+		ArrayList<Point> points = new ArrayList<>(ys.length);
+		for(int i = 0; i < ys.length; i++) {
+			if(Double.isFinite(ys[i]))
+				points.add(new Point((firstIndex+i)*step, ys[i], width, height, limits));
+			else
+				points.add(null);
+		}
+		return points;
+	}
+	
+	public ReferentialLimits getReferentialLimits() {
+		return referentialLimits;
+	}
+	
+	public Dimension getSize() {
+		return new Dimension(width, height);
+	}
+
+}
@@ -0,0 +1,34 @@
+package functionComponents;
+
+import java.util.ArrayList;
+
+/*
+ * Intersections between two of the functions given to Function.getAllIntersections(),
+ * which are identified by their positions in the list of functions given.
+ */
+public class FunctionIntersections {
+	
+	private int firstFunctionPos, secondFunctionPos;
+	private ArrayList<Point> intersections;
+	
+	
+	public FunctionIntersections(int firstFunctionPos, int secondFunctionPos, ArrayList<Point> intersections) {
+		this.firstFunctionPos = firstFunctionPos;
+		this.secondFunctionPos = secondFunctionPos;
+		this.intersections = intersections;
+	}
+	
+	public int getFirstFunctionPos() {
+		return firstFunctionPos;
+	}
+	
+	public int getSecondFunctionPos() {
+		return secondFunctionPos;
+	}
+	
+	// sorted by x
+	public ArrayList<Point> getIntersections() {
+		return intersections;
+	}
+	
+}
@@ -0,0 +1,141 @@
+package functionComponents;
+
+import java.util.PriorityQueue;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * Adaptive Gauss-Kronrod (G7K15) quadrature.
+ * 
+ * Each area is integrated with the 15 point Kronrod rule, and the difference to the embedded 7 point Gauss rule
+ * (which reuses 7 of the same evaluations) is used as the area's error estimate.
+ * The area with the largest error is bisected until the total error is small enough, so the evaluations
+ * concentrate where the function is hard to integrate (peaks, oscillations, singularities at the bounds).
+ * 
+ * The rules never evaluate the bounds themselves, so integrable singularities at the bounds (e.g. 1/sqrt(x) on [0, 1])
+ * are handled by repeatedly bisecting the area next to them.
+ */
+public class GaussKronrodIntegrator {
+	
+	// Kronrod nodes in [0, 1], the odd positions are also the Gauss nodes
+	private static final double[] XGK = {
+			0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+			0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+			0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+			0.207784955007898467600689403773245, 0.000000000000000000000000000000000};
+	
+	private static final double[] WGK = {
+			0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+			0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+			0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+			0.204432940075298892414161999234649, 0.209482141084727828012999174891714};
+	
+	private static final double[] WG = {
+			0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+			0.381830050505118944950369775488975, 0.417959183673469387755102040816327};
+	
+	private final double ABSOLUTE_TOLERANCE = 1e-10;
+	private final double RELATIVE_TOLERANCE = 1e-10;
+	private final int MAX_SUBDIVISIONS = 2000;
+	
+	// a result whose error is still above these once the subdivisions run out isn't trusted and the integral is considered divergent
+	private final double MAX_ACCEPTED_ABSOLUTE_ERROR = 1e-6;
+	private final double MAX_ACCEPTED_RELATIVE_ERROR = 1e-6;
+	
+	private DoubleUnaryOperator f;
+	
+	
+	public GaussKronrodIntegrator(DoubleUnaryOperator f) {
+		this.f = f;
+	}
+	
+	// returns null if the integral couldn't be calculated (undefined points, divergence)
+	public IntegralResult integrate(double a, double b) {
+		if(a == b) return new IntegralResult(0, 0);
+		if(a > b) {
+			IntegralResult result = integrate(b, a);
+			return result == null ? null : new IntegralResult(-result.getValue(), result.getErrorEstimate());
+		}
+		
+		PriorityQueue<Area> areas = new PriorityQueue<>((a1, a2) -> Double.compare(a2.error, a1.error));
+		Area first = integrateArea(a, b);
+		if(first == null) return null;
+		areas.add(first);
+		
+		double value = first.value;
+		double error = first.error;
+		
+		for(int i = 0; i < MAX_SUBDIVISIONS && error > tolerance(value); i++) {
+			Area worst = areas.poll();
+			double m = (worst.a + worst.b)/2;
+			
+			// the area can't be split any further, so the remaining error is kept as it is
+			if(m <= worst.a || m >= worst.b) {
+				areas.add(worst);
+				break;
+			}
+			
+			Area left = integrateArea(worst.a, m);
+			Area right = integrateArea(m, worst.b);
+			if(left == null || right == null) return null;
+			
+			value += left.value + right.value - worst.value;
+			error += left.error + right.error - worst.error;
+			areas.add(left);
+			areas.add(right);
+		}
+		
+		// the running sums accumulate rounding errors, so the final result is summed again
+		value = 0;
+		error = 0;
+		for(Area area : areas) {
+			value += area.value;
+			error += area.error;
+		}
+		
+		if(!Double.isFinite(value) || error > Math.max(MAX_ACCEPTED_ABSOLUTE_ERROR, MAX_ACCEPTED_RELATIVE_ERROR*Math.abs(value)))
+			return null;
+		return new IntegralResult(value, error);
+	}
+	
+	private double tolerance(double value) {
+		return Math.max(ABSOLUTE_TOLERANCE, RELATIVE_TOLERANCE*Math.abs(value));
+	}
+	
+	// returns null if the function isn't defined in one of the nodes
+	private Area integrateArea(double a, double b) {
+		double center = (a+b)/2;
+		double halfLength = (b-a)/2;
+		
+		double fCenter = f.applyAsDouble(center);
+		double kronrod = fCenter*WGK[7];
+		double gauss = fCenter*WG[3];
+		
+		for(int i = 0; i < 7; i++) {
+			double dx = halfLength*XGK[i];
+			double sum = f.applyAsDouble(center-dx) + f.applyAsDouble(center+dx);
+			kronrod += WGK[i]*sum;
+			if(i%2 == 1) gauss += WG[i/2]*sum;
+		}
+		
+		if(!Double.isFinite(kronrod)) return null;
+		
+		kronrod *= halfLength;
+		gauss *= halfLength;
+		return new Area(a, b, kronrod, Math.abs(kronrod-gauss));
+	}
+	
+	
+	private static class Area {
+		
+		private double a, b, value, error;
+		
+		private Area(double a, double b, double value, double error) {
+			this.a = a;
+			this.b = b;
+			this.value = value;
+			this.error = error;
+		}
+		
+	}
+	
+}
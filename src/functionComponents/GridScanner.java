@@ -0,0 +1,178 @@
+package functionComponents;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongToDoubleFunction;
+
+import graphingCalculator.utils.RoundingUtils;
+
+/*
+ * Walks a grid of evenly spaced xs once and records, at the same time, everything the G-Solve functions need to refine:
+ * - xs where the function is exactly 0
+ * - areas between two consecutive xs where the function changes sign (roots)
+ * - areas between three consecutive xs where the middle one is higher/lower than the other two (local maximums/minimums)
+ * 
+ * The results are kept in primitive buffers that are reused between scans, so a scanner shouldn't be shared between threads.
+ * To scan in parallel, each thread scans its own chunk of the grid with its own scanner.
+ * A scanner that isn't scanned again can be shared though, e.g. to keep a chunk's scan and take parts of it later with restrict().
+ */
+public class GridScanner {
+	
+	private Brackets exactRoots, rootBrackets, maxBrackets, minBrackets;
+	
+
+	public GridScanner() {
+		exactRoots = new Brackets();
+		rootBrackets = new Brackets();
+		maxBrackets = new Brackets();
+		minBrackets = new Brackets();
+	}
+	
+	/*
+	 * The grid's xs are start + i*step, rounded to the step's decimal places
+	 * so that the xs don't accumulate floating point errors (0.3 instead of 0.30000000000000004).
+	 * Areas next to a NaN are skipped since the function isn't defined in them.
+	 * 
+	 * Only the xs with indexes between firstIndex and lastIndex are saved as roots or as the end of an area,
+	 * but the two xs before firstIndex are also evaluated so that areas starting before it are still found.
+	 * This way the grid can be split into consecutive chunks and scanned separately with the same results as a single scan.
+	 * Indexes can be negative (xs before start). The areas starting before the first x of a search can be dropped with restrict().
+	 */
+	public void scan(DoubleUnaryOperator h, double start, double step, long firstIndex, long lastIndex) {
+		int decimalPlaces = RoundingUtils.numberOfDecimalPlaces(step);
+		scanValues(i -> h.applyAsDouble(getGridX(start, step, decimalPlaces, i)), start, step, firstIndex, lastIndex);
+	}
+	
+	// same as above but with the values already calculated, values gives the value at the grid's x with index i
+	public void scanValues(LongToDoubleFunction values, double start, double step, long firstIndex, long lastIndex) {
+		exactRoots.clear();
+		rootBrackets.clear();
+		maxBrackets.clear();
+		minBrackets.clear();
+		
+		int decimalPlaces = RoundingUtils.numberOfDecimalPlaces(step);
+		
+		double pprevX = 0, prevX = 0, pprevY = 0, prevY = 0;
+		// number of consecutive defined values right before the current x, up to 2
+		int validCount = 0;
+		
+		for(long i = firstIndex-2; i <= lastIndex; i++) {
+			double x = getGridX(start, step, decimalPlaces, i);
+			double currY = values.applyAsDouble(i);
+			
+			if(Double.isNaN(currY)) {
+				validCount = 0;
+				continue;
+			}
+			
+			if(i >= firstIndex) {
+				if(currY == 0)
+					exactRoots.add(x, x);
+				else if(validCount >= 1 && currY*prevY < 0)
+					rootBrackets.add(prevX, x);
+				
+				if(validCount >= 2) {
+					if(prevY > pprevY && prevY > currY)
+						maxBrackets.add(pprevX, x);
+					else if(prevY < pprevY && prevY < currY)
+						minBrackets.add(pprevX, x);
+				}
+			}
+			
+			pprevX = prevX;
+			pprevY = prevY;
+			prevX = x;
+			prevY = currY;
+			validCount = Math.min(validCount+1, 2);
+		}
+	}
+	
+	/*
+	 * Part of this scan's results, as if only the xs between minEndX and maxEndX had been scanned
+	 * and the xs before minStartX didn't exist: keeps the roots/areas that end between minEndX and maxEndX and don't start before minStartX.
+	 */
+	public GridScanner restrict(double minStartX, double minEndX, double maxEndX) {
+		GridScanner restricted = new GridScanner();
+		exactRoots.copyTo(restricted.exactRoots, minStartX, minEndX, maxEndX);
+		rootBrackets.copyTo(restricted.rootBrackets, minStartX, minEndX, maxEndX);
+		maxBrackets.copyTo(restricted.maxBrackets, minStartX, minEndX, maxEndX);
+		minBrackets.copyTo(restricted.minBrackets, minStartX, minEndX, maxEndX);
+		return restricted;
+	}
+	
+	public static double getGridX(double start, double step, int decimalPlaces, long i) {
+		return RoundingUtils.roundToDecimalPlaces(start + i*step, decimalPlaces);
+	}
+	
+	// index of the last x of the grid that isn't past maxCoord, or -1 if even the first one is
+	public static long getLastIndex(double start, double step, double maxCoord) {
+		if(start > maxCoord) return -1;
+		
+		int decimalPlaces = RoundingUtils.numberOfDecimalPlaces(step);
+		long lastIndex = (long) Math.floor((maxCoord-start)/step);
+		while(getGridX(start, step, decimalPlaces, lastIndex+1) <= maxCoord)
+			lastIndex++;
+		while(lastIndex >= 0 && getGridX(start, step, decimalPlaces, lastIndex) > maxCoord)
+			lastIndex--;
+		return lastIndex;
+	}
+	
+	public Brackets getExactRoots() {
+		return exactRoots;
+	}
+	
+	public Brackets getRootBrackets() {
+		return rootBrackets;
+	}
+	
+	public Brackets getExtremeBrackets(boolean findMax) {
+		return findMax ? maxBrackets : minBrackets;
+	}
+	
+	
+	/*
+	 * Growable list of [start, end] areas stored in a single double array.
+	 */
+	public static class Brackets {
+		
+		private double[] bounds;
+		private int size;
+		
+		public Brackets() {
+			bounds = new double[64];
+			size = 0;
+		}
+		
+		public void add(double start, double end) {
+			if(2*size+2 > bounds.length)
+				bounds = Arrays.copyOf(bounds, bounds.length*2);
+			bounds[2*size] = start;
+			bounds[2*size+1] = end;
+			size++;
+		}
+		
+		public void clear() {
+			size = 0;
+		}
+		
+		public int size() {
+			return size;
+		}
+		
+		public double getStart(int i) {
+			return bounds[2*i];
+		}
+		
+		public double getEnd(int i) {
+			return bounds[2*i+1];
+		}
+		
+		private void copyTo(Brackets brackets, double minStart, double minEnd, double maxEnd) {
+			for(int i = 0; i < size; i++)
+				if(getStart(i) >= minStart && getEnd(i) >= minEnd && getEnd(i) <= maxEnd)
+					brackets.add(getStart(i), getEnd(i));
+		}
+		
+	}
+	
+}
@@ -1,51 +1,81 @@
 package functionComponents;
 
 import java.awt.Dimension;
-import java.util.ArrayList;
+import java.util.List;
 
 public class IntegralInformation {
 	
 	private Dimension size;
 	private ReferentialLimits referentialLimits;
+	private Function function;
 	
-	private ArrayList<Point> visiblePoints;
+	// a view of the function's points, so the shaded area follows them when the referential moves
+	private List<Point> visiblePoints;
 	private Point lowerBoundPoint, upperBoundPoint;
 	
 	// These points represent where to first put the "pencil" before following the visible points and where to release the "pencil" when drawing the integral shape.
 	private Point firstDrawnPoint, lastDrawnPoint;
 	
-	private double integralResult;
+	private IntegralResult integralResult;
 	
-	public IntegralInformation(Point lowerBoundPoint, Point upperBoundPoint, double integralResult, Dimension size, ReferentialLimits referentialLimits) {
+	public IntegralInformation(Function function, Point lowerBoundPoint, Point upperBoundPoint, IntegralResult integralResult, Dimension size, ReferentialLimits referentialLimits) {
 		this.size = size;
 		this.referentialLimits = referentialLimits;
+		this.function = function;
 		
 		this.lowerBoundPoint = lowerBoundPoint;
 		this.upperBoundPoint = upperBoundPoint;
 		this.integralResult = integralResult;
 	}
 	
-	public void setVisiblePointsAndUpdateBounds(ArrayList<Point> visiblePoints) {
-		this.visiblePoints = visiblePoints;
-		if(visiblePoints.size() == 0) return;
+	// must be called after the function's points are recalculated
+	public void updateVisiblePointsAndBounds() {
+		double lowerBound = Math.min(lowerBoundPoint.getX(), upperBoundPoint.getX());
+		double upperBound = Math.max(lowerBoundPoint.getX(), upperBoundPoint.getX());
+		visiblePoints = function.getPointsInInterval(lowerBound, upperBound);
 		
 		double limits[] = referentialLimits.getLimits();
 		
-		Point firstVisiblePoint = visiblePoints.get(0);
-		Point lastVisiblePoint = visiblePoints.get(visiblePoints.size()-1);
+		Point firstVisiblePoint = null, lastVisiblePoint = null;
+		for(int i = 0; i < visiblePoints.size() && firstVisiblePoint == null; i++)
+			firstVisiblePoint = visiblePoints.get(i);
+		for(int i = visiblePoints.size()-1; i >= 0 && lastVisiblePoint == null; i--)
+			lastVisiblePoint = visiblePoints.get(i);
 		
-		firstDrawnPoint = new Point(firstVisiblePoint.getX(), 0, size.width, size.height, limits);
-		lastDrawnPoint = new Point(lastVisiblePoint.getX(), 0, size.width, size.height, limits);
+		if(firstVisiblePoint == null) {
+			firstDrawnPoint = lastDrawnPoint = null;
+		}
+		else {
+			firstDrawnPoint = new Point(firstVisiblePoint.getX(), 0, size.width, size.height, limits);
+			lastDrawnPoint = new Point(lastVisiblePoint.getX(), 0, size.width, size.height, limits);
+		}
 		
 		lowerBoundPoint = new Point(lowerBoundPoint.getX(), lowerBoundPoint.getY(), size.width, size.height, limits);
 		upperBoundPoint = new Point(upperBoundPoint.getX(), upperBoundPoint.getY(), size.width, size.height, limits);
 	}
 	
-	public double getResult() {
+	public Function getFunction() {
+		return function;
+	}
+	
+	public IntegralResult getIntegralResult() {
 		return integralResult;
 	}
 	
-	public ArrayList<Point> getVisiblePoints() {
+	public double getResult() {
+		return integralResult.getValue();
+	}
+	
+	public double getErrorEstimate() {
+		return integralResult.getErrorEstimate();
+	}
+	
+	public double getConfidenceLevel() {
+		return integralResult.getConfidenceLevel();
+	}
+	
+	// null for the undefined points
+	public List<Point> getVisiblePoints() {
 		return visiblePoints;
 	}
 
@@ -57,6 +87,7 @@ public class IntegralInformation {
 		return upperBoundPoint;
 	}
 
+	// the drawn points are null when no part of the interval is visible
 	public Point getLastDrawnPoint() {
 		return lastDrawnPoint;
 	}
@@ -0,0 +1,34 @@
+package functionComponents;
+
+public class IntegralResult {
+	
+	private double value, errorEstimate;
+	private double confidenceLevel;
+	
+	
+	public IntegralResult(double value, double errorEstimate) {
+		this(value, errorEstimate, Double.NaN);
+	}
+	
+	// for the sampled integrals, whose error estimate is the half width of a confidence interval
+	public IntegralResult(double value, double errorEstimate, double confidenceLevel) {
+		this.value = value;
+		this.errorEstimate = errorEstimate;
+		this.confidenceLevel = confidenceLevel;
+	}
+	
+	public double getValue() {
+		return value;
+	}
+	
+	// estimated upper bound of |value - exact integral|
+	public double getErrorEstimate() {
+		return errorEstimate;
+	}
+	
+	// NaN when the error estimate isn't a confidence interval
+	public double getConfidenceLevel() {
+		return confidenceLevel;
+	}
+	
+}
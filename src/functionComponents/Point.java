@@ -35,6 +35,15 @@ public class Point implements Serializable, Comparable<Point> {
 		this(xFrameCoord, yFrameCoord, size.width, size.height, referentialLimits);
 	}
 	
+	public Point(Point p) {
+		x = p.x;
+		y = p.y;
+		xFrameCoord = p.xFrameCoord;
+		yFrameCoord = p.yFrameCoord;
+		frameWidth = p.frameWidth;
+		frameHeight = p.frameHeight;
+	}
+	
 	public double getX() {
 		return x;
 	}
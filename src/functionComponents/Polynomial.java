@@ -0,0 +1,375 @@
+package functionComponents;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Polynomial stored as its coefficients, coefficients[i] being the coefficient of x^i.
+ * 
+ * Its real roots are found all at once with the Aberth-Ehrlich method, which finds every (complex) root simultaneously,
+ * so there's no need to scan for sign changes and tangent roots (e.g. x^2) aren't missed.
+ * A root with multiplicity m is found as m approximations clustered around it (less accurate the higher m is),
+ * so the approximations whose error disks overlap are merged into a single root with that multiplicity,
+ * which is then polished on the (m-1)th derivative, where it's a simple root.
+ * The coefficients are evaluated with Horner's scheme, which still loses accuracy near multiple roots,
+ * so Function polishes the roots again on the expression they came from.
+ */
+public class Polynomial implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final int MAX_ABERTH_ITERATIONS = 500;
+	private final double EPSILON = Math.ulp(1.0);
+	private final int POLISH_ITERATIONS = 10;
+	
+	private double[] coefficients;
+	
+
+	// the trailing zero coefficients are removed so that the last coefficient is always the leading one (except for the 0 polynomial)
+	public Polynomial(double[] coefficients) {
+		int length = coefficients.length;
+		while(length > 1 && coefficients[length-1] == 0)
+			length--;
+		this.coefficients = Arrays.copyOf(coefficients, Math.max(length, 1));
+	}
+	
+	public static Polynomial constant(double c) {
+		return new Polynomial(new double[] {c});
+	}
+	
+	public int getDegree() {
+		return coefficients.length-1;
+	}
+	
+	public double getCoefficient(int i) {
+		return i < coefficients.length ? coefficients[i] : 0;
+	}
+	
+	public boolean isConstant() {
+		return coefficients.length == 1;
+	}
+	
+	// Horner's scheme
+	public double evaluate(double x) {
+		double result = 0;
+		for(int i = coefficients.length-1; i >= 0; i--)
+			result = result*x + coefficients[i];
+		return result;
+	}
+	
+	public Polynomial add(Polynomial p) {
+		double[] sum = new double[Math.max(coefficients.length, p.coefficients.length)];
+		for(int i = 0; i < sum.length; i++)
+			sum[i] = getCoefficient(i) + p.getCoefficient(i);
+		return new Polynomial(sum);
+	}
+	
+	public Polynomial subtract(Polynomial p) {
+		return add(p.multiply(-1));
+	}
+	
+	public Polynomial multiply(double c) {
+		double[] product = new double[coefficients.length];
+		for(int i = 0; i < product.length; i++)
+			product[i] = coefficients[i]*c;
+		return new Polynomial(product);
+	}
+	
+	public Polynomial multiply(Polynomial p) {
+		double[] product = new double[coefficients.length + p.coefficients.length - 1];
+		for(int i = 0; i < coefficients.length; i++)
+			for(int j = 0; j < p.coefficients.length; j++)
+				product[i+j] += coefficients[i]*p.coefficients[j];
+		return new Polynomial(product);
+	}
+	
+	public Polynomial pow(int exponent) {
+		Polynomial result = constant(1);
+		Polynomial base = this;
+		// exponentiation by squaring
+		while(exponent > 0) {
+			if((exponent & 1) == 1)
+				result = result.multiply(base);
+			base = base.multiply(base);
+			exponent >>= 1;
+		}
+		return result;
+	}
+	
+	// same degree with the coefficients' absolute values, evaluated at |x| it bounds the size of the terms
+	public Polynomial absolute() {
+		double[] absolute = new double[coefficients.length];
+		for(int i = 0; i < absolute.length; i++)
+			absolute[i] = Math.abs(coefficients[i]);
+		return new Polynomial(absolute);
+	}
+	
+	public Polynomial derivative() {
+		if(isConstant()) return constant(0);
+		
+		double[] derivative = new double[coefficients.length-1];
+		for(int i = 1; i < coefficients.length; i++)
+			derivative[i-1] = coefficients[i]*i;
+		return new Polynomial(derivative);
+	}
+	
+	private Polynomial derivative(int order) {
+		Polynomial derivative = this;
+		for(int i = 0; i < order; i++)
+			derivative = derivative.derivative();
+		return derivative;
+	}
+	
+	
+	public static class Root implements Comparable<Root> {
+		
+		private double x;
+		private int multiplicity;
+		
+		private Root(double x, int multiplicity) {
+			this.x = x;
+			this.multiplicity = multiplicity;
+		}
+		
+		public double getX() {
+			return x;
+		}
+		
+		public int getMultiplicity() {
+			return multiplicity;
+		}
+		
+		@Override
+		public int compareTo(Root r) {
+			return Double.compare(x, r.x);
+		}
+		
+	}
+	
+	// sorted by x. A constant polynomial has no roots (not even the 0 polynomial, whose roots are every x)
+	public ArrayList<Root> getRealRoots() {
+		return getRealRoots(() -> false);
+	}
+	
+	// cancelled is checked on every iteration, the roots are empty if it returns true before they're all found
+	public ArrayList<Root> getRealRoots(BooleanSupplier cancelled) {
+		ArrayList<Root> roots = new ArrayList<>();
+		if(isConstant()) return roots;
+		
+		// x = 0 roots are taken out first, they'd only slow down the iterations
+		int zeroMultiplicity = 0;
+		while(coefficients[zeroMultiplicity] == 0)
+			zeroMultiplicity++;
+		if(zeroMultiplicity > 0)
+			roots.add(new Root(0, zeroMultiplicity));
+		
+		Polynomial reduced = new Polynomial(Arrays.copyOfRange(coefficients, zeroMultiplicity, coefficients.length));
+		if(reduced.getDegree() == 1)
+			roots.add(new Root(-reduced.coefficients[0]/reduced.coefficients[1], 1));
+		else if(reduced.getDegree() > 1) {
+			ArrayList<Root> reducedRoots = reduced.findRealRoots(cancelled);
+			if(reducedRoots == null) return new ArrayList<>();
+			roots.addAll(reducedRoots);
+		}
+		
+		roots.sort(null);
+		return roots;
+	}
+	
+	/*
+	 * Local maximums/minimums: the roots of the derivative where it changes sign,
+	 * i.e. the ones with odd multiplicity (the even ones are inflections like x^3 at 0).
+	 * The first derivative that isn't 0 at the root tells if it's a maximum (negative) or a minimum (positive).
+	 */
+	public ArrayList<Double> getLocalExtremes(boolean findMax) {
+		return getLocalExtremes(findMax, () -> false);
+	}
+	
+	public ArrayList<Double> getLocalExtremes(boolean findMax, BooleanSupplier cancelled) {
+		ArrayList<Double> extremes = new ArrayList<>();
+		Polynomial derivative = derivative();
+		
+		for(Root root : derivative.getRealRoots(cancelled)) {
+			if(root.multiplicity % 2 == 0) continue;
+			
+			double firstNonZeroDerivative = derivative.derivative(root.multiplicity).evaluate(root.x);
+			if(findMax ? firstNonZeroDerivative < 0 : firstNonZeroDerivative > 0)
+				extremes.add(root.x);
+		}
+		
+		return extremes;
+	}
+	
+	/*
+	 * Aberth-Ehrlich method: each approximation z_k is moved by w_k = r_k / (1 - r_k * sum(1/(z_k - z_j))), where r_k = p(z_k)/p'(z_k),
+	 * which is Newton's step corrected so the approximations repel each other and converge to different roots.
+	 * The approximations start spread over a circle whose radius is the geometric mean of the roots' sizes.
+	 * Returns null if it's cancelled.
+	 */
+	private ArrayList<Root> findRealRoots(BooleanSupplier cancelled) {
+		int n = getDegree();
+		double[] re = new double[n], im = new double[n];
+		
+		double radius = Math.pow(Math.abs(coefficients[0]/coefficients[n]), 1.0/n);
+		if(!Double.isFinite(radius) || radius == 0) radius = 1;
+		for(int k = 0; k < n; k++) {
+			// the offset keeps the approximations off the real axis, where they could get stuck in conjugate symmetry
+			double angle = 2*Math.PI*k/n + 0.4;
+			re[k] = radius*Math.cos(angle);
+			im[k] = radius*Math.sin(angle);
+		}
+		
+		Polynomial magnitude = absolute();
+		double[] value = new double[2], derivativeValue = new double[2];
+		for(int iteration = 0; iteration < MAX_ABERTH_ITERATIONS; iteration++) {
+			if(cancelled.getAsBoolean()) return null;
+			boolean converged = true;
+			
+			for(int k = 0; k < n; k++) {
+				evaluate(re[k], im[k], value, derivativeValue);
+				// p(z_k) is already just rounding noise, no correction would make it any better
+				if(Math.hypot(value[0], value[1]) <= 4*EPSILON*magnitude.evaluate(Math.hypot(re[k], im[k])))
+					continue;
+				
+				// r = p/p'
+				double denominator = derivativeValue[0]*derivativeValue[0] + derivativeValue[1]*derivativeValue[1];
+				if(denominator == 0) continue;
+				double rRe = (value[0]*derivativeValue[0] + value[1]*derivativeValue[1])/denominator;
+				double rIm = (value[1]*derivativeValue[0] - value[0]*derivativeValue[1])/denominator;
+				
+				// s = sum(1/(z_k - z_j))
+				double sRe = 0, sIm = 0;
+				for(int j = 0; j < n; j++) {
+					if(j == k) continue;
+					double dRe = re[k]-re[j], dIm = im[k]-im[j];
+					double dAbs = dRe*dRe + dIm*dIm;
+					if(dAbs == 0) continue;
+					sRe += dRe/dAbs;
+					sIm -= dIm/dAbs;
+				}
+				
+				// w = r / (1 - r*s)
+				double qRe = 1 - (rRe*sRe - rIm*sIm);
+				double qIm = -(rRe*sIm + rIm*sRe);
+				double qAbs = qRe*qRe + qIm*qIm;
+				if(qAbs == 0) continue;
+				double wRe = (rRe*qRe + rIm*qIm)/qAbs;
+				double wIm = (rIm*qRe - rRe*qIm)/qAbs;
+				
+				re[k] -= wRe;
+				im[k] -= wIm;
+				
+				if(Math.hypot(wRe, wIm) > 4*EPSILON*Math.max(1, Math.hypot(re[k], im[k])))
+					converged = false;
+			}
+			
+			if(converged) break;
+		}
+		
+		return clusterRealRoots(re, im, computeErrorRadii(re, im, magnitude));
+	}
+	
+	// p(z) and p'(z) for a complex z, both with Horner's scheme
+	private void evaluate(double zRe, double zIm, double[] value, double[] derivativeValue) {
+		double pRe = coefficients[coefficients.length-1], pIm = 0;
+		double dRe = 0, dIm = 0;
+		for(int i = coefficients.length-2; i >= 0; i--) {
+			double newDRe = dRe*zRe - dIm*zIm + pRe;
+			double newDIm = dRe*zIm + dIm*zRe + pIm;
+			dRe = newDRe;
+			dIm = newDIm;
+			
+			double newPRe = pRe*zRe - pIm*zIm + coefficients[i];
+			double newPIm = pRe*zIm + pIm*zRe;
+			pRe = newPRe;
+			pIm = newPIm;
+		}
+		value[0] = pRe;
+		value[1] = pIm;
+		derivativeValue[0] = dRe;
+		derivativeValue[1] = dIm;
+	}
+	
+	/*
+	 * Radius of a disk around each approximation that surely contains a root: n*|p(z_k)|/|p'(z_k)|,
+	 * with p(z_k) being at least as big as its rounding errors.
+	 * The approximations of a multiple root are all as far from it as the rounding errors allow, so their disks overlap.
+	 */
+	private double[] computeErrorRadii(double[] re, double[] im, Polynomial magnitude) {
+		int n = re.length;
+		double[] radii = new double[n];
+		double[] value = new double[2], derivativeValue = new double[2];
+		
+		for(int k = 0; k < n; k++) {
+			evaluate(re[k], im[k], value, derivativeValue);
+			double valueAbs = Math.hypot(value[0], value[1]) + 4*EPSILON*magnitude.evaluate(Math.hypot(re[k], im[k]));
+			radii[k] = n*valueAbs/Math.hypot(derivativeValue[0], derivativeValue[1]);
+		}
+		
+		return radii;
+	}
+	
+	// the mean of a cluster of approximations of a multiple root is much more accurate than each of them
+	private ArrayList<Root> clusterRealRoots(double[] re, double[] im, double[] radii) {
+		int n = re.length;
+		int[] cluster = new int[n];
+		for(int k = 0; k < n; k++)
+			cluster[k] = k;
+		
+		// the clusters are the connected groups of overlapping disks, merged until nothing changes
+		boolean merged = true;
+		while(merged) {
+			merged = false;
+			for(int k = 0; k < n; k++)
+				for(int j = k+1; j < n; j++)
+					if(cluster[k] != cluster[j] && Math.hypot(re[k]-re[j], im[k]-im[j]) <= radii[k]+radii[j]) {
+						int oldCluster = Math.max(cluster[k], cluster[j]), newCluster = Math.min(cluster[k], cluster[j]);
+						for(int i = 0; i < n; i++)
+							if(cluster[i] == oldCluster)
+								cluster[i] = newCluster;
+						merged = true;
+					}
+		}
+		
+		ArrayList<Root> roots = new ArrayList<>();
+		for(int k = 0; k < n; k++) {
+			if(cluster[k] != k) continue;
+			
+			double sumRe = 0, sumIm = 0, clusterRadius = 0;
+			int multiplicity = 0;
+			for(int j = k; j < n; j++)
+				if(cluster[j] == k) {
+					sumRe += re[j];
+					sumIm += im[j];
+					clusterRadius = Math.max(clusterRadius, radii[j]);
+					multiplicity++;
+				}
+			
+			// the complex roots come in conjugate pairs, so a cluster centered on the real axis is a real root
+			double rootRe = sumRe/multiplicity, rootIm = sumIm/multiplicity;
+			if(Math.abs(rootIm) <= clusterRadius + 4*EPSILON*Math.max(1, Math.abs(rootRe)))
+				roots.add(new Root(polishRoot(rootRe, multiplicity), multiplicity));
+		}
+		
+		return roots;
+	}
+	
+	// Newton's method on the (m-1)th derivative, where a root with multiplicity m is simple
+	private double polishRoot(double x, int multiplicity) {
+		Polynomial p = derivative(multiplicity-1);
+		Polynomial dp = p.derivative();
+		
+		for(int i = 0; i < POLISH_ITERATIONS; i++) {
+			double slope = dp.evaluate(x);
+			if(slope == 0) break;
+			double step = p.evaluate(x)/slope;
+			if(!Double.isFinite(step)) break;
+			x -= step;
+			if(Math.abs(step) <= EPSILON*Math.max(1, Math.abs(x))) break;
+		}
+		return x;
+	}
+	
+}
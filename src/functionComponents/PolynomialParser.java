@@ -0,0 +1,159 @@
+package functionComponents;
+
+/*
+ * Recognizes the expressions that are polynomials in x and expands them to a Polynomial,
+ * following exp4j's syntax and precedences (implicit multiplication, right associative ^, unary minus below ^).
+ * Anything outside that (functions, x in a denominator or in an exponent, non natural exponents of x...) isn't a polynomial and gives null.
+ */
+public class PolynomialParser {
+	
+	private static final int MAX_DEGREE = 50;
+	
+	private String expression;
+	private int pos;
+	
+	
+	private PolynomialParser(String expression) {
+		this.expression = expression;
+	}
+	
+	public static Polynomial parse(String expression) {
+		if(expression == null) return null;
+		
+		PolynomialParser parser = new PolynomialParser(expression.replaceAll("\\s", ""));
+		Polynomial p = parser.parseExpression();
+		if(p == null || parser.pos != parser.expression.length())
+			return null;
+		return p;
+	}
+	
+	private char peek() {
+		return pos < expression.length() ? expression.charAt(pos) : 0;
+	}
+	
+	// expression := term (('+'|'-') term)*
+	private Polynomial parseExpression() {
+		Polynomial result = parseTerm();
+		while(result != null && (peek() == '+' || peek() == '-')) {
+			char operator = expression.charAt(pos++);
+			Polynomial term = parseTerm();
+			if(term == null) return null;
+			result = operator == '+' ? result.add(term) : result.subtract(term);
+		}
+		return result;
+	}
+	
+	// term := unary (('*'|'/') unary | unary)*, the last one being implicit multiplication (2x, 3(x+1), x(x-1)...)
+	private Polynomial parseTerm() {
+		Polynomial result = parseUnary();
+		while(result != null) {
+			char c = peek();
+			if(c == '*') {
+				pos++;
+				Polynomial factor = parseUnary();
+				if(factor == null) return null;
+				result = result.multiply(factor);
+			}
+			else if(c == '/') {
+				pos++;
+				Polynomial divisor = parseUnary();
+				if(divisor == null || !divisor.isConstant() || divisor.getCoefficient(0) == 0) return null;
+				result = result.multiply(1/divisor.getCoefficient(0));
+			}
+			else if(c == '(' || c == '.' || Character.isLetterOrDigit(c)) {
+				Polynomial factor = parsePower();
+				if(factor == null) return null;
+				result = result.multiply(factor);
+			}
+			else break;
+			
+			if(result.getDegree() > MAX_DEGREE) return null;
+		}
+		return result;
+	}
+	
+	// unary := ('-'|'+') unary | power
+	private Polynomial parseUnary() {
+		if(peek() == '-') {
+			pos++;
+			Polynomial operand = parseUnary();
+			return operand == null ? null : operand.multiply(-1);
+		}
+		if(peek() == '+') {
+			pos++;
+			return parseUnary();
+		}
+		return parsePower();
+	}
+	
+	// power := primary ('^' unary)?, the exponent has to be constant (and a natural number unless the base is constant too)
+	private Polynomial parsePower() {
+		Polynomial base = parsePrimary();
+		if(base == null || peek() != '^') return base;
+		
+		pos++;
+		Polynomial exponent = parseUnary();
+		if(exponent == null || !exponent.isConstant()) return null;
+		
+		double e = exponent.getCoefficient(0);
+		if(base.isConstant())
+			return Polynomial.constant(Math.pow(base.getCoefficient(0), e));
+		if(e < 0 || e != Math.rint(e) || base.getDegree()*e > MAX_DEGREE)
+			return null;
+		return base.pow((int) e);
+	}
+	
+	// primary := number | x | pi | e | '(' expression ')'
+	private Polynomial parsePrimary() {
+		char c = peek();
+		
+		if(c == '(') {
+			pos++;
+			Polynomial inner = parseExpression();
+			if(inner == null || peek() != ')') return null;
+			pos++;
+			return inner;
+		}
+		
+		if(Character.isDigit(c) || c == '.')
+			return parseNumber();
+		
+		if(Character.isLetter(c) || c == '_') {
+			int start = pos;
+			while(Character.isLetterOrDigit(peek()) || peek() == '_')
+				pos++;
+			switch(expression.substring(start, pos)) {
+				case "x": return new Polynomial(new double[] {0, 1});
+				case "pi": case "\u03C0": return Polynomial.constant(Math.PI);
+				case "e": return Polynomial.constant(Math.E);
+				default: return null;	// functions and other variables
+			}
+		}
+		
+		return null;
+	}
+	
+	// numbers like exp4j reads them, including the scientific notation (2e3, 1.5E-2)
+	private Polynomial parseNumber() {
+		int start = pos;
+		while(Character.isDigit(peek()) || peek() == '.')
+			pos++;
+		if((peek() == 'e' || peek() == 'E') && pos+1 < expression.length()) {
+			int exponentStart = pos+1;
+			if(expression.charAt(exponentStart) == '-' || expression.charAt(exponentStart) == '+')
+				exponentStart++;
+			if(exponentStart < expression.length() && Character.isDigit(expression.charAt(exponentStart))) {
+				pos = exponentStart;
+				while(Character.isDigit(peek()))
+					pos++;
+			}
+		}
+		
+		try {
+			return Polynomial.constant(Double.parseDouble(expression.substring(start, pos)));
+		} catch(NumberFormatException e) {
+			return null;
+		}
+	}
+	
+}
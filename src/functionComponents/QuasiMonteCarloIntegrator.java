@@ -0,0 +1,177 @@
+package functionComponents;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+
+/*
+ * Randomized quasi-Monte Carlo integration, meant for integrands the Gauss-Kronrod quadrature struggles with
+ * (highly oscillatory or discontinuous functions).
+ * 
+ * The samples come from a scrambled Sobol sequence (in one dimension, the van der Corput sequence in base 2),
+ * which covers the interval much more evenly than random samples do.
+ * Several independently scrambled copies of the sequence (replicates) are sampled in parallel, and the spread of their
+ * estimates gives a confidence interval for the result.
+ * 
+ * Samples are generated and summed in fixed-size blocks, so memory use doesn't depend on the amount of samples,
+ * and the sampling stops as soon as the confidence interval is narrow enough.
+ */
+public class QuasiMonteCarloIntegrator {
+	
+	private static final int BITS = 52;
+	private static final double SCALE = 1.0/(1L << BITS);
+	
+	private final int REPLICATES = 16;
+	private final int BLOCK_SIZE = 4096;
+	private final int MAX_BLOCKS = 64;
+	private final int QUANTILE_ITERATIONS = 100;
+	
+	// a fixed seed makes the results reproducible
+	private final long SEED = 0x5DEECE66DL;
+	
+	private Supplier<DoubleUnaryOperator> evaluatorSupplier;
+	
+	
+	/*
+	 * Each replicate runs on its own thread, so the supplier must create a new evaluator every time it's called
+	 * unless the function can be evaluated concurrently.
+	 */
+	public QuasiMonteCarloIntegrator(Supplier<DoubleUnaryOperator> evaluatorSupplier) {
+		this.evaluatorSupplier = evaluatorSupplier;
+	}
+	
+	/*
+	 * Returns the integral with the half width of its confidenceLevel (e.g. 0.95) confidence interval as the error estimate,
+	 * or null if the function isn't defined somewhere in the interval.
+	 * Sampling stops once the half width is below max(absoluteTolerance, relativeTolerance*|result|) or the sample limit is reached.
+	 */
+	public IntegralResult integrate(double a, double b, double absoluteTolerance, double relativeTolerance, double confidenceLevel) {
+		if(!(confidenceLevel > 0 && confidenceLevel < 1))
+			throw new IllegalArgumentException("The confidence level must be between 0 and 1.");
+		if(a == b) return new IntegralResult(0, 0, confidenceLevel);
+		
+		double tQuantile = getStudentTQuantile(confidenceLevel, REPLICATES-1);
+		
+		SplittableRandom random = new SplittableRandom(SEED);
+		Replicate[] replicates = new Replicate[REPLICATES];
+		for(int i = 0; i < REPLICATES; i++)
+			replicates[i] = new Replicate(evaluatorSupplier.get(), random.split(), a, b);
+		
+		double mean = 0, halfWidth = Double.POSITIVE_INFINITY;
+		for(int block = 0; block < MAX_BLOCKS; block++) {
+			Arrays.stream(replicates).parallel().forEach(r -> r.sampleBlock(BLOCK_SIZE));
+			
+			mean = 0;
+			for(Replicate r : replicates)
+				mean += r.getEstimate();
+			mean /= REPLICATES;
+			if(!Double.isFinite(mean)) return null;
+			
+			double variance = 0;
+			for(Replicate r : replicates)
+				variance += (r.getEstimate()-mean)*(r.getEstimate()-mean);
+			variance /= REPLICATES-1;
+			
+			halfWidth = tQuantile*Math.sqrt(variance/REPLICATES);
+			if(halfWidth <= Math.max(absoluteTolerance, relativeTolerance*Math.abs(mean))) break;
+		}
+		
+		return new IntegralResult(mean, halfWidth, confidenceLevel);
+	}
+	
+	// the t for which P(|T| < t) = confidenceLevel, with T following Student's t distribution, found by bisection
+	private double getStudentTQuantile(double confidenceLevel, int degreesOfFreedom) {
+		double low = 0, high = 1;
+		while(getStudentTProbability(high, degreesOfFreedom) < confidenceLevel)
+			high *= 2;
+		
+		for(int i = 0; i < QUANTILE_ITERATIONS && high-low > Math.ulp(high); i++) {
+			double mid = (low+high)/2;
+			if(getStudentTProbability(mid, degreesOfFreedom) < confidenceLevel)
+				low = mid;
+			else
+				high = mid;
+		}
+		return (low+high)/2;
+	}
+	
+	// P(|T| < t), from the finite series for integer degrees of freedom (Abramowitz and Stegun 26.7.3 and 26.7.4)
+	private static double getStudentTProbability(double t, int degreesOfFreedom) {
+		double theta = Math.atan(t/Math.sqrt(degreesOfFreedom));
+		double sin = Math.sin(theta), cos2 = Math.cos(theta)*Math.cos(theta);
+		
+		if(degreesOfFreedom % 2 == 0) {
+			// sin(theta)*(1 + 1/2 cos^2 + 1*3/(2*4) cos^4 + ...), up to cos^(df-2)
+			double term = 1, sum = 1;
+			for(int k = 2; k <= degreesOfFreedom-2; k += 2) {
+				term *= cos2*(k-1)/k;
+				sum += term;
+			}
+			return sin*sum;
+		}
+		
+		// 2/pi*(theta + sin(theta)*(cos + 2/3 cos^3 + 2*4/(3*5) cos^5 + ...)), up to cos^(df-2)
+		if(degreesOfFreedom == 1) return 2*theta/Math.PI;
+		double cos = Math.sqrt(cos2);
+		double term = cos, sum = cos;
+		for(int k = 3; k <= degreesOfFreedom-2; k += 2) {
+			term *= cos2*(k-1)/k;
+			sum += term;
+		}
+		return 2/Math.PI*(theta + sin*sum);
+	}
+	
+	
+	/*
+	 * One scrambled copy of the sequence.
+	 * The scramble is a random linear scramble (each direction number gets random bits below its leading bit)
+	 * followed by a random digital shift (the starting point), and the points are generated in Gray code order
+	 * so each new point only takes one XOR.
+	 */
+	private static class Replicate {
+		
+		private DoubleUnaryOperator f;
+		private double a, range;
+		
+		private long[] directionNumbers;
+		private long current;
+		private long index;
+		private double sum;
+		
+		private Replicate(DoubleUnaryOperator f, SplittableRandom random, double a, double b) {
+			this.f = f;
+			this.a = a;
+			this.range = b-a;
+			
+			directionNumbers = new long[BITS];
+			for(int i = 0; i < BITS; i++) {
+				long leadingBit = 1L << (BITS-1-i);
+				directionNumbers[i] = leadingBit | (random.nextLong() & (leadingBit-1));
+			}
+			
+			current = random.nextLong() & ((1L << BITS)-1);
+			index = 0;
+			sum = 0;
+		}
+		
+		private void sampleBlock(int blockSize) {
+			double blockSum = 0;
+			for(int i = 0; i < blockSize; i++) {
+				if(index > 0)
+					current ^= directionNumbers[Long.numberOfTrailingZeros(index)];
+				index++;
+				
+				double u = (current + 0.5)*SCALE;
+				blockSum += f.applyAsDouble(a + u*range);
+			}
+			sum += blockSum;
+		}
+		
+		private double getEstimate() {
+			return range*sum/index;
+		}
+		
+	}
+	
+}
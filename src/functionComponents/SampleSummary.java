@@ -0,0 +1,74 @@
+package functionComponents;
+
+import java.util.List;
+
+/*
+ * Min/max summaries of blocks of consecutive evenly spaced samples (null for the undefined ones, like Function's points),
+ * so the range of values in an interval only needs the whole blocks' summaries plus the samples at its two ends.
+ */
+public class SampleSummary {
+	
+	private final int BLOCK_SIZE = 64;
+	
+	private List<Point> samples;
+	private double firstX, step;
+	private ValueRange[] blockRanges;
+	
+	
+	// sample i is the one at firstX + i*step
+	public SampleSummary(List<Point> samples, double firstX, double step) {
+		this.samples = samples;
+		this.firstX = firstX;
+		this.step = step;
+		
+		int blockCount = (samples.size()+BLOCK_SIZE-1)/BLOCK_SIZE;
+		blockRanges = new ValueRange[blockCount];
+		for(int block = 0; block < blockCount; block++) {
+			blockRanges[block] = new ValueRange();
+			int end = Math.min(samples.size(), (block+1)*BLOCK_SIZE);
+			for(int i = block*BLOCK_SIZE; i < end; i++) {
+				Point p = samples.get(i);
+				if(p != null)
+					blockRanges[block].include(p.getX(), p.getY());
+			}
+		}
+	}
+	
+	public boolean covers(double lowerBound, double upperBound) {
+		return lowerBound >= firstX && upperBound <= firstX + (samples.size()-1)*step;
+	}
+	
+	public double getStep() {
+		return step;
+	}
+	
+	public ValueRange getRange(double lowerBound, double upperBound) {
+		ValueRange range = new ValueRange();
+		
+		// one extra sample on each side, in case the xs' rounding put them on the other side of the bounds
+		int first = (int) Math.max(0, Math.ceil((lowerBound-firstX)/step) - 1);
+		int end = (int) Math.min(samples.size(), Math.floor((upperBound-firstX)/step) + 2);
+		
+		int firstWholeBlock = (first+1+BLOCK_SIZE-1)/BLOCK_SIZE;
+		int endWholeBlocks = (end-1)/BLOCK_SIZE;
+		if(firstWholeBlock >= endWholeBlocks) {
+			includeSamples(range, first, end, lowerBound, upperBound);
+			return range;
+		}
+		
+		includeSamples(range, first, firstWholeBlock*BLOCK_SIZE, lowerBound, upperBound);
+		for(int block = firstWholeBlock; block < endWholeBlocks; block++)
+			range.include(blockRanges[block]);
+		includeSamples(range, endWholeBlocks*BLOCK_SIZE, end, lowerBound, upperBound);
+		return range;
+	}
+	
+	private void includeSamples(ValueRange range, int first, int end, double lowerBound, double upperBound) {
+		for(int i = first; i < end; i++) {
+			Point p = samples.get(i);
+			if(p != null && p.getX() >= lowerBound && p.getX() <= upperBound)
+				range.include(p.getX(), p.getY());
+		}
+	}
+	
+}
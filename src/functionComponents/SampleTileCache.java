@@ -0,0 +1,57 @@
+package functionComponents;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Keeps the functions' drawing samples in tiles of TILE_SIZE ys, so views that share the same step
+ * (panning, resizing the window, rendering the same plot again in the plot server) only evaluate the xs they haven't seen yet.
+ * 
+ * Like the SearchCache's chunks, the tiles are aligned to x = 0: tile t has the ys of x = (t*TILE_SIZE + i)*step.
+ * The least recently used tiles are dropped once there are more than MAX_TILES.
+ */
+public class SampleTileCache {
+	
+	public static final int TILE_SIZE = 512;
+	private static final int MAX_TILES = 2048;
+	
+	private static final Map<String, double[]> tiles = new LinkedHashMap<String, double[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, double[]> eldest) {
+			return size() > MAX_TILES;
+		}
+	};
+	
+	private static final String KEY_SEPARATOR = "|";
+	
+	
+	// the constants' values are part of the key (empty if the expression doesn't use them), so other values' tiles aren't used
+	public static String getTileKey(String expression, String constants, double step, long tile) {
+		return expression + KEY_SEPARATOR + constants + KEY_SEPARATOR + step + KEY_SEPARATOR + tile;
+	}
+	
+	// the tiles are never changed once they're put here, so they can be shared
+	public static synchronized double[] get(String key) {
+		return tiles.get(key);
+	}
+	
+	public static synchronized void put(String key, double[] tile) {
+		tiles.put(key, tile);
+	}
+	
+	// drops every tile of the expression (called when a function is edited or removed)
+	public static synchronized void invalidate(String expression) {
+		Iterator<String> keys = tiles.keySet().iterator();
+		while(keys.hasNext())
+			if(keys.next().split("\\" + KEY_SEPARATOR)[0].equals(expression))
+				keys.remove();
+	}
+	
+	public static synchronized void clear() {
+		tiles.clear();
+	}
+	
+}
@@ -0,0 +1,94 @@
+package functionComponents;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Remembers what the G-Solve searches already did for the chunks of the grid they've searched,
+ * so searching an area that overlaps a previous search (e.g. panning a bit and solving again) only searches the new part.
+ * 
+ * The grid's chunks are aligned to x = 0, so the same chunk of the same search is always the same xs no matter where the search area starts.
+ * Two things are kept for each chunk:
+ * - its scan (the areas with roots/extremes found by the GridScanner), which only depends on the expressions, so it's shared by every search type
+ *   and any part of the chunk can be taken from it, including the partial chunks at the edges of a search area
+ * - the search's results for the chunk, which also depend on the search type and the tolerance
+ * 
+ * The least recently used chunks are dropped once there are more than MAX_CHUNKS of either.
+ */
+public class SearchCache {
+	
+	private static final int MAX_CHUNKS = 512;
+	
+	private static final Map<String, ArrayList<Point>> chunkResults = new LinkedHashMap<String, ArrayList<Point>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ArrayList<Point>> eldest) {
+			return size() > MAX_CHUNKS;
+		}
+	};
+	
+	private static final Map<String, GridScanner> chunkScans = new LinkedHashMap<String, GridScanner>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, GridScanner> eldest) {
+			return size() > MAX_CHUNKS;
+		}
+	};
+	
+	private static final String KEY_SEPARATOR = "|";
+	
+	
+	// the constants' values are part of the key, so the results found with other values aren't used
+	public static String getChunkKey(String expression, String secondaryExpression, String constants, String searchType, double step, double tolerance, long chunk) {
+		return expression + KEY_SEPARATOR + secondaryExpression + KEY_SEPARATOR + constants + KEY_SEPARATOR + searchType + KEY_SEPARATOR + step
+				+ KEY_SEPARATOR + tolerance + KEY_SEPARATOR + chunk;
+	}
+	
+	// returns a copy of the results since the searches add to the lists they get, or null if the chunk isn't cached
+	public static synchronized ArrayList<Point> get(String key) {
+		ArrayList<Point> results = chunkResults.get(key);
+		return results == null ? null : new ArrayList<>(results);
+	}
+	
+	public static synchronized void put(String key, ArrayList<Point> results) {
+		chunkResults.put(key, new ArrayList<>(results));
+	}
+	
+	public static String getScanKey(String expression, String secondaryExpression, String constants, double step, long chunk) {
+		return expression + KEY_SEPARATOR + secondaryExpression + KEY_SEPARATOR + constants + KEY_SEPARATOR + step + KEY_SEPARATOR + chunk;
+	}
+	
+	// the scanners kept are never scanned again, so they can be shared
+	public static synchronized GridScanner getScan(String key) {
+		return chunkScans.get(key);
+	}
+	
+	public static synchronized void putScan(String key, GridScanner scanner) {
+		chunkScans.put(key, scanner);
+	}
+	
+	// drops every chunk of the searches the expression was part of (called when a function is edited or removed)
+	public static synchronized void invalidate(String expression) {
+		invalidate(chunkResults, expression);
+		invalidate(chunkScans, expression);
+	}
+	
+	private static void invalidate(Map<String, ?> chunks, String expression) {
+		Iterator<String> keys = chunks.keySet().iterator();
+		while(keys.hasNext()) {
+			String[] keyParts = keys.next().split("\\" + KEY_SEPARATOR);
+			if(keyParts[0].equals(expression) || keyParts[1].equals(expression))
+				keys.remove();
+		}
+	}
+	
+	public static synchronized void clear() {
+		chunkResults.clear();
+		chunkScans.clear();
+	}
+	
+}
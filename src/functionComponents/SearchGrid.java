@@ -0,0 +1,61 @@
+package functionComponents;
+
+import graphingCalculator.utils.RoundingUtils;
+
+/*
+ * The xs a G-Solve search evaluates: start + i*step for i between 0 and lastIndex, rounded to the step's decimal places.
+ * 
+ * start is a multiple of the step, so every grid with the same step has its xs in the same places no matter where it starts.
+ * The grid is split into chunks of chunkSize xs that are aligned to x = 0, so a chunk covers the same xs in every search
+ * (which is what lets searches share their chunks through the SearchCache).
+ */
+public class SearchGrid {
+	
+	private double start, step;
+	private int decimalPlaces, chunkSize;
+	// index of start in the grid aligned to x = 0
+	private long startIndex;
+	private long lastIndex;
+	
+
+	public SearchGrid(double minCoord, double maxCoord, double step, int chunkSize) {
+		this.step = step;
+		this.chunkSize = chunkSize;
+		decimalPlaces = RoundingUtils.numberOfDecimalPlaces(step);
+		
+		startIndex = (long) Math.floor(minCoord/step);
+		start = RoundingUtils.roundToDecimalPlaces(startIndex*step, decimalPlaces);
+		lastIndex = GridScanner.getLastIndex(start, step, maxCoord);
+	}
+	
+	public double getStart() {
+		return start;
+	}
+	
+	public double getStep() {
+		return step;
+	}
+	
+	// -1 if the grid is empty
+	public long getLastIndex() {
+		return lastIndex;
+	}
+	
+	public int getChunkSize() {
+		return chunkSize;
+	}
+	
+	public double getX(long index) {
+		return GridScanner.getGridX(start, step, decimalPlaces, index);
+	}
+	
+	public long getChunk(long index) {
+		return Math.floorDiv(startIndex + index, chunkSize);
+	}
+	
+	// can be outside of the grid for the chunks at its edges
+	public long getChunkFirstIndex(long chunk) {
+		return chunk*chunkSize - startIndex;
+	}
+	
+}
@@ -0,0 +1,17 @@
+package functionComponents;
+
+import java.util.ArrayList;
+
+/*
+ * Follows a G-Solve search while it runs.
+ * Both methods are called from the threads doing the search, not from the thread that started it.
+ */
+public interface SearchListener {
+	
+	// called every time a chunk of the search area is done, with all the results found so far (sorted, like the final results)
+	void resultsUpdated(ArrayList<Point> resultsSoFar, double fractionSearched);
+	
+	// checked before each chunk is searched, the search stops early once this returns true
+	boolean isCancelled();
+	
+}
@@ -0,0 +1,116 @@
+package functionComponents;
+
+import java.io.Serializable;
+
+import graphingCalculator.utils.RoundingUtils;
+
+/*
+ * Where the G-Solve searches look for solutions and how far apart the xs they evaluate are.
+ * 
+ * - AUTO: the visible range plus AUTO_MARGIN times its length on each side (+/-1000 around the default view)
+ * - VISIBLE_RANGE: only the visible range
+ * - CUSTOM_INTERVAL: a fixed interval, no matter where the view is
+ * 
+ * The step follows the view's zoom: it's at most PIXELS_PER_STEP pixels wide (0.1 for the default view and window),
+ * so zooming in finds solutions closer to each other and zooming out doesn't need more evaluations to cover the same part of the screen.
+ * It's made coarser if the search area would need more than EVALUATION_BUDGET evaluations (e.g. a wide custom interval while zoomed in).
+ * Steps are always 1, 2 or 5 times a power of 10 so the grid's xs have few decimal places.
+ * A fixed step can be set instead when there's no view to follow (e.g. in the batch calculator), it's used as it is.
+ */
+public class SearchScope implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	public enum Mode { AUTO, VISIBLE_RANGE, CUSTOM_INTERVAL }
+	
+	private final double AUTO_MARGIN = 50;
+	private final double PIXELS_PER_STEP = 5;
+	private final long EVALUATION_BUDGET = 200000;
+	private final int[] STEP_MULTIPLIERS = {1, 2, 5};
+	
+	private Mode mode;
+	private double customMin, customMax;
+	// 0 when the step follows the view's zoom
+	private double fixedStep;
+	
+
+	public SearchScope() {
+		mode = Mode.AUTO;
+	}
+	
+	public Mode getMode() {
+		return mode;
+	}
+	
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+	
+	public double getCustomMin() {
+		return customMin;
+	}
+	
+	public double getCustomMax() {
+		return customMax;
+	}
+	
+	public void setCustomInterval(double customMin, double customMax) {
+		this.customMin = customMin;
+		this.customMax = customMax;
+	}
+	
+	public double getFixedStep() {
+		return fixedStep;
+	}
+	
+	public void setFixedStep(double fixedStep) {
+		if(!(fixedStep >= 0) || Double.isInfinite(fixedStep))
+			throw new IllegalArgumentException("The step must be positive.");
+		this.fixedStep = fixedStep;
+	}
+	
+	// {min x, max x}
+	public double[] getSearchLimits(ReferentialLimits referentialLimits) {
+		if(mode == Mode.CUSTOM_INTERVAL) {
+			double searchLimits[] = {customMin, customMax};
+			return searchLimits;
+		}
+		
+		double margin = mode == Mode.AUTO ? AUTO_MARGIN*referentialLimits.getXLength() : 0;
+		double searchLimits[] = {referentialLimits.getXMin() - margin, referentialLimits.getXMax() + margin};
+		return searchLimits;
+	}
+	
+	public double getStep(ReferentialLimits referentialLimits, int frameWidth, double[] searchLimits) {
+		if(fixedStep > 0) return fixedStep;
+		
+		double pixelStep = referentialLimits.getXLength()/Math.max(frameWidth, 1)*PIXELS_PER_STEP;
+		
+		// largest nice step that isn't coarser than the pixel step (starting one power of 10 above since log10 can be off by a bit)
+		int exponent = (int) Math.floor(Math.log10(pixelStep))+1;
+		int multiplierPos = STEP_MULTIPLIERS.length-1;
+		while(getStep(STEP_MULTIPLIERS[multiplierPos], exponent) > pixelStep) {
+			if(--multiplierPos < 0) {
+				multiplierPos = STEP_MULTIPLIERS.length-1;
+				exponent--;
+			}
+		}
+		
+		double searchLength = searchLimits[1]-searchLimits[0];
+		while(searchLength/getStep(STEP_MULTIPLIERS[multiplierPos], exponent) > EVALUATION_BUDGET) {
+			if(++multiplierPos >= STEP_MULTIPLIERS.length) {
+				multiplierPos = 0;
+				exponent++;
+			}
+		}
+		
+		return getStep(STEP_MULTIPLIERS[multiplierPos], exponent);
+	}
+	
+	// parsed from its decimal representation so that e.g. 0.1 is exactly the same double as the literal 0.1
+	private double getStep(int multiplier, int exponent) {
+		double step = Double.parseDouble(multiplier + "E" + exponent);
+		return RoundingUtils.roundToDecimalPlaces(step, Math.max(0, -exponent));
+	}
+	
+}
@@ -0,0 +1,260 @@
+package functionComponents;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/*
+ * Finds a G-Solve's solutions lazily, searching the grid outwards from the view's center one chunk at a time,
+ * instead of searching the whole search area before showing anything.
+ * 
+ * The first solutions are the ones closest to the center, and the next/previous solutions are only searched for
+ * when they're asked for (plus a small lookahead prefetched in the background).
+ * The grid and its chunks are the same ones the full search uses, so the solutions found are the same ones
+ * and the chunks can be shared with it through the SearchCache.
+ * 
+ * The searches are meant to run in the background (they can take as long as the rest of the grid in their direction)
+ * and only one of them runs at a time. The solutions found so far are published as a snapshot, so reading them never waits for a search.
+ */
+public class SolutionEnumerator {
+	
+	/*
+	 * Searches the xs of the grid between the two indexes (inclusive) and returns the raw solutions found,
+	 * or null if the listener (which can be null) cancelled it before it was done, so the chunk is searched again the next time.
+	 */
+	public interface ChunkSearcher {
+		ArrayList<Point> searchChunk(long firstIndex, long lastIndex, SearchListener listener);
+	}
+	
+	private final int PREFETCH_SOLUTIONS = 3;
+	private final int MAX_PREFETCH_CHUNKS = 4;
+	// when searching for the next/previous solution, this many chunks are searched in parallel at a time
+	private final int PARALLEL_CHUNKS = Runtime.getRuntime().availableProcessors();
+	
+	private ChunkSearcher chunkSearcher;
+	private UnaryOperator<ArrayList<Point>> resultsProcessor;
+	
+	private double start, step;
+	private long lastIndex, centerIndex;
+	private int chunkSize;
+	private long chunkOffset;
+	
+	// the indexes searched so far are [leftIndex, rightIndex]
+	private volatile long leftIndex, rightIndex;
+	
+	// only used by the searches, which hold searchLock
+	private ArrayList<Point> rawSolutions;
+	private final Object searchLock = new Object();
+	// replaced (never modified) every time a chunk is searched
+	private volatile List<Point> solutions;
+	
+	
+	/*
+	 * The grid's xs are start + i*step for i between 0 and lastIndex, and the search starts at the x closest to center.
+	 * resultsProcessor turns the raw solutions into the sorted G-Solve results.
+	 * The chunks are chunkSize xs long and one of them starts at chunkOffset (which doesn't need to be inside the grid).
+	 */
+	public SolutionEnumerator(ChunkSearcher chunkSearcher, UnaryOperator<ArrayList<Point>> resultsProcessor, double start, double step, long lastIndex, double center,
+			int chunkSize, long chunkOffset) {
+		this.chunkSearcher = chunkSearcher;
+		this.resultsProcessor = resultsProcessor;
+		this.start = start;
+		this.step = step;
+		this.lastIndex = lastIndex;
+		this.chunkSize = chunkSize;
+		this.chunkOffset = chunkOffset;
+		
+		// the search starts with the whole chunk the center is in
+		centerIndex = Math.max(0, Math.min(lastIndex, Math.round((center-start)/step)));
+		leftIndex = Math.max(0, getChunkFirstIndex(centerIndex));
+		rightIndex = leftIndex-1;
+		
+		rawSolutions = new ArrayList<>();
+		solutions = Collections.emptyList();
+	}
+	
+	/*
+	 * Searches outwards from the center until the closest solution is found, or the whole grid is searched.
+	 * The closest solution is only certain once both sides have been searched at least as far as its distance to the center.
+	 */
+	public ArrayList<Point> findFirstSolutions(SearchListener listener) {
+		synchronized(searchLock) {
+			return searchFirstSolutions(listener);
+		}
+	}
+	
+	private ArrayList<Point> searchFirstSolutions(SearchListener listener) {
+		double center = start + centerIndex*step;
+		
+		while(!isFullySearched()) {
+			if(listener != null && listener.isCancelled()) break;
+			
+			double nearestDistance = Double.POSITIVE_INFINITY;
+			for(Point solution : solutions)
+				nearestDistance = Math.min(nearestDistance, Math.abs(solution.getX()-center));
+			
+			boolean rightCanBeCloser = rightIndex < lastIndex && (rightIndex-centerIndex)*step < nearestDistance;
+			boolean leftCanBeCloser = leftIndex > 0 && (centerIndex-leftIndex)*step < nearestDistance;
+			if(!rightCanBeCloser && !leftCanBeCloser) break;
+			
+			if(rightCanBeCloser) searchRight(1, listener);
+			if(leftCanBeCloser) searchLeft(1, listener);
+			
+			if(listener != null)
+				listener.resultsUpdated(getSolutions(), getFractionSearched());
+		}
+		
+		return getSolutions();
+	}
+	
+	/*
+	 * First solution to the right of x, searching further right if needed (PARALLEL_CHUNKS chunks at a time).
+	 * Returns null if there's none or if the listener cancels the search first.
+	 */
+	public Point findNextSolution(double x, SearchListener listener) {
+		synchronized(searchLock) {
+			while(true) {
+				Point solution = getSolutionRightOf(x);
+				if(solution != null) return solution;
+				if(listener != null && listener.isCancelled()) return null;
+				if(!searchRight(PARALLEL_CHUNKS, listener)) return null;
+			}
+		}
+	}
+	
+	// first solution to the left of x, like findNextSolution()
+	public Point findPrevSolution(double x, SearchListener listener) {
+		synchronized(searchLock) {
+			while(true) {
+				Point solution = getSolutionLeftOf(x);
+				if(solution != null) return solution;
+				if(listener != null && listener.isCancelled()) return null;
+				if(!searchLeft(PARALLEL_CHUNKS, listener)) return null;
+			}
+		}
+	}
+	
+	/*
+	 * Searches ahead on both sides of x until a few solutions are known on each side, or a few chunks have been searched.
+	 * Stops early if the listener (which can be null) cancels it, the chunk being searched then is searched again the next time.
+	 */
+	public void prefetch(double x, SearchListener listener) {
+		synchronized(searchLock) {
+			for(int i = 0; i < MAX_PREFETCH_CHUNKS && countSolutionsRightOf(x) < PREFETCH_SOLUTIONS; i++)
+				if(!searchRight(1, listener)) break;
+			for(int i = 0; i < MAX_PREFETCH_CHUNKS && countSolutionsLeftOf(x) < PREFETCH_SOLUTIONS; i++)
+				if(!searchLeft(1, listener)) break;
+		}
+	}
+	
+	// the solutions found so far, this never waits for a search
+	public ArrayList<Point> getSolutions() {
+		return new ArrayList<>(solutions);
+	}
+	
+	// the solution right/left of x among the ones found so far, null if there's none yet
+	public Point getSolutionRightOf(double x) {
+		for(Point solution : solutions)
+			if(solution.getX() > x) return solution;
+		return null;
+	}
+	
+	public Point getSolutionLeftOf(double x) {
+		List<Point> solutions = this.solutions;
+		for(int i = solutions.size()-1; i >= 0; i--)
+			if(solutions.get(i).getX() < x) return solutions.get(i);
+		return null;
+	}
+	
+	public boolean isFullySearched() {
+		return leftIndex <= 0 && rightIndex >= lastIndex;
+	}
+	
+	private double getFractionSearched() {
+		return (double) (rightIndex-leftIndex+1)/(lastIndex+1);
+	}
+	
+	private int countSolutionsRightOf(double x) {
+		int count = 0;
+		for(Point solution : solutions)
+			if(solution.getX() > x) count++;
+		return count;
+	}
+	
+	private int countSolutionsLeftOf(double x) {
+		int count = 0;
+		for(Point solution : solutions)
+			if(solution.getX() < x) count++;
+		return count;
+	}
+	
+	private long getChunkFirstIndex(long index) {
+		return index - Math.floorMod(index-chunkOffset, chunkSize);
+	}
+	
+	/*
+	 * Searches the next chunks to the right/left, in parallel when there's more than one.
+	 * The chunk searches also evaluate the two xs before them, so the areas that cross into the already searched xs are still found once.
+	 * Returns false if there's nothing left to search on that side or if the listener cancelled the search.
+	 */
+	private boolean searchRight(int chunks, SearchListener listener) {
+		if(rightIndex >= lastIndex) return false;
+		
+		ArrayList<long[]> chunkRanges = new ArrayList<>();
+		long firstIndex = rightIndex+1;
+		for(int i = 0; i < chunks && firstIndex <= lastIndex; i++) {
+			long chunkLastIndex = Math.min(lastIndex, getChunkFirstIndex(firstIndex)+chunkSize-1);
+			chunkRanges.add(new long[] {firstIndex, chunkLastIndex});
+			firstIndex = chunkLastIndex+1;
+		}
+		
+		ArrayList<Point> chunkSolutions = searchChunks(chunkRanges, listener);
+		if(chunkSolutions == null) return false;
+		addSolutions(chunkSolutions);
+		rightIndex = firstIndex-1;
+		return true;
+	}
+	
+	private boolean searchLeft(int chunks, SearchListener listener) {
+		if(leftIndex <= 0) return false;
+		
+		ArrayList<long[]> chunkRanges = new ArrayList<>();
+		long lastChunkIndex = leftIndex-1;
+		for(int i = 0; i < chunks && lastChunkIndex >= 0; i++) {
+			long chunkFirstIndex = Math.max(0, getChunkFirstIndex(lastChunkIndex));
+			chunkRanges.add(new long[] {chunkFirstIndex, lastChunkIndex});
+			lastChunkIndex = chunkFirstIndex-1;
+		}
+		
+		ArrayList<Point> chunkSolutions = searchChunks(chunkRanges, listener);
+		if(chunkSolutions == null) return false;
+		addSolutions(chunkSolutions);
+		leftIndex = lastChunkIndex+1;
+		return true;
+	}
+	
+	// null if any of the chunks was cancelled, then none of them count as searched
+	private ArrayList<Point> searchChunks(ArrayList<long[]> chunkRanges, SearchListener listener) {
+		if(chunkRanges.size() == 1)
+			return chunkSearcher.searchChunk(chunkRanges.get(0)[0], chunkRanges.get(0)[1], listener);
+		
+		List<ArrayList<Point>> chunksSolutions = chunkRanges.parallelStream()
+			.map(range -> chunkSearcher.searchChunk(range[0], range[1], listener))
+			.collect(Collectors.toList());
+		
+		ArrayList<Point> chunkSolutions = new ArrayList<>();
+		for(ArrayList<Point> solutions : chunksSolutions) {
+			if(solutions == null) return null;
+			chunkSolutions.addAll(solutions);
+		}
+		return chunkSolutions;
+	}
+	
+	private void addSolutions(ArrayList<Point> chunkSolutions) {
+		rawSolutions.addAll(chunkSolutions);
+		solutions = Collections.unmodifiableList(resultsProcessor.apply(new ArrayList<>(rawSolutions)));
+	}
+	
+}
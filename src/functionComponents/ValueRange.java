@@ -0,0 +1,51 @@
+package functionComponents;
+
+/*
+ * Lowest and highest values of a function in an interval, with the xs where they are.
+ * The values are NaN while no finite value was included.
+ */
+public class ValueRange {
+	
+	private double minX = Double.NaN, minY = Double.NaN;
+	private double maxX = Double.NaN, maxY = Double.NaN;
+	
+	
+	public void include(double x, double y) {
+		if(!Double.isFinite(y)) return;
+		
+		if(!(y >= minY)) {
+			minX = x;
+			minY = y;
+		}
+		if(!(y <= maxY)) {
+			maxX = x;
+			maxY = y;
+		}
+	}
+	
+	public void include(ValueRange range) {
+		include(range.minX, range.minY);
+		include(range.maxX, range.maxY);
+	}
+	
+	public boolean isEmpty() {
+		return Double.isNaN(minY);
+	}
+	
+	public double getMinX() {
+		return minX;
+	}
+	
+	public double getMinY() {
+		return minY;
+	}
+	
+	public double getMaxX() {
+		return maxX;
+	}
+	
+	public double getMaxY() {
+		return maxY;
+	}
+	
+}
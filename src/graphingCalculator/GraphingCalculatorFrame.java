@@ -11,11 +11,8 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.file.Paths;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.util.HashMap;
@@ -23,6 +20,7 @@ import java.util.Stack;
 import java.util.Timer;
 import java.util.TimerTask;
 
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
@@ -30,19 +28,25 @@ import javax.swing.JMenuItem;
 
 import functionComponents.Point;
 import functionComponents.ReferentialLimits;
+import graphingCalculator.gSolveState.GSolveSearch;
 import graphingCalculator.gSolveState.GSolveState;
 import graphingCalculator.gSolveState.GSolveStateWrapper;
+import graphingCalculator.gSolveState.GSolveWorker;
 import graphingCalculator.graphics.GraphicsDrawer;
 import graphingCalculator.popupWindows.AddFunctionWindow;
+import graphingCalculator.popupWindows.ConstantSlidersWindow;
+import graphingCalculator.popupWindows.FunctionFamilyWindow;
 import graphingCalculator.popupWindows.GSolveIntegralWindow;
 import graphingCalculator.popupWindows.GSolveXYValueWindow;
 import graphingCalculator.popupWindows.ListFunctionsWindow;
 import graphingCalculator.popupWindows.PopupWindow;
 import graphingCalculator.popupWindows.RemoveFunctionWindow;
 import graphingCalculator.popupWindows.SaveImageWindow;
+import graphingCalculator.popupWindows.SearchScopeWindow;
 import graphingCalculator.popupWindows.SetReferentialLimitsWindow;
 import graphingCalculator.saver.GraphingCalculatorProjectFileFilter;
 import graphingCalculator.saver.GraphingCalculatorProjectSave;
+import graphingCalculator.saver.ProjectFileFormat;
 import graphingCalculator.utils.SwingUtils;
 
 @SuppressWarnings("serial")
@@ -52,15 +56,17 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	private JMenu menuFile, menuFileSave, menuFileLoad;
 	private JMenu menuFunc, menuVW, menuGS;
 	private JMenuItem mfilesaveProject, mfilesaveImage, mfileloadProject;
-	private JMenuItem mfuncAdd, mfuncRemove, mfuncList;
+	private JMenuItem mfuncAdd, mfuncRemove, mfuncList, mfuncFamily, mfuncConstants;
 	private JMenuItem vwDefault, vwSetValues, vwZoomIn, vwZoomOut;
-	private JMenuItem gsRoot, gsMax, gsMin, gsYIntersect, gsFuncIntersect, gsYVal, gsXVal, gsIntegral;
+	private JMenuItem gsRoot, gsMax, gsMin, gsYIntersect, gsFuncIntersect, gsAllIntersect, gsYVal, gsXVal, gsIntegral;
+	private JMenuItem gsSearchScope;
+	private JCheckBoxMenuItem gsAllFunctions;
 	
 	private GraphicsDrawer graphicsDrawer;
 	
 	private PopupWindow saveImageWindow;
-	private PopupWindow addFunctionWindow, removeFunctionWindow, listFunctionsWindow;
-	private PopupWindow setReferentialLimitsWindow;
+	private PopupWindow addFunctionWindow, removeFunctionWindow, listFunctionsWindow, functionFamilyWindow, constantSlidersWindow;
+	private PopupWindow setReferentialLimitsWindow, searchScopeWindow;
 	private PopupWindow gSolveXYValueWindow, gSolveIntegralWindow;
 	
 	private final int MAX_FUNCTIONS = 6;
@@ -79,11 +85,14 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	private int referentialZoomsScheduledCount;
 	
 	private GSolveStateWrapper gSolveState;
+	private GSolveWorker gSolveWorker;
+	
+	private final String TITLE = "Graph Plotter";
 	
 
 	public GraphingCalculatorFrame() {
 		super("Graph Plotter");
-	    this.setTitle("Graph Plotter");
+	    this.setTitle(TITLE);
 	    this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 	    this.setResizable(true);	
 	    this.setSize(1000,1000);
@@ -129,6 +138,8 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    mfuncAdd = new JMenuItem("Add");
 	    mfuncRemove = new JMenuItem("Remove");
 	    mfuncList = new JMenuItem("List");
+	    mfuncFamily = new JMenuItem("Parameter Family");
+	    mfuncConstants = new JMenuItem("Constants");
 	    
 	    vwDefault = new JMenuItem("Default");
 	    vwSetValues = new JMenuItem("Set Values");
@@ -140,9 +151,12 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    gsMin = new JMenuItem("Minimum");
 	    gsYIntersect = new JMenuItem("Intersection with the Y-Axis");
 	    gsFuncIntersect = new JMenuItem("Intersection between two functions");
+	    gsAllIntersect = new JMenuItem("Intersections between all functions");
 	    gsYVal = new JMenuItem("Y-Value");
 	    gsXVal = new JMenuItem("X-Value");
 	    gsIntegral = new JMenuItem("Integral");
+	    gsAllFunctions = new JCheckBoxMenuItem("Solve all functions");
+	    gsSearchScope = new JMenuItem("Search Scope");
 	    
 	    mfilesaveProject.addActionListener(this);
 	    mfilesaveImage.addActionListener(this);
@@ -150,6 +164,8 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    mfuncAdd.addActionListener(this);
 	    mfuncRemove.addActionListener(this);
 	    mfuncList.addActionListener(this);
+	    mfuncFamily.addActionListener(this);
+	    mfuncConstants.addActionListener(this);
 	    vwDefault.addActionListener(this);
 	    vwSetValues.addActionListener(this);
 	    vwZoomIn.addActionListener(this);
@@ -159,9 +175,12 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    gsMin.addActionListener(this);
 	    gsYIntersect.addActionListener(this);
 	    gsFuncIntersect.addActionListener(this);
+	    gsAllIntersect.addActionListener(this);
 	    gsYVal.addActionListener(this);
 	    gsXVal.addActionListener(this);
 	    gsIntegral.addActionListener(this);
+	    gsAllFunctions.addActionListener(this);
+	    gsSearchScope.addActionListener(this);
 	    
 	    menuFileSave.add(mfilesaveProject);
 	    menuFileSave.add(mfilesaveImage);
@@ -171,6 +190,9 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    menuFunc.add(mfuncAdd);
 	    menuFunc.add(mfuncRemove);
 	    menuFunc.add(mfuncList);
+	    menuFunc.addSeparator();
+	    menuFunc.add(mfuncFamily);
+	    menuFunc.add(mfuncConstants);
 	    menuVW.add(vwDefault);
 	    menuVW.add(vwSetValues);
 	    menuVW.add(vwZoomIn);
@@ -180,9 +202,13 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 	    menuGS.add(gsMin);
 	    menuGS.add(gsYIntersect);
 	    menuGS.add(gsFuncIntersect);
+	    menuGS.add(gsAllIntersect);
 	    menuGS.add(gsYVal);
 	    menuGS.add(gsXVal);
 	    menuGS.add(gsIntegral);
+	    menuGS.addSeparator();
+	    menuGS.add(gsAllFunctions);
+	    menuGS.add(gsSearchScope);
 	    menubar.add(menuFile);
 	    menubar.add(menuFunc);
 	    menubar.add(menuVW);
@@ -201,44 +227,75 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 		addFunctionWindow = new AddFunctionWindow(this, "Add Function", graphicsDrawer, colorStack);
 		removeFunctionWindow = new RemoveFunctionWindow(this, "Remove Functions", graphicsDrawer, colorStack);
 		listFunctionsWindow = new ListFunctionsWindow(this, "Functions List", graphicsDrawer, colorIdsMap);
+		functionFamilyWindow = new FunctionFamilyWindow(this, "Parameter Family", graphicsDrawer);
+		constantSlidersWindow = new ConstantSlidersWindow(this, "Constants", graphicsDrawer);
 		setReferentialLimitsWindow = new SetReferentialLimitsWindow(this, "Set Referential Limits", graphicsDrawer);
+		searchScopeWindow = new SearchScopeWindow(this, "G-Solve Search Scope", graphicsDrawer);
 		gSolveXYValueWindow = new GSolveXYValueWindow(this, graphicsDrawer, gSolveState);
 		gSolveIntegralWindow = new GSolveIntegralWindow(this, graphicsDrawer, gSolveState);
 	}
 	
 	private void saveProject() throws IOException {
-		String filePath = SwingUtils.showSaveFileDialog(this, "gpp", new GraphingCalculatorProjectFileFilter());
+		String filePath = SwingUtils.showSaveFileDialog(this, ProjectFileFormat.BINARY_EXTENSION, new GraphingCalculatorProjectFileFilter());
 		if(filePath == null) return;
 		
 		GraphingCalculatorProjectSave save = new GraphingCalculatorProjectSave(graphicsDrawer);
-		FileOutputStream fileOutputStream = new FileOutputStream(filePath);
-	    ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-	    objectOutputStream.writeObject(save);
-	    objectOutputStream.flush();
-	    objectOutputStream.close();
+		ProjectFileFormat.write(save, Paths.get(filePath));
 	}
 	
-	private void loadProject() throws ClassNotFoundException, IOException {
+	private void loadProject() throws IOException {
 		File file = SwingUtils.showLoadFileDialog(this);
 		if(file == null) return;
 		
-		FileInputStream fileInputStream = new FileInputStream(file);
-	    ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream);
-	    GraphingCalculatorProjectSave save = (GraphingCalculatorProjectSave) objectInputStream.readObject();
-	    objectInputStream.close();
+		GraphingCalculatorProjectSave save = ProjectFileFormat.read(file.toPath());
+		if(save.getFunctionCount() > MAX_FUNCTIONS)
+			throw new IOException("The project has more than " + MAX_FUNCTIONS + " functions.");
+		graphicsDrawer.loadProject(save);
 		
+		// functions can share a color, so the colors in use are taken out of the stack instead of popping one per function
 		initFunctionColors();
-		int savedFunctions = save.getFunctions().keySet().size();
-		for(int i = 0; i < savedFunctions; i++)
-			colorStack.pop();
+		for(int i = 0; i < save.getFunctionCount(); i++)
+			colorStack.remove(save.getFunctionColor(i));
 		
-		graphicsDrawer.loadProject(save);
 		SwingUtils.updateFrameContents(this);
 	}
 
+	/*
+	 * Starts a G-Solve search in the background. Its results are shown as they're found
+	 * and it can be cancelled with Escape or by choosing any other menu option.
+	 */
+	public void startGSolve(GSolveState state, GSolveSearch search, String noSolutionsMessage) {
+		cancelGSolve();
+		gSolveState.state = state;
+		graphicsDrawer.startGSolve(search);
+		
+		gSolveWorker = new GSolveWorker(this, TITLE, graphicsDrawer, gSolveState, search, noSolutionsMessage);
+		gSolveWorker.execute();
+	}
+	
+	private void cancelGSolve() {
+		if(gSolveWorker == null) return;
+		gSolveWorker.cancel(false);
+		gSolveWorker = null;
+		this.setTitle(TITLE);
+	}
+	
 	@Override
 	public void actionPerformed(ActionEvent e) {
+		// G-Solve settings, they don't need any functions and don't affect the current G-Solve
+		// Root, Maximum, Minimum and X-Value are done on all the functions while this is checked
+		if(e.getSource() == gsAllFunctions) {
+			graphicsDrawer.setGSolveAllFunctions(gsAllFunctions.isSelected());
+			return;
+		}
+		
+		if(e.getSource() == gsSearchScope) {
+			searchScopeWindow.showWindow();
+			return;
+		}
+		
 		if(e.getSource() instanceof JMenuItem) {
+			cancelGSolve();
 			gSolveState.state = GSolveState.NONE;
 			graphicsDrawer.clearHighlights();
 			SwingUtils.updateFrameContents(this);
@@ -266,7 +323,7 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 			if(e.getSource() == mfileloadProject) {
 				try {
 					loadProject();
-				} catch (ClassNotFoundException | IOException e1) {
+				} catch (IOException | IllegalArgumentException e1) {
 					e1.printStackTrace();
 					SwingUtils.showErrorMessageDialog(this, "There was a problem loading the project.");
 				}
@@ -293,6 +350,14 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 					listFunctionsWindow.showWindow();
 			}
 
+			if(e.getSource() == mfuncFamily) {
+				functionFamilyWindow.showWindow();
+			}
+
+			if(e.getSource() == mfuncConstants) {
+				constantSlidersWindow.showWindow();
+			}
+
 			if(e.getSource() == vwDefault) {
 				graphicsDrawer.setReferentialLimits(DEFAULT_MINX, DEFAULT_MAXX, DEFAULT_MINY, DEFAULT_MAXY);
 				SwingUtils.updateFrameContents(this);
@@ -313,30 +378,15 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 			}
 
 			if(e.getSource() == gsRoot) {
-				if(graphicsDrawer.gSolveRoot()) {
-					gSolveState.state = GSolveState.ROOT;
-					SwingUtils.updateFrameContents(this);
-				}
-				else
-					SwingUtils.showErrorMessageDialog(this, "No roots were found");
+				startGSolve(GSolveState.ROOT, graphicsDrawer.gSolveRoot(), "No roots were found");
 			}
 
 			if(e.getSource() == gsMax) {
-				if(graphicsDrawer.gSolveMaximum()) {
-					gSolveState.state = GSolveState.MAXIMUM;
-					SwingUtils.updateFrameContents(this);
-				}
-				else
-					SwingUtils.showErrorMessageDialog(this, "No maximums were found");
+				startGSolve(GSolveState.MAXIMUM, graphicsDrawer.gSolveMaximum(), "No maximums were found");
 			}
 
 			if(e.getSource() == gsMin) {
-				if(graphicsDrawer.gSolveMinimum()) {
-					gSolveState.state = GSolveState.MINIMUM;
-					SwingUtils.updateFrameContents(this);
-				}
-				else
-					SwingUtils.showErrorMessageDialog(this, "No minimum were found");
+				startGSolve(GSolveState.MINIMUM, graphicsDrawer.gSolveMinimum(), "No minimum were found");
 			}
 
 			if(e.getSource() == gsYIntersect) {
@@ -353,12 +403,15 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 					SwingUtils.showErrorMessageDialog(this, "There is no function to intersect with");
 					return;
 				}
-				if(graphicsDrawer.gSolveFunctionIntersection()) {
-					gSolveState.state = GSolveState.FUNCTION_INTERSECTION;
-					SwingUtils.updateFrameContents(this);
+				startGSolve(GSolveState.FUNCTION_INTERSECTION, graphicsDrawer.gSolveFunctionIntersection(), "No intersections were found");
+			}
+
+			if(e.getSource() == gsAllIntersect) {
+				if(graphicsDrawer.getFunctionCount() < 2) {
+					SwingUtils.showErrorMessageDialog(this, "There is no function to intersect with");
+					return;
 				}
-				else
-					SwingUtils.showErrorMessageDialog(this, "No intersections were found");
+				startGSolve(GSolveState.ALL_INTERSECTIONS, graphicsDrawer.gSolveAllIntersections(), "No intersections were found");
 			}
 
 			if(e.getSource() == gsYVal) {
@@ -392,6 +445,7 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 		int keyVal = e.getKeyCode();
 		
 		if(keyVal == KeyEvent.VK_ESCAPE) {
+			cancelGSolve();
 			gSolveState.state = GSolveState.NONE;
 			graphicsDrawer.clearHighlights();
 			SwingUtils.updateFrameContents(this);
@@ -406,6 +460,18 @@ public class GraphingCalculatorFrame extends JFrame implements ActionListener, K
 			graphicsDrawer.prevGSolveSolution();
 			SwingUtils.updateFrameContents(this);
 		}
+		
+		else if(keyVal == KeyEvent.VK_DOWN || keyVal == KeyEvent.VK_UP) {
+			if(keyVal == KeyEvent.VK_DOWN)
+				graphicsDrawer.nextGSolvePair();
+			else
+				graphicsDrawer.prevGSolvePair();
+			
+			String pairDescription = graphicsDrawer.getGSolvePairDescription();
+			if(pairDescription != null)
+				this.setTitle(TITLE + " - " + pairDescription);
+			SwingUtils.updateFrameContents(this);
+		}
 	}
 	
 	private Point mousePressedPoint;
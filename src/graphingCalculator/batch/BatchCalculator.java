@@ -0,0 +1,116 @@
+package graphingCalculator.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import graphingCalculator.utils.ChannelTextWriter;
+
+/*
+ * Headless entry point: runs the jobs in a file (or stdin), one per line (see BatchJob), and writes their results to a file (or stdout).
+ * 
+ * Usage: BatchCalculator [-i jobsFile] [-o resultsFile] [-f csv|jsonl] [-t threads]
+ * 
+ * The jobs run in parallel but their results are written in the input's order.
+ * Only a few tasks per thread can be waiting to be written, so the input is read as the results are written
+ * and the memory used doesn't depend on the number of jobs or results.
+ * Nothing here uses the screen, so it can run with -Djava.awt.headless=true.
+ */
+public class BatchCalculator {
+	
+	private final int MAX_PENDING_TASKS_PER_THREAD = 4;
+	
+	private ResultFormat format;
+	private int threads;
+	
+	
+	public BatchCalculator(ResultFormat format, int threads) {
+		this.format = format;
+		this.threads = threads;
+	}
+	
+	// a ForkJoinPool so the searches' own parallel tasks also run in it (see Function.searchArea) instead of in the common pool
+	public void run(BufferedReader jobs, ChannelTextWriter writer) throws IOException, InterruptedException, ExecutionException {
+		ExecutorService executor = new ForkJoinPool(threads);
+		ArrayDeque<Future<CharSequence>> pendingTasks = new ArrayDeque<>();
+		int maxPendingTasks = threads*MAX_PENDING_TASKS_PER_THREAD;
+		
+		try {
+			writer.write(format.getHeader());
+			
+			String line;
+			int lineNumber = 0;
+			while((line = jobs.readLine()) != null) {
+				lineNumber++;
+				if(line.trim().isEmpty() || line.trim().startsWith("#")) continue;
+				
+				Iterator<Callable<CharSequence>> tasks = BatchJob.createTasks(line, lineNumber, format);
+				while(tasks.hasNext()) {
+					pendingTasks.add(executor.submit(tasks.next()));
+					if(pendingTasks.size() >= maxPendingTasks)
+						writer.write(pendingTasks.poll().get());
+				}
+			}
+			
+			while(!pendingTasks.isEmpty())
+				writer.write(pendingTasks.poll().get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		
+		String input = null, output = null;
+		ResultFormat format = ResultFormat.CSV;
+		int threads = Runtime.getRuntime().availableProcessors();
+		
+		try {
+			for(int i = 0; i < args.length; i++) {
+				switch(args[i]) {
+					case "-i": input = args[++i]; break;
+					case "-o": output = args[++i]; break;
+					case "-f": format = ResultFormat.valueOf(args[++i].toUpperCase()); break;
+					case "-t": threads = Integer.parseInt(args[++i]); break;
+					default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+			}
+			if(threads < 1)
+				throw new IllegalArgumentException("There must be at least 1 thread");
+		} catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Usage: BatchCalculator [-i jobsFile] [-o resultsFile] [-f csv|jsonl] [-t threads]");
+			System.exit(2);
+		}
+		
+		try(BufferedReader jobs = input == null ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+												: Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+			ChannelTextWriter writer = new ChannelTextWriter(openOutput(output))) {
+			new BatchCalculator(format, threads).run(jobs, writer);
+		} catch(Exception e) {
+			System.err.println("Batch failed: " + e);
+			System.exit(1);
+		}
+	}
+	
+	private static WritableByteChannel openOutput(String output) throws IOException {
+		if(output == null)
+			return Channels.newChannel(System.out);
+		return FileChannel.open(Paths.get(output), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+	}
+	
+}
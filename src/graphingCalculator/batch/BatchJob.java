@@ -0,0 +1,222 @@
+package graphingCalculator.batch;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.DoubleUnaryOperator;
+
+import functionComponents.Function;
+import functionComponents.IntegralResult;
+import functionComponents.Point;
+import functionComponents.ReferentialLimits;
+import functionComponents.SearchScope;
+
+import net.objecthunter.exp4j.ExpressionBuilder;
+
+/*
+ * A line of the batch input, with its fields separated by ';':
+ *   eval; expression; min; max; step
+ *   roots; expression; min; max[; step]
+ *   max; expression; min; max[; step]
+ *   min; expression; min; max[; step]
+ *   integral; expression; lowerBound; upperBound
+ *   intersect; expression; expression; min; max[; step]
+ * The numbers can be constant expressions too (e.g. 2*pi).
+ * 
+ * Each job is split into tasks that return their results already formatted.
+ * The G-Solve jobs search [min, max] on a grid with the given step, or by default with the step the calculator uses for its default view,
+ * so they find the same solutions the calculator finds there.
+ */
+public class BatchJob {
+	
+	private static final int EVAL_TASK_SIZE = 65536;
+	// only used for the functions' points, the search step doesn't depend on it
+	private static final Dimension SEARCH_FRAME_SIZE = new Dimension(1000, 1000);
+	// the step of the calculator's default view (-10 to 10) in its default window
+	private static final double DEFAULT_SEARCH_STEP = 0.1;
+	
+	private enum Type {
+		EVAL(3, false), ROOTS(2, true), MAX(2, true), MIN(2, true), INTEGRAL(2, false), INTERSECT(2, true);
+		
+		private int numberCount;
+		// whether a search step can be given after the numbers
+		private boolean hasStep;
+		
+		private Type(int numberCount, boolean hasStep) {
+			this.numberCount = numberCount;
+			this.hasStep = hasStep;
+		}
+	}
+	
+	private int lineNumber;
+	private ResultFormat format;
+	private Type type;
+	private List<String> expressions;
+	private double[] numbers;
+	private double searchStep = DEFAULT_SEARCH_STEP;
+	
+	
+	private BatchJob(int lineNumber, ResultFormat format) {
+		this.lineNumber = lineNumber;
+		this.format = format;
+	}
+	
+	// the tasks are created as they're needed, a single eval job can have a lot of them
+	public static Iterator<Callable<CharSequence>> createTasks(String line, int lineNumber, ResultFormat format) {
+		BatchJob job = new BatchJob(lineNumber, format);
+		try {
+			job.parse(line);
+			return job.createTasks();
+		} catch(Exception e) {
+			return Collections.singletonList(job.errorTask(e)).iterator();
+		}
+	}
+	
+	private void parse(String line) {
+		String fields[] = line.split(";");
+		try {
+			type = Type.valueOf(fields[0].trim().toUpperCase());
+		} catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown job: " + fields[0].trim());
+		}
+		
+		int expressionCount = type == Type.INTERSECT ? 2 : 1;
+		int fieldCount = 1 + expressionCount + type.numberCount;
+		boolean stepGiven = type.hasStep && fields.length == fieldCount+1;
+		if(fields.length != fieldCount && !stepGiven)
+			throw new IllegalArgumentException("Wrong number of fields for a " + fields[0].trim() + " job");
+		
+		expressions = new ArrayList<>(expressionCount);
+		for(int i = 1; i <= expressionCount; i++)
+			expressions.add(fields[i].trim());
+		
+		numbers = new double[type.numberCount];
+		for(int i = 0; i < numbers.length; i++)
+			numbers[i] = new ExpressionBuilder(fields[1 + expressionCount + i].trim()).build().evaluate();
+		
+		if(stepGiven) {
+			searchStep = new ExpressionBuilder(fields[fieldCount].trim()).build().evaluate();
+			if(!(searchStep > 0) || Double.isInfinite(searchStep))
+				throw new IllegalArgumentException("The step must be positive");
+		}
+	}
+	
+	private Iterator<Callable<CharSequence>> createTasks() {
+		if(type == Type.EVAL)
+			return createEvalTasks();
+		
+		Callable<CharSequence> task;
+		switch(type) {
+			case INTEGRAL: task = this::integrate; break;
+			case INTERSECT: task = this::intersect; break;
+			default: task = this::solve; break;
+		}
+		
+		Callable<CharSequence> errorCheckedTask = () -> {
+			try {
+				return task.call();
+			} catch(Exception e) {
+				return errorTask(e).call();
+			}
+		};
+		return Collections.singletonList(errorCheckedTask).iterator();
+	}
+	
+	private Iterator<Callable<CharSequence>> createEvalTasks() {
+		double min = numbers[0], max = numbers[1], step = numbers[2];
+		if(!(step > 0) || !(max >= min))
+			throw new IllegalArgumentException("The step must be positive and max can't be lower than min");
+		
+		Function function = createFunction(expressions.get(0), min, max);
+		long pointCount = (long) Math.floor((max-min)/step + 1e-9) + 1;
+		
+		return new Iterator<Callable<CharSequence>>() {
+			private long nextIndex = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return nextIndex < pointCount;
+			}
+			
+			@Override
+			public Callable<CharSequence> next() {
+				long firstIndex = nextIndex, endIndex = Math.min(pointCount, firstIndex + EVAL_TASK_SIZE);
+				nextIndex = endIndex;
+				
+				return () -> {
+					// each task has its own evaluator since they run in parallel
+					DoubleUnaryOperator f = function.createEvaluator();
+					StringBuilder sb = new StringBuilder();
+					for(long i = firstIndex; i < endIndex; i++) {
+						double x = min + i*step;
+						format.appendPoint(sb, lineNumber, "eval", x, f.applyAsDouble(x));
+					}
+					return sb;
+				};
+			}
+		};
+	}
+	
+	private CharSequence solve() {
+		Function function = createFunction(expressions.get(0), numbers[0], numbers[1]);
+		
+		ArrayList<Point> results;
+		String resultType;
+		switch(type) {
+			case ROOTS: results = function.getRoots(); resultType = "root"; break;
+			case MAX: results = function.getMaximum(); resultType = "max"; break;
+			default: results = function.getMinimum(); resultType = "min"; break;
+		}
+		
+		return formatPoints(results, resultType);
+	}
+	
+	private CharSequence intersect() {
+		Function f = createFunction(expressions.get(0), numbers[0], numbers[1]);
+		Function g = createFunction(expressions.get(1), numbers[0], numbers[1]);
+		return formatPoints(f.getFunctionIntersections(g), "intersection");
+	}
+	
+	private CharSequence integrate() {
+		Function function = createFunction(expressions.get(0), numbers[0], numbers[1]);
+		IntegralResult result = function.getIntegral(numbers[0], numbers[1]);
+		if(result == null)
+			throw new ArithmeticException("The integral couldn't be calculated (it may diverge)");
+		
+		StringBuilder sb = new StringBuilder();
+		format.appendValue(sb, lineNumber, "integral", result.getValue(), result.getErrorEstimate());
+		return sb;
+	}
+	
+	private CharSequence formatPoints(List<Point> points, String resultType) {
+		StringBuilder sb = new StringBuilder();
+		for(Point p : points)
+			format.appendPoint(sb, lineNumber, resultType, p.getX(), p.getY());
+		return sb;
+	}
+	
+	// the function's view is [min, max], so its searches look only there
+	private Function createFunction(String expression, double min, double max) {
+		ReferentialLimits referentialLimits = new ReferentialLimits(SEARCH_FRAME_SIZE, Math.min(min, max), Math.max(min, max), -10, 10);
+		Function function = new Function(SEARCH_FRAME_SIZE, referentialLimits, expression);
+		
+		SearchScope searchScope = new SearchScope();
+		searchScope.setMode(SearchScope.Mode.VISIBLE_RANGE);
+		searchScope.setFixedStep(searchStep);
+		function.setSearchScope(searchScope);
+		return function;
+	}
+	
+	private Callable<CharSequence> errorTask(Exception e) {
+		String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+		return () -> {
+			StringBuilder sb = new StringBuilder();
+			format.appendError(sb, lineNumber, message);
+			return sb;
+		};
+	}
+	
+}
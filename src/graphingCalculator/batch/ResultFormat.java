@@ -0,0 +1,91 @@
+package graphingCalculator.batch;
+
+/*
+ * How the batch results are written, one row per result:
+ * - CSV: job,type,x,y,value,error_estimate,message (the fields that don't apply are left empty)
+ * - JSONL: one JSON object per line with only the fields that apply
+ * 
+ * The job is the line number of the job in the input. NaN and infinite values are written as NaN/Infinity in CSV and null in JSONL.
+ */
+public enum ResultFormat {
+	
+	CSV {
+		@Override
+		public String getHeader() {
+			return "job,type,x,y,value,error_estimate,message\n";
+		}
+		
+		@Override
+		public void appendPoint(StringBuilder sb, int job, String type, double x, double y) {
+			sb.append(job).append(',').append(type).append(',').append(x).append(',').append(y).append(",,,\n");
+		}
+		
+		@Override
+		public void appendValue(StringBuilder sb, int job, String type, double value, double errorEstimate) {
+			sb.append(job).append(',').append(type).append(",,,").append(value).append(',').append(errorEstimate).append(",\n");
+		}
+		
+		@Override
+		public void appendError(StringBuilder sb, int job, String message) {
+			sb.append(job).append(",error,,,,,\"").append(message.replace("\"", "\"\"")).append("\"\n");
+		}
+	},
+	
+	JSONL {
+		@Override
+		public String getHeader() {
+			return "";
+		}
+		
+		@Override
+		public void appendPoint(StringBuilder sb, int job, String type, double x, double y) {
+			sb.append("{\"job\":").append(job).append(",\"type\":\"").append(type).append("\",\"x\":");
+			appendNumber(sb, x);
+			sb.append(",\"y\":");
+			appendNumber(sb, y);
+			sb.append("}\n");
+		}
+		
+		@Override
+		public void appendValue(StringBuilder sb, int job, String type, double value, double errorEstimate) {
+			sb.append("{\"job\":").append(job).append(",\"type\":\"").append(type).append("\",\"value\":");
+			appendNumber(sb, value);
+			sb.append(",\"error_estimate\":");
+			appendNumber(sb, errorEstimate);
+			sb.append("}\n");
+		}
+		
+		@Override
+		public void appendError(StringBuilder sb, int job, String message) {
+			sb.append("{\"job\":").append(job).append(",\"type\":\"error\",\"message\":\"");
+			for(char c : message.toCharArray()) {
+				if(c == '"' || c == '\\')
+					sb.append('\\').append(c);
+				else if(c < ' ')
+					sb.append(String.format("\\u%04x", (int) c));
+				else
+					sb.append(c);
+			}
+			sb.append("\"}\n");
+		}
+		
+		private void appendNumber(StringBuilder sb, double d) {
+			if(Double.isFinite(d))
+				sb.append(d);
+			else
+				sb.append("null");
+		}
+	};
+	
+	
+	public abstract String getHeader();
+	
+	// a result that's a point of the function (evaluations, roots, extremes, intersections)
+	public abstract void appendPoint(StringBuilder sb, int job, String type, double x, double y);
+	
+	// a result that's a single value (integrals)
+	public abstract void appendValue(StringBuilder sb, int job, String type, double value, double errorEstimate);
+	
+	public abstract void appendError(StringBuilder sb, int job, String message);
+	
+}
@@ -0,0 +1,41 @@
+package graphingCalculator.gSolveState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import functionComponents.Function;
+import functionComponents.FunctionIntersections;
+import functionComponents.Point;
+import functionComponents.SearchListener;
+
+/*
+ * G-Solve search for the intersections between every pair of functions.
+ * The search returns all the intersections together, and the intersections of each pair are kept
+ * so they can be navigated one pair at a time once the search is done.
+ */
+public class AllIntersectionsSearch implements GSolveSearch {
+	
+	private List<Function> functions;
+	private ArrayList<FunctionIntersections> pairsIntersections;
+	
+
+	public AllIntersectionsSearch(List<Function> functions) {
+		this.functions = functions;
+	}
+	
+	@Override
+	public ArrayList<Point> search(SearchListener listener) {
+		pairsIntersections = Function.getAllIntersections(functions, Function.DEFAULT_TOLERANCE, listener);
+		
+		ArrayList<Point> allIntersections = new ArrayList<>();
+		for(FunctionIntersections pairIntersections : pairsIntersections)
+			allIntersections.addAll(pairIntersections.getIntersections());
+		return allIntersections;
+	}
+	
+	@Override
+	public ArrayList<FunctionIntersections> getPairsIntersections() {
+		return pairsIntersections;
+	}
+	
+}
@@ -0,0 +1,35 @@
+package graphingCalculator.gSolveState;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Map;
+
+import functionComponents.FunctionIntersections;
+import functionComponents.Point;
+import functionComponents.SearchListener;
+import functionComponents.SolutionEnumerator;
+
+/*
+ * A G-Solve search that's ready to be run, with the functions it works on already chosen.
+ * It's run on a background thread by GSolveWorker.
+ */
+public interface GSolveSearch {
+	
+	ArrayList<Point> search(SearchListener listener);
+	
+	// searches that only find the first solutions and leave the rest to be found while navigating return their enumerator here
+	default SolutionEnumerator getSolutionEnumerator() {
+		return null;
+	}
+	
+	// searches for the intersections of several pairs of functions return each pair's intersections here, once the search is done
+	default ArrayList<FunctionIntersections> getPairsIntersections() {
+		return null;
+	}
+	
+	// searches over several functions give the color each solution should be drawn with, it's filled while the search runs
+	default Map<Point, Color> getResultColors() {
+		return null;
+	}
+	
+}
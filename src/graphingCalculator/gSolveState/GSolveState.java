@@ -2,11 +2,12 @@ package graphingCalculator.gSolveState;
 
 public enum GSolveState {
 	NONE (false),
-	ROOT (true),
-	MAXIMUM (true),
-	MINIMUM (true),
-	Y_AXIS_INTERSECTION (false),
-	FUNCTION_INTERSECTION (true),
+	ROOT ("Root", null, true),
+	MAXIMUM ("Maximum", null, true),
+	MINIMUM ("Minimum", null, true),
+	Y_AXIS_INTERSECTION ("Intersection with the Y-Axis", null, false),
+	FUNCTION_INTERSECTION ("Intersection", null, true),
+	ALL_INTERSECTIONS ("Intersections", null, true),
 	Y_VALUE ("Y-Value", "Enter the x coordinate:", false),
 	X_VALUE ("X-Value", "Enter the y coordinate:", true),
 	INTEGRAL ("Integral", "Enter the integral bounds:", false);
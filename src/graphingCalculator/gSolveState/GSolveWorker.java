@@ -0,0 +1,93 @@
+package graphingCalculator.gSolveState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JFrame;
+import javax.swing.SwingWorker;
+
+import functionComponents.Point;
+import functionComponents.SearchListener;
+import graphingCalculator.graphics.GraphicsDrawer;
+import graphingCalculator.utils.SwingUtils;
+
+/*
+ * Runs a G-Solve search in the background so the window stays responsive.
+ * The results found so far are shown while the search runs and its progress is shown in the window's title.
+ * Cancelling the worker (cancel(false)) makes the search stop after the chunks it's currently working on.
+ */
+public class GSolveWorker extends SwingWorker<ArrayList<Point>, ArrayList<Point>> implements SearchListener {
+	
+	private JFrame frame;
+	private String frameTitle;
+	private GraphicsDrawer graphicsDrawer;
+	private GSolveStateWrapper gSolveState;
+	private GSolveSearch search;
+	private String noSolutionsMessage;
+	
+	private volatile double fractionSearched;
+	
+
+	public GSolveWorker(JFrame frame, String frameTitle, GraphicsDrawer graphicsDrawer, GSolveStateWrapper gSolveState, GSolveSearch search, String noSolutionsMessage) {
+		this.frame = frame;
+		this.frameTitle = frameTitle;
+		this.graphicsDrawer = graphicsDrawer;
+		this.gSolveState = gSolveState;
+		this.search = search;
+		this.noSolutionsMessage = noSolutionsMessage;
+	}
+	
+	@Override
+	protected ArrayList<Point> doInBackground() {
+		return search.search(this);
+	}
+	
+	@Override
+	public void resultsUpdated(ArrayList<Point> resultsSoFar, double fractionSearched) {
+		this.fractionSearched = fractionSearched;
+		publish(resultsSoFar);
+	}
+	
+	// only the latest results matter, the ones published before them are already included in them
+	@Override
+	protected void process(List<ArrayList<Point>> resultsUpdates) {
+		if(isCancelled()) return;
+		
+		ArrayList<Point> resultsSoFar = resultsUpdates.get(resultsUpdates.size()-1);
+		int percentage = (int) (fractionSearched*100);
+		frame.setTitle(frameTitle + " - " + gSolveState.state.getTitle() + ": " + percentage + "% searched, " + resultsSoFar.size() + " found (Esc to cancel)");
+		
+		if(graphicsDrawer.updateGSolveResults(resultsSoFar))
+			SwingUtils.updateFrameContents(frame);
+	}
+	
+	@Override
+	protected void done() {
+		frame.setTitle(frameTitle);
+		if(isCancelled()) return;
+		
+		ArrayList<Point> results;
+		try {
+			results = get();
+		} catch(InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+			results = new ArrayList<>();
+		}
+		
+		if(!graphicsDrawer.updateGSolveResults(results)) {
+			gSolveState.state = GSolveState.NONE;
+			graphicsDrawer.clearHighlights();
+			SwingUtils.showErrorMessageDialog(frame, noSolutionsMessage);
+		}
+		else {
+			graphicsDrawer.finishGSolve(search);
+			String pairDescription = graphicsDrawer.getGSolvePairDescription();
+			if(pairDescription != null)
+				frame.setTitle(frameTitle + " - " + pairDescription);
+		}
+		
+		SwingUtils.updateFrameContents(frame);
+	}
+	
+}
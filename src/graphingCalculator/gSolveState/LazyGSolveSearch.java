@@ -0,0 +1,32 @@
+package graphingCalculator.gSolveState;
+
+import java.util.ArrayList;
+
+import functionComponents.Point;
+import functionComponents.SearchListener;
+import functionComponents.SolutionEnumerator;
+
+/*
+ * G-Solve search that only finds the solutions closest to the view's center.
+ * The others are found by the enumerator as the user moves between the solutions.
+ */
+public class LazyGSolveSearch implements GSolveSearch {
+	
+	private SolutionEnumerator enumerator;
+	
+
+	public LazyGSolveSearch(SolutionEnumerator enumerator) {
+		this.enumerator = enumerator;
+	}
+	
+	@Override
+	public ArrayList<Point> search(SearchListener listener) {
+		return enumerator.findFirstSolutions(listener);
+	}
+	
+	@Override
+	public SolutionEnumerator getSolutionEnumerator() {
+		return enumerator;
+	}
+	
+}
@@ -0,0 +1,106 @@
+package graphingCalculator.gSolveState;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import functionComponents.Function;
+import functionComponents.Point;
+import functionComponents.SearchListener;
+
+/*
+ * Runs the same G-Solve search on several functions at the same time and merges their solutions, sorted by x.
+ * Each solution is tagged with the color of the function it belongs to so it can be drawn in that color.
+ * The colors are looked up by the solution's identity, and functions with the same expression share their (cached) solutions,
+ * so each function's solutions are copied first.
+ * 
+ * The listener gets the merged solutions found so far, and the fraction searched is the average of the functions' searches.
+ */
+public class SolveAllSearch implements GSolveSearch {
+	
+	private List<Function> functions;
+	private List<Color> colors;
+	private BiFunction<Function, SearchListener, ArrayList<Point>> functionSearch;
+	
+	private Map<Point, Color> resultColors;
+	// for each function, the copy of each of its solutions, so a solution keeps the same copy every time the results are updated
+	private ArrayList<IdentityHashMap<Point, Point>> resultCopies;
+	private ArrayList<ArrayList<Point>> functionsResults;
+	private double[] fractionsSearched;
+	
+
+	public SolveAllSearch(List<Function> functions, List<Color> colors, BiFunction<Function, SearchListener, ArrayList<Point>> functionSearch) {
+		this.functions = functions;
+		this.colors = colors;
+		this.functionSearch = functionSearch;
+		
+		resultColors = new ConcurrentHashMap<>();
+		resultCopies = new ArrayList<>();
+		functionsResults = new ArrayList<>();
+		for(int i = 0; i < functions.size(); i++) {
+			resultCopies.add(new IdentityHashMap<>());
+			functionsResults.add(new ArrayList<>());
+		}
+		fractionsSearched = new double[functions.size()];
+	}
+	
+	@Override
+	public ArrayList<Point> search(SearchListener listener) {
+		IntStream.range(0, functions.size()).parallel().forEach(i -> {
+			ArrayList<Point> results = functionSearch.apply(functions.get(i), new SearchListener() {
+				
+				@Override
+				public void resultsUpdated(ArrayList<Point> resultsSoFar, double fractionSearched) {
+					functionResultsUpdated(i, resultsSoFar, fractionSearched, listener);
+				}
+				
+				@Override
+				public boolean isCancelled() {
+					return listener != null && listener.isCancelled();
+				}
+				
+			});
+			functionResultsUpdated(i, results, 1, null);
+		});
+		
+		return getMergedResults();
+	}
+	
+	private synchronized void functionResultsUpdated(int functionPos, ArrayList<Point> results, double fractionSearched, SearchListener listener) {
+		ArrayList<Point> copiedResults = new ArrayList<>(results.size());
+		for(Point result : results) {
+			Point copiedResult = resultCopies.get(functionPos).computeIfAbsent(result, Point::new);
+			resultColors.put(copiedResult, colors.get(functionPos));
+			copiedResults.add(copiedResult);
+		}
+		functionsResults.set(functionPos, copiedResults);
+		fractionsSearched[functionPos] = fractionSearched;
+		
+		if(listener != null) {
+			double totalFractionSearched = 0;
+			for(double fraction : fractionsSearched)
+				totalFractionSearched += fraction;
+			listener.resultsUpdated(getMergedResults(), totalFractionSearched/fractionsSearched.length);
+		}
+	}
+	
+	private synchronized ArrayList<Point> getMergedResults() {
+		ArrayList<Point> mergedResults = new ArrayList<>();
+		for(ArrayList<Point> results : functionsResults)
+			mergedResults.addAll(results);
+		Collections.sort(mergedResults);
+		return mergedResults;
+	}
+	
+	@Override
+	public Map<Point, Color> getResultColors() {
+		return resultColors;
+	}
+	
+}
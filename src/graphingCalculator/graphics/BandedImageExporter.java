@@ -0,0 +1,102 @@
+package graphingCalculator.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import graphingCalculator.saver.StreamingPngWriter;
+
+/*
+ * Renders an image of any size as a sequence of horizontal bands and writes it as a PNG while the next bands are still being drawn.
+ * Each band is drawn by the painter (which draws the whole image, in the image's coordinates) through a clip, so only
+ * the few bands being drawn or waiting to be written are ever in memory, no matter how big the image is.
+ */
+public class BandedImageExporter {
+	
+	// about 16MB per band
+	private final int BAND_PIXELS = 1 << 22;
+	
+	private int width, height;
+	private boolean transparent;
+	private Consumer<Graphics2D> painter;
+	
+	
+	// the painter is called from several threads at the same time, each one with its own Graphics2D
+	public BandedImageExporter(int width, int height, boolean transparent, Consumer<Graphics2D> painter) {
+		if(width <= 0 || height <= 0)
+			throw new IllegalArgumentException("The image size must be positive.");
+		
+		this.width = width;
+		this.height = height;
+		this.transparent = transparent;
+		this.painter = painter;
+	}
+	
+	/*
+	 * The listener is told how much of the image was written after every band, and the export stops before the next band once it's cancelled.
+	 * returns false if it was cancelled, in which case out only has part of the image
+	 */
+	public boolean writePng(OutputStream out, ExportListener listener) throws IOException {
+		int bandHeight = Math.max(1, Math.min(height, BAND_PIXELS/width));
+		int threads = Runtime.getRuntime().availableProcessors();
+		// bounds how many bands are in memory at once, the writer always waits for the oldest one
+		int maxPendingBands = threads*2;
+		
+		StreamingPngWriter pngWriter = new StreamingPngWriter(out, width, height, transparent);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		ArrayDeque<Future<BufferedImage>> pendingBands = new ArrayDeque<>();
+		try {
+			int nextBandY = 0, rowsWritten = 0;
+			while(nextBandY < height || !pendingBands.isEmpty()) {
+				if(listener.isCancelled()) return false;
+				while(nextBandY < height && pendingBands.size() < maxPendingBands) {
+					int bandY = nextBandY, rows = Math.min(bandHeight, height-bandY);
+					pendingBands.add(executor.submit(() -> renderBand(bandY, rows)));
+					nextBandY += rows;
+				}
+				
+				BufferedImage band = pendingBands.poll().get();
+				int[] pixels = ((DataBufferInt) band.getRaster().getDataBuffer()).getData();
+				pngWriter.writeRows(pixels, 0, width, band.getHeight());
+				rowsWritten += band.getHeight();
+				listener.progressUpdated((double) rowsWritten/height);
+			}
+			pngWriter.finish();
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The export was interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("A band of the image couldn't be drawn.", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private BufferedImage renderBand(int bandY, int rows) {
+		BufferedImage band = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = band.createGraphics();
+		
+		if(!transparent) {
+			g2d.setPaint(Color.WHITE);
+			g2d.fillRect(0, 0, width, rows);
+		}
+		
+		// the painter draws in the coordinates of the whole image, everything outside of the band is clipped away
+		g2d.translate(0, -bandY);
+		g2d.clipRect(0, bandY, width, rows);
+		painter.accept(g2d);
+		g2d.dispose();
+		return band;
+	}
+
+}
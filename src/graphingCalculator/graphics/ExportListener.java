@@ -0,0 +1,15 @@
+package graphingCalculator.graphics;
+
+/*
+ * Follows an image export while it's written (e.g. a PNG export running in a SwingWorker).
+ * Both methods are called from the thread writing the image, like SearchListener's.
+ */
+public interface ExportListener {
+	
+	// called every time more of the image is written, with the fraction of its rows written so far
+	void progressUpdated(double fractionWritten);
+	
+	// checked before each layer is sampled and each band is written, the export stops early once this returns true
+	boolean isCancelled();
+
+}
@@ -0,0 +1,77 @@
+package graphingCalculator.graphics;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import functionComponents.FunctionFamily;
+
+/*
+ * All the curves of a FunctionFamily drawn as a single layer.
+ * The curves share their xs, so the xs' frame coordinates are only calculated once for all of them.
+ */
+public class FunctionFamilyGraphic extends BufferedImage {
+	
+	private Color color;
+	private FunctionFamily functionFamily;
+	
+	
+	public FunctionFamilyGraphic(Dimension size, FunctionFamily functionFamily, Color color) {
+		super(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+		this.functionFamily = functionFamily;
+		this.color = color;
+		
+		Graphics2D g2d = this.createGraphics();
+		
+		drawFamily(g2d, functionFamily, color);
+	}
+	
+	// also used to draw the family straight onto other images (e.g. the bands of an exported image)
+	public static void drawFamily(Graphics2D g2d, FunctionFamily functionFamily, Color color) {
+		g2d.setStroke(new BasicStroke(1));
+		g2d.setColor(color);
+		
+		double[][] samples = functionFamily.getSamples();
+		if(samples.length == 0 || samples[0].length == 0) return;
+		
+		Dimension size = functionFamily.getSize();
+		double[] limits = functionFamily.getReferentialLimits().getLimits();
+		double xPixelPerCoords = size.width/(limits[1]-limits[0]);
+		double yPixelPerCoords = size.height/(limits[3]-limits[2]);
+		
+		// same frame coordinates as the Points of a Function
+		int sampleCount = samples[0].length;
+		int[] xFrameCoords = new int[sampleCount];
+		for(int i = 0; i < sampleCount; i++)
+			xFrameCoords[i] = (int) ((functionFamily.getSampleX(i)-limits[0])*xPixelPerCoords);
+		
+		int[] polylineXs = new int[sampleCount];
+		int[] polylineYs = new int[sampleCount];
+		for(double[] ys : samples) {
+			// each curve is split into separate polylines where it's undefined
+			int polylineLength = 0;
+			for(int i = 0; i < sampleCount; i++) {
+				if(Double.isFinite(ys[i])) {
+					polylineXs[polylineLength] = xFrameCoords[i];
+					polylineYs[polylineLength] = (int) (size.height - (ys[i]-limits[2])*yPixelPerCoords);
+					polylineLength++;
+				}
+				else {
+					g2d.drawPolyline(polylineXs, polylineYs, polylineLength);
+					polylineLength = 0;
+				}
+			}
+			g2d.drawPolyline(polylineXs, polylineYs, polylineLength);
+		}
+	}
+	
+	public Color getColor() {
+		return color;
+	}
+	
+	public FunctionFamily getFunctionFamily() {
+		return functionFamily;
+	}
+	
+}
@@ -5,14 +5,13 @@ import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Polygon;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.util.List;
 
 import functionComponents.Function;
 import functionComponents.Point;
 
 public class FunctionGraphic extends BufferedImage {
 	
-	private Graphics2D g2d;
 	private Color color;
 	private Function function;
 	
@@ -22,17 +21,17 @@ public class FunctionGraphic extends BufferedImage {
 		this.function = function;
 		this.color = color;
 		
-		g2d = this.createGraphics();
+		Graphics2D g2d = this.createGraphics();
 		
-		drawFunction();
+		drawFunction(g2d, function.getPoints(), color);
 	}
 	
-	private void drawFunction() {
+	// also used to draw the function straight onto other images (e.g. the bands of an exported image)
+	public static void drawFunction(Graphics2D g2d, List<Point> points, Color color) {
 		g2d.setStroke(new BasicStroke(2));
 		g2d.setColor(color);
 
 		Polygon pol = new Polygon();
-		ArrayList<Point> points = function.getPoints();
 		
 		for(Point point : points) {
 			if(point == null) {
@@ -5,18 +5,39 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
 
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 
+import functionComponents.ConstantValues;
 import functionComponents.Function;
+import functionComponents.FunctionFamily;
+import functionComponents.FunctionIntersections;
 import functionComponents.IntegralInformation;
+import functionComponents.IntegralResult;
 import functionComponents.Point;
 import functionComponents.ReferentialLimits;
+import functionComponents.SearchListener;
+import functionComponents.SearchScope;
+import functionComponents.SampleTileCache;
+import functionComponents.SearchCache;
+import functionComponents.SolutionEnumerator;
+import functionComponents.ValueRange;
+import graphingCalculator.gSolveState.AllIntersectionsSearch;
+import graphingCalculator.gSolveState.GSolveSearch;
+import graphingCalculator.gSolveState.LazyGSolveSearch;
+import graphingCalculator.gSolveState.SolveAllSearch;
 import graphingCalculator.popupWindows.GSolveIntegralWindow;
 import graphingCalculator.saver.GraphingCalculatorProjectSave;
 
@@ -25,18 +46,61 @@ public class GraphicsDrawer extends JComponent {
 	
 	private Dimension size;
 	private ReferentialLimits referentialLimits;
+	private SearchScope searchScope;
+	private ConstantValues constants;
 	private BufferedImage referentialGraphic;
+	private double[] referentialGraphicLimits;
 	private ArrayList<FunctionGraphic> functionGraphics;
 	private HighlightGraphic highlightGraphic;
 	
+	// the parameter family is a single layer drawn under the functions, null when there's none
+	private FunctionFamilyGraphic functionFamilyGraphic;
+	
 	private ArrayList<Point> lastGSolveResults;
 	private IntegralInformation lastIntegralInformation;
 	private int currGSolveSolutionPos;
 	
+	// x at the center of the view when the last G-Solve started and whether the user has moved between its solutions since
+	private double gSolveOrigin;
+	private boolean gSolveSolutionNavigated;
+	
+	// finds the rest of the last G-Solve's solutions while navigating, null if they were all found by the search
+	// (read by the background searches to know when they're no longer needed)
+	private volatile SolutionEnumerator gSolveEnumerator;
+	// changes with every move between solutions, so a search for a solution that isn't known yet stops once the user moves again
+	private volatile int gSolveNavigation;
+	
+	// pairs of functions with intersections, when the last G-Solve was the intersections between all functions
+	private ArrayList<FunctionIntersections> gSolvePairs;
+	private int currGSolvePairPos;
+	
+	// whether the G-Solve searches are done on all the functions instead of only the last one added, and their results' colors if so
+	private boolean gSolveAllFunctions;
+	private Map<Point, Color> gSolveResultColors;
+	
+	// the functions the last G-Solve works on (set when its search is created) and the constants' version the highlights were found with,
+	// so changing a constant only clears the highlights that depend on it
+	private List<Function> gSolveFunctions = Collections.emptyList();
+	private long highlightsConstantsVersion;
+	
+	// how long updating the layers may take for each frame while a constant is being changed, and how many points are sampled then
+	private final long FRAME_BUDGET = 30000000;	// 30ms
+	private final double MIN_PREVIEW_ACCURACY = 100;
+	private final double MAX_PREVIEW_ACCURACY = 10000;
+	private double previewAccuracy = 1000;
+	
+	private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "G-Solve prefetch");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
 
 	public GraphicsDrawer(Dimension size, ReferentialLimits referentialLimits) {
 		this.size = size;
 		this.referentialLimits = referentialLimits;
+		searchScope = new SearchScope();
+		constants = new ConstantValues();
 		
 		setReferentialGraphic();
 		functionGraphics = new ArrayList<>();
@@ -45,22 +109,55 @@ public class GraphicsDrawer extends JComponent {
 	@Override
     public void paintComponent(Graphics g){
 		super.paintComponent(g);
+		drawLayers(g);
+    }
+	
+	// doesn't depend on the component being shown, so it also renders without a frame (e.g. in the plot server)
+	private void drawLayers(Graphics g) {
 		// referential is always the bottom layer
 		g.drawImage(referentialGraphic, 0, 0, size.width, size.height, null);
 		
+        if(functionFamilyGraphic != null)
+        	g.drawImage(functionFamilyGraphic, 0, 0, size.width, size.height, null);
+        
         for(FunctionGraphic layer : functionGraphics)
             g.drawImage(layer, 0, 0, size.width, size.height, null);
         
         if(highlightGraphic != null)
         	g.drawImage(highlightGraphic, 0, 0, size.width, size.height, null);
-    }
+	}
 	
+	// the referential layer only depends on the limits and the frame size, so it's reused if neither of them changed
 	private void setReferentialGraphic() {
+		double[] limits = referentialLimits.getLimits();
+		if(referentialGraphic != null && referentialGraphic.getWidth() == size.width && referentialGraphic.getHeight() == size.height
+				&& Arrays.equals(limits, referentialGraphicLimits))
+			return;
+		
 		referentialGraphic = new ReferentialGraphic(size, referentialLimits);
+		referentialGraphicLimits = limits;
+	}
+	
+	// highlights the visible G-Solve results, each one with its function's color when the G-Solve was done on all the functions
+	private void setPointHighlightsGraphic() {
+		ArrayList<Point> visiblePoints = new ArrayList<>();
+		ArrayList<Color> pointColors = gSolveResultColors == null ? null : new ArrayList<>();
+		addVisibleGSolveResults(visiblePoints, pointColors, size, referentialLimits);
+		
+		highlightGraphic = new HighlightGraphic(size, visiblePoints, pointColors);
 	}
 	
-	private void setPointHighlightsGraphic(List<Point> pointHighlights) {
-		highlightGraphic = new HighlightGraphic(size, pointHighlights);
+	// pointColors is null when the results don't have their own colors, the points are created for the given frame size and referential
+	private void addVisibleGSolveResults(List<Point> visiblePoints, List<Color> pointColors, Dimension size, ReferentialLimits referentialLimits) {
+		double limits[] = referentialLimits.getLimits();
+		
+		for(Point p : lastGSolveResults)
+			if(referentialLimits.pointIsVisible(p)) {
+				// a new point must be created in the case the referential has moved since when it was created
+				visiblePoints.add(new Point(p.getX(), p.getY(), size.width, size.height, limits));
+				if(pointColors != null)
+					pointColors.add(gSolveResultColors.getOrDefault(p, Color.BLACK));
+			}
 	}
 	
 	private void setIntegralHighlightGraphic() {		
@@ -71,15 +168,41 @@ public class GraphicsDrawer extends JComponent {
 		highlightGraphic = null;
 		lastGSolveResults = null;
 		lastIntegralInformation = null;
+		// also cancels the searches still running for the G-Solve (see prefetchGSolveSolutions and moveGSolveSolution)
+		gSolveEnumerator = null;
+		gSolvePairs = null;
+		gSolveResultColors = null;
 	}
 	
 	public void addFunction(Function function, Color color) {
+		function.setSearchScope(searchScope);
+		function.setConstants(constants);
 		FunctionGraphic functionGraphic = new FunctionGraphic(size, function, color);
 		functionGraphics.add(functionGraphic);
 	}
 	
 	public void removeFunction(int pos) {
-		functionGraphics.remove(pos);
+		FunctionGraphic removedGraphic = functionGraphics.remove(pos);
+		SearchCache.invalidate(removedGraphic.getFunction().getExpression());
+		SampleTileCache.invalidate(removedGraphic.getFunction().getExpression());
+	}
+	
+	// the family isn't one of the functions, so it doesn't count towards their limit and isn't G-Solved
+	public void setFunctionFamily(FunctionFamily functionFamily, Color color) {
+		functionFamily.setConstants(constants);
+		functionFamilyGraphic = new FunctionFamilyGraphic(size, functionFamily, color);
+	}
+	
+	public void removeFunctionFamily() {
+		functionFamilyGraphic = null;
+	}
+	
+	public FunctionFamily getFunctionFamily() {
+		return functionFamilyGraphic == null ? null : functionFamilyGraphic.getFunctionFamily();
+	}
+	
+	public Color getFunctionFamilyColor() {
+		return functionFamilyGraphic == null ? null : functionFamilyGraphic.getColor();
 	}
 	
 	public void swapFunctions(int pos1, int pos2) {
@@ -94,6 +217,60 @@ public class GraphicsDrawer extends JComponent {
 		return referentialLimits;
 	}
 	
+	public SearchScope getSearchScope() {
+		return searchScope;
+	}
+	
+	public ConstantValues getConstants() {
+		return constants;
+	}
+	
+	/*
+	 * Redraws only the layers that use the constants, after their values were changed (without parsing any expression again).
+	 * While a constant is still being changed (e.g. a slider being dragged) the functions and the family's curves are sampled coarsely, with as many points
+	 * as fit in FRAME_BUDGET going by how long the last frames took, and they're sampled normally again once the change is done.
+	 */
+	public void updateConstantGraphics(boolean adjusting) {
+		long frameStart = System.nanoTime();
+		
+		// the G-Solve results were found with the old values, unless none of their functions uses the constants
+		if(constants.getVersion() != highlightsConstantsVersion && highlightsUseConstants())
+			clearHighlights();
+		
+		for(int i = 0; i < functionGraphics.size(); i++) {
+			FunctionGraphic fg = functionGraphics.get(i);
+			Function f = fg.getFunction();
+			if(!f.usesConstants()) continue;
+			
+			f.setPreviewAccuracy(adjusting ? previewAccuracy : 0);
+			functionGraphics.set(i, new FunctionGraphic(size, f, fg.getColor()));
+		}
+		
+		if(functionFamilyGraphic != null && functionFamilyGraphic.getFunctionFamily().usesConstants()) {
+			FunctionFamily family = functionFamilyGraphic.getFunctionFamily();
+			family.setPreviewAccuracy(adjusting ? previewAccuracy : 0);
+			functionFamilyGraphic = new FunctionFamilyGraphic(size, family, functionFamilyGraphic.getColor());
+		}
+		
+		if(adjusting) {
+			long frameTime = System.nanoTime() - frameStart;
+			if(frameTime > FRAME_BUDGET)
+				previewAccuracy = Math.max(MIN_PREVIEW_ACCURACY, previewAccuracy/2);
+			else if(frameTime < FRAME_BUDGET/2)
+				previewAccuracy = Math.min(MAX_PREVIEW_ACCURACY, previewAccuracy*2);
+		}
+	}
+	
+	private boolean highlightsUseConstants() {
+		if(lastIntegralInformation != null)
+			return lastIntegralInformation.getFunction().usesConstants();
+		if(lastGSolveResults != null)
+			for(Function f : gSolveFunctions)
+				if(f.usesConstants())
+					return true;
+		return false;
+	}
+	
 	public Function getFunction(int pos) {
 		return functionGraphics.get(pos).getFunction();
 	}
@@ -188,18 +365,26 @@ public class GraphicsDrawer extends JComponent {
 		
 		functionGraphics = temp;
 		
+		if(functionFamilyGraphic != null) {
+			FunctionFamily family = functionFamilyGraphic.getFunctionFamily();
+			family.recalculateFrameSize(size);
+			functionFamilyGraphic = new FunctionFamilyGraphic(size, family, functionFamilyGraphic.getColor());
+		}
+		
 		updateHighlights();
 	}
 	
 	private void updateHighlights() {
-		if(lastGSolveResults == null) return;
-		
-		if(lastIntegralInformation == null)
-			setPointHighlightsGraphic(getAndUpdateVisiblePoints(lastGSolveResults));
-		else {
-			lastIntegralInformation.setVisiblePointsAndUpdateBounds(getAndUpdateVisiblePoints(lastGSolveResults));
+		if(lastIntegralInformation != null) {
+			lastIntegralInformation.updateVisiblePointsAndBounds();
 			setIntegralHighlightGraphic();
 		}
+		else if(lastGSolveResults != null)
+			setPointHighlightsGraphic();
+	}
+	
+	public Dimension getFrameSize() {
+		return new Dimension(size);
 	}
 	
 	public BufferedImage getBufferedImage(boolean transparent) {
@@ -216,19 +401,111 @@ public class GraphicsDrawer extends JComponent {
 	    	cg.fillRect (0, 0, size.width, size.height);
 	    }
 	    
-	    this.paintAll(cg);
+	    drawLayers(cg);
+	    cg.dispose();
 	    return bImg;
 	}
 	
+	// writes the same layers as getBufferedImage, but as vectors and without rasterizing them first
+	public void writeSvg(Writer writer, boolean transparent) throws IOException {
+		SvgExporter exporter = new SvgExporter(writer, size, referentialLimits);
+		exporter.writeHeader(transparent);
+		exporter.writeReferential();
+		
+		if(functionFamilyGraphic != null) {
+			FunctionFamily family = functionFamilyGraphic.getFunctionFamily();
+			for(int curve = 0; curve < family.getCurveCount(); curve++)
+				exporter.writeFunction(family.getCurvePoints(curve), functionFamilyGraphic.getColor());
+		}
+		
+		for(FunctionGraphic layer : functionGraphics)
+			exporter.writeFunction(layer.getFunction().getPoints(), layer.getColor());
+		
+		if(lastIntegralInformation != null)
+			exporter.writeIntegralHighlight(lastIntegralInformation);
+		else if(lastGSolveResults != null) {
+			ArrayList<Point> visiblePoints = new ArrayList<>();
+			ArrayList<Color> pointColors = gSolveResultColors == null ? null : new ArrayList<>();
+			addVisibleGSolveResults(visiblePoints, pointColors, size, referentialLimits);
+			exporter.writePointHighlights(visiblePoints, pointColors);
+		}
+		
+		exporter.writeFooter();
+	}
+	
+	/*
+	 * Copies the workspace's layers for a PNG of any size (e.g. for posters), which a background thread then writes.
+	 * Nothing is sampled here, the layers are sampled at the export's resolution when the PngExport is written.
+	 */
+	public PngExport createPngExport(Dimension exportSize, boolean transparent) {
+		double[] limits = referentialLimits.getLimits();
+		ReferentialLimits exportLimits = new ReferentialLimits(exportSize, limits[0], limits[1], limits[2], limits[3]);
+		// every layer is drawn with the values the constants have now, even if they're changed while the image is written
+		ConstantValues exportConstants = new ConstantValues(constants);
+		
+		ArrayList<Function> exportFunctions = new ArrayList<>();
+		ArrayList<Color> exportColors = new ArrayList<>();
+		IntegralInformation exportIntegralInformation = null;
+		for(FunctionGraphic layer : functionGraphics) {
+			Function exportFunction = new Function(exportSize, exportLimits, layer.getFunction());
+			exportFunction.setConstants(exportConstants);
+			exportFunctions.add(exportFunction);
+			exportColors.add(layer.getColor());
+			
+			if(lastIntegralInformation != null && lastIntegralInformation.getFunction() == layer.getFunction())
+				exportIntegralInformation = new IntegralInformation(exportFunction, lastIntegralInformation.getLowerBoundPoint(),
+						lastIntegralInformation.getUpperBoundPoint(), lastIntegralInformation.getIntegralResult(), exportSize, exportLimits);
+		}
+		
+		FunctionFamily exportFamily = null;
+		Color familyColor = null;
+		if(functionFamilyGraphic != null) {
+			exportFamily = new FunctionFamily(exportSize, exportLimits, functionFamilyGraphic.getFunctionFamily());
+			exportFamily.setConstants(exportConstants);
+			familyColor = functionFamilyGraphic.getColor();
+		}
+		
+		ArrayList<Point> exportHighlights = new ArrayList<>();
+		ArrayList<Color> exportHighlightColors = gSolveResultColors == null ? null : new ArrayList<>();
+		if(lastIntegralInformation == null && lastGSolveResults != null)
+			addVisibleGSolveResults(exportHighlights, exportHighlightColors, exportSize, exportLimits);
+		
+		return new PngExport(exportSize, exportLimits, transparent, exportFunctions, exportColors, exportFamily, familyColor,
+				exportIntegralInformation, exportHighlights, exportHighlightColors);
+	}
+	
+	// the functions are all parsed before anything is replaced, so a project with an invalid expression leaves the current one as it was
 	public void loadProject(GraphingCalculatorProjectSave save) {
-		referentialLimits = save.getReferentiaLimits();
+		double[] limits = save.getLimits();
+		ReferentialLimits loadedLimits = new ReferentialLimits(size, limits[0], limits[1], limits[2], limits[3]);
+		
+		ArrayList<Function> loadedFunctions = new ArrayList<>();
+		for(int i = 0; i < save.getFunctionCount(); i++)
+			loadedFunctions.add(new Function(size, loadedLimits, save.getFunctionExpression(i)));
+		FunctionFamily loadedFamily = null;
+		if(save.hasFamily())
+			loadedFamily = new FunctionFamily(size, loadedLimits, save.getFamilyExpression(),
+					save.getFamilyParameterMin(), save.getFamilyParameterMax(), save.getFamilyCurveCount());
+		
+		referentialLimits = loadedLimits;
+		referentialGraphic = null;
 		setReferentialGraphic();
 		
+		searchScope.setMode(save.getSearchScopeMode());
+		searchScope.setCustomInterval(save.getCustomMin(), save.getCustomMax());
+		
+		// constants this version doesn't have (and invalid values) are ignored
+		for(Entry<String, Double> constant : save.getConstants().entrySet())
+			if(Arrays.asList(ConstantValues.NAMES).contains(constant.getKey()) && Double.isFinite(constant.getValue()))
+				constants.setValue(constant.getKey(), constant.getValue());
+		
 		functionGraphics.clear();
-		for(Entry<Color, String> entry : save.getFunctions().entrySet()) {
-			Function function = new Function(size, referentialLimits, entry.getValue());
-			addFunction(function, entry.getKey());
-		}
+		for(int i = 0; i < loadedFunctions.size(); i++)
+			addFunction(loadedFunctions.get(i), save.getFunctionColor(i));
+		
+		functionFamilyGraphic = null;
+		if(loadedFamily != null)
+			setFunctionFamily(loadedFamily, save.getFamilyColor());
 	}
 	
 	
@@ -238,129 +515,308 @@ public class GraphicsDrawer extends JComponent {
 		return functionGraphics.get(functionGraphics.size()-1).getFunction();
 	}
 	
-	private ArrayList<Point> getAndUpdateVisiblePoints(ArrayList<Point> allPoints) {
-		ArrayList<Point> visiblePoints = new ArrayList<>();
-		double limits[] = referentialLimits.getLimits();
+	// index of the solution closest to x
+	private int getNearestGSolveSolutionPos(double x) {
+		int nearestPos = 0;
+		for(int i = 1; i < lastGSolveResults.size(); i++)
+			if(Math.abs(lastGSolveResults.get(i).getX()-x) < Math.abs(lastGSolveResults.get(nearestPos).getX()-x))
+				nearestPos = i;
+		return nearestPos;
+	}
+	
+	// must be called before a new G-Solve's results start arriving
+	public void startGSolve() {
+		clearHighlights();
+		highlightsConstantsVersion = constants.getVersion();
+		gSolveOrigin = referentialLimits.getXMin() + referentialLimits.getXLength()/2;
+		gSolveSolutionNavigated = false;
+	}
+	
+	public void startGSolve(GSolveSearch search) {
+		startGSolve();
+		gSolveResultColors = search.getResultColors();
+	}
+	
+	public void setGSolveAllFunctions(boolean gSolveAllFunctions) {
+		this.gSolveAllFunctions = gSolveAllFunctions;
+	}
+	
+	/*
+	 * Shows the given G-Solve results, centering the referential on the current solution.
+	 * A search running in the background calls this every time it finds more results, so until the user moves to another solution,
+	 * the current solution is the one closest to where the view was when the G-Solve started. Afterwards it's kept the same.
+	 * 
+	 * returns false if there are no results
+	 */
+	public boolean updateGSolveResults(ArrayList<Point> results) {
+		if(results.isEmpty()) return false;
 		
-		for(Point p : allPoints)
-			if(referentialLimits.pointIsVisible(p))
-				// a new point must be created in the case the referential has moved since when it was created
-				visiblePoints.add(new Point(p.getX(), p.getY(), size.width, size.height, limits));
+		Point shownSolution = lastGSolveResults == null ? null : lastGSolveResults.get(currGSolveSolutionPos);
+		lastGSolveResults = results;
+		
+		if(shownSolution == null || !gSolveSolutionNavigated)
+			currGSolveSolutionPos = getNearestGSolveSolutionPos(gSolveOrigin);
+		else
+			currGSolveSolutionPos = getNearestGSolveSolutionPos(shownSolution.getX());
+		
+		Point solution = lastGSolveResults.get(currGSolveSolutionPos);
+		if(solution != shownSolution)
+			setOriginLocation(solution.getX(), solution.getY());
+		setPointHighlightsGraphic();
+		return true;
+	}
+	
+	// called once a G-Solve's search is done and has found solutions
+	public void finishGSolve(GSolveSearch search) {
+		setGSolveEnumerator(search.getSolutionEnumerator());
+		setGSolvePairs(search.getPairsIntersections());
+	}
+	
+	/*
+	 * Lets the solutions that the last G-Solve's search didn't find yet be found while navigating.
+	 * The next/previous solutions are prefetched in the background so moving to them is usually immediate.
+	 */
+	private void setGSolveEnumerator(SolutionEnumerator enumerator) {
+		gSolveEnumerator = enumerator;
+		if(enumerator != null)
+			prefetchGSolveSolutions(lastGSolveResults.get(currGSolveSolutionPos).getX());
+	}
+	
+	// only the pairs that intersect are kept, and the solutions shown are the first pair's
+	private void setGSolvePairs(ArrayList<FunctionIntersections> pairsIntersections) {
+		if(pairsIntersections == null) return;
 		
-		return visiblePoints;
+		gSolvePairs = new ArrayList<>();
+		for(FunctionIntersections pairIntersections : pairsIntersections)
+			if(!pairIntersections.getIntersections().isEmpty())
+				gSolvePairs.add(pairIntersections);
+		
+		currGSolvePairPos = 0;
+		showGSolvePair();
 	}
 	
-	private void startGSolveSolution() {
-		currGSolveSolutionPos = 0;
-		double currOrigin = referentialLimits.getXMin() + referentialLimits.getXLength()/2;
-		Point mainSolution = lastGSolveResults.get(0);
-		double mainSolutionDist = mainSolution.getX()-currOrigin;
+	private void showGSolvePair() {
+		lastGSolveResults = null;
+		gSolveSolutionNavigated = false;
+		updateGSolveResults(new ArrayList<>(gSolvePairs.get(currGSolvePairPos).getIntersections()));
+	}
+	
+	public void nextGSolvePair() {
+		if(gSolvePairs == null || currGSolvePairPos >= gSolvePairs.size()-1) return;
+		currGSolvePairPos++;
+		showGSolvePair();
+	}
+	
+	public void prevGSolvePair() {
+		if(gSolvePairs == null || currGSolvePairPos <= 0) return;
+		currGSolvePairPos--;
+		showGSolvePair();
+	}
+	
+	// e.g. "sin(x) and cos(x): 637 intersections (pair 1 of 3, Up/Down to change)", null if there are no pairs being shown
+	public String getGSolvePairDescription() {
+		if(gSolvePairs == null) return null;
+		
+		FunctionIntersections pair = gSolvePairs.get(currGSolvePairPos);
+		String firstExpression = functionGraphics.get(pair.getFirstFunctionPos()).getFunction().getExpression();
+		String secondExpression = functionGraphics.get(pair.getSecondFunctionPos()).getFunction().getExpression();
+		int intersectionCount = pair.getIntersections().size();
 		
-		Point p;
-		for(int i = 1; i < lastGSolveResults.size(); i++) {
-			p = lastGSolveResults.get(i);
-			double currDist = p.getX()-currOrigin;
+		return firstExpression + " and " + secondExpression + ": " + intersectionCount + (intersectionCount == 1 ? " intersection" : " intersections")
+				+ " (pair " + (currGSolvePairPos+1) + " of " + gSolvePairs.size() + ", Up/Down to change)";
+	}
+	
+	// the prefetch stops as soon as the G-Solve is cleared or a different one starts (both replace gSolveEnumerator)
+	private void prefetchGSolveSolutions(double x) {
+		SolutionEnumerator enumerator = gSolveEnumerator;
+		SearchListener listener = new SearchListener() {
+			@Override
+			public void resultsUpdated(ArrayList<Point> resultsSoFar, double fractionSearched) {}
 			
-			if((mainSolutionDist < 0 && currDist > mainSolutionDist) || (mainSolutionDist > 0 && currDist < mainSolutionDist)) {
-				currGSolveSolutionPos = i;
-				mainSolution = p;
-				mainSolutionDist = mainSolution.getX()-currOrigin;
+			@Override
+			public boolean isCancelled() {
+				return enumerator != gSolveEnumerator;
 			}
-		}
+		};
 		
-		setOriginLocation(mainSolution.getX(), mainSolution.getY());
-		setPointHighlightsGraphic(getAndUpdateVisiblePoints(lastGSolveResults));
+		prefetchExecutor.execute(() -> {
+			if(listener.isCancelled()) return;
+			enumerator.prefetch(x, listener);
+			ArrayList<Point> solutions = enumerator.getSolutions();
+			
+			SwingUtilities.invokeLater(() -> {
+				if(listener.isCancelled()) return;
+				updateGSolveResults(solutions);
+				repaint();
+			});
+		});
 	}
 	
+	/*
+	 * When the solution isn't known yet it's searched for in the background (only the rest of the grid in that direction is searched),
+	 * and the view moves to it once it's found, unless the user has moved again or the G-Solve was cleared by then.
+	 */
 	public void nextGSolveSolution() {
-		if(currGSolveSolutionPos >= lastGSolveResults.size()-1) return;
-		
-		Point p = lastGSolveResults.get(++currGSolveSolutionPos);
-		setOriginLocation(p.getX(), p.getY());
-		setPointHighlightsGraphic(getAndUpdateVisiblePoints(lastGSolveResults));
+		moveGSolveSolution(true);
 	}
 	
 	public void prevGSolveSolution() {
-		if(currGSolveSolutionPos <= 0) return;
+		moveGSolveSolution(false);
+	}
+	
+	private void moveGSolveSolution(boolean next) {
+		if(lastGSolveResults == null) return;
+		int navigation = ++gSolveNavigation;
 		
-		Point p = lastGSolveResults.get(--currGSolveSolutionPos);
+		int newPos = currGSolveSolutionPos + (next ? 1 : -1);
+		if(newPos >= 0 && newPos < lastGSolveResults.size()) {
+			showGSolveSolution(newPos);
+			return;
+		}
+		
+		SolutionEnumerator enumerator = gSolveEnumerator;
+		if(enumerator == null) return;
+		
+		double x = lastGSolveResults.get(currGSolveSolutionPos).getX();
+		SearchListener listener = new SearchListener() {
+			@Override
+			public void resultsUpdated(ArrayList<Point> resultsSoFar, double fractionSearched) {}
+			
+			@Override
+			public boolean isCancelled() {
+				return enumerator != gSolveEnumerator || navigation != gSolveNavigation;
+			}
+		};
+		
+		prefetchExecutor.execute(() -> {
+			Point solution = next ? enumerator.findNextSolution(x, listener) : enumerator.findPrevSolution(x, listener);
+			if(solution == null) return;
+			
+			SwingUtilities.invokeLater(() -> {
+				if(listener.isCancelled()) return;
+				lastGSolveResults = enumerator.getSolutions();
+				showGSolveSolution(lastGSolveResults.indexOf(solution));
+				repaint();
+			});
+		});
+	}
+	
+	private void showGSolveSolution(int pos) {
+		gSolveSolutionNavigated = true;
+		currGSolveSolutionPos = pos;
+		Point p = lastGSolveResults.get(pos);
 		setOriginLocation(p.getX(), p.getY());
-		setPointHighlightsGraphic(getAndUpdateVisiblePoints(lastGSolveResults));
+		setPointHighlightsGraphic();
+		
+		if(gSolveEnumerator != null)
+			prefetchGSolveSolutions(p.getX());
 	}
 	
-	public boolean gSolveRoot() {
-		lastGSolveResults = getCurrentWorkingFunction().getRoots();
-		if(lastGSolveResults.isEmpty()) return false;
+	// the searches over the search area are returned ready to be run in the background (see GSolveWorker)
+	// the root searches are lazy, they only find the solutions closest to the view's center and the others are found while navigating
+	
+	public GSolveSearch gSolveRoot() {
+		if(gSolveAllFunctions)
+			return gSolveAllFunctions((f, listener) -> f.getRoots(Function.DEFAULT_TOLERANCE, listener));
 		
-		startGSolveSolution();
-		return true;
+		Function f = getCurrentWorkingFunction();
+		gSolveFunctions = Arrays.asList(f);
+		return new LazyGSolveSearch(f.getRootEnumerator(Function.DEFAULT_TOLERANCE));
 	}
 	
-	public boolean gSolveMaximum() {
-		lastGSolveResults = getCurrentWorkingFunction().getMaximum();
-		if(lastGSolveResults.isEmpty()) return false;
+	public GSolveSearch gSolveMaximum() {
+		if(gSolveAllFunctions)
+			return gSolveAllFunctions((f, listener) -> f.getMaximum(listener));
 		
-		startGSolveSolution();
-		return true;
+		Function f = getCurrentWorkingFunction();
+		gSolveFunctions = Arrays.asList(f);
+		return listener -> f.getMaximum(listener);
 	}
 	
-	public boolean gSolveMinimum() {
-		lastGSolveResults = getCurrentWorkingFunction().getMinimum();
-		if(lastGSolveResults.isEmpty()) return false;
+	public GSolveSearch gSolveMinimum() {
+		if(gSolveAllFunctions)
+			return gSolveAllFunctions((f, listener) -> f.getMinimum(listener));
 		
-		startGSolveSolution();
-		return true;
+		Function f = getCurrentWorkingFunction();
+		gSolveFunctions = Arrays.asList(f);
+		return listener -> f.getMinimum(listener);
 	}
 	
 	public boolean gSolveYAxisIntersection() {
 		Point[] solution = {getCurrentWorkingFunction().getYAxisIntersection()};
 		if(solution[0] == null) return false;
+		gSolveFunctions = Arrays.asList(getCurrentWorkingFunction());
 		
-		lastGSolveResults = new ArrayList<>(Arrays.asList(solution));
-		startGSolveSolution();
-		return true;
+		startGSolve();
+		return updateGSolveResults(new ArrayList<>(Arrays.asList(solution)));
 	}
 	
-	public boolean gSolveFunctionIntersection() {
+	public GSolveSearch gSolveFunctionIntersection() {
+		Function f = getCurrentWorkingFunction();
 		Function intersectionFuntion = functionGraphics.get(functionGraphics.size()-2).getFunction();
-		lastGSolveResults = getCurrentWorkingFunction().getFunctionIntersections(intersectionFuntion);
-		if(lastGSolveResults.isEmpty()) return false;
-		
-		startGSolveSolution();
-		return true;
+		gSolveFunctions = Arrays.asList(f, intersectionFuntion);
+		return new LazyGSolveSearch(f.getFunctionIntersectionEnumerator(intersectionFuntion, Function.DEFAULT_TOLERANCE));
+	}
+	
+	// the whole search area is searched for each function (instead of lazily) so their solutions can be merged
+	private GSolveSearch gSolveAllFunctions(BiFunction<Function, SearchListener, ArrayList<Point>> functionSearch) {
+		ArrayList<Function> functions = new ArrayList<>(functionGraphics.size());
+		ArrayList<Color> colors = new ArrayList<>(functionGraphics.size());
+		for(FunctionGraphic functionGraphic : functionGraphics) {
+			functions.add(functionGraphic.getFunction());
+			colors.add(functionGraphic.getColor());
+		}
+		gSolveFunctions = functions;
+		return new SolveAllSearch(functions, colors, functionSearch);
+	}
+	
+	// every pair of functions is intersected in a single pass, see Function.getAllIntersections
+	public GSolveSearch gSolveAllIntersections() {
+		ArrayList<Function> functions = new ArrayList<>(functionGraphics.size());
+		for(FunctionGraphic functionGraphic : functionGraphics)
+			functions.add(functionGraphic.getFunction());
+		gSolveFunctions = functions;
+		return new AllIntersectionsSearch(functions);
 	}
 	
 	public boolean gSolveYValue(double x) {
 		Point[] solution = {getCurrentWorkingFunction().getYValue(x)};
 		if(solution[0] == null) return false;
+		gSolveFunctions = Arrays.asList(getCurrentWorkingFunction());
 		
-		lastGSolveResults = new ArrayList<>(Arrays.asList(solution));
-		startGSolveSolution();
-		return true;
+		startGSolve();
+		return updateGSolveResults(new ArrayList<>(Arrays.asList(solution)));
 	}
 
-	// returns true if any value was found, false otherwise
-	public boolean gSolveXValue(double y) {
-		lastGSolveResults = getCurrentWorkingFunction().getXValue(y);
-		if(lastGSolveResults.isEmpty()) return false;
+	public GSolveSearch gSolveXValue(double y) {
+		if(gSolveAllFunctions)
+			return gSolveAllFunctions((f, listener) -> f.getXValue(y, Function.DEFAULT_TOLERANCE, listener));
 		
-		startGSolveSolution();
-		return true;
+		Function f = getCurrentWorkingFunction();
+		gSolveFunctions = Arrays.asList(f);
+		return new LazyGSolveSearch(f.getXValueEnumerator(y, Function.DEFAULT_TOLERANCE));
 	}
 	
-	public int gSolveIntegral(double lowerBound, double upperBound) {
+	public int gSolveIntegral(double lowerBound, double upperBound, boolean quasiMonteCarlo) {
 		Function f = getCurrentWorkingFunction();
-		if(f.getYValue(lowerBound) == null) return GSolveIntegralWindow.INTEGRAL_LOWER_BOUND_ERROR;
-		if(f.getYValue(upperBound) == null) return GSolveIntegralWindow.INTEGRAL_UPPER_BOUND_ERROR;
+		Point lowerBoundPoint = f.getYValue(lowerBound);
+		Point upperBoundPoint = f.getYValue(upperBound);
+		if(lowerBoundPoint == null) return GSolveIntegralWindow.INTEGRAL_LOWER_BOUND_ERROR;
+		if(upperBoundPoint == null) return GSolveIntegralWindow.INTEGRAL_UPPER_BOUND_ERROR;
 		
-		double integralResult = getCurrentWorkingFunction().getIntegral(lowerBound, upperBound);
-		if(integralResult == Double.NaN) return GSolveIntegralWindow.INTEGRAL_CALCULATION_ERROR;
+		IntegralResult integralResult;
+		if(quasiMonteCarlo)
+			integralResult = f.getQuasiMonteCarloIntegral(lowerBound, upperBound);
+		else
+			integralResult = f.getIntegral(lowerBound, upperBound);
+		if(integralResult == null) return GSolveIntegralWindow.INTEGRAL_CALCULATION_ERROR;
 		
-		lastGSolveResults = f.getPointsInInterval(lowerBound, upperBound);
-		lastIntegralInformation = new IntegralInformation(lastGSolveResults.get(0), lastGSolveResults.get(lastGSolveResults.size()-1), integralResult, size, referentialLimits);
+		lastIntegralInformation = new IntegralInformation(f, lowerBoundPoint, upperBoundPoint, integralResult, size, referentialLimits);
+		highlightsConstantsVersion = constants.getVersion();
 		
 		double xIntegralRange = upperBound-lowerBound;
-		double yIntegralRange = f.getMaxValueInInterval(lowerBound, upperBound) - f.getMinValueInInterval(lowerBound, upperBound);
+		ValueRange valueRange = f.getValueRange(lowerBound, upperBound);
+		double yIntegralRange = valueRange.getMaxY() - valueRange.getMinY();
 		double maxIntegralRange = Math.max(xIntegralRange, yIntegralRange);
 		
 		double lowerBoundY = lastIntegralInformation.getLowerBoundPoint().getY();
@@ -369,8 +825,7 @@ public class GraphicsDrawer extends JComponent {
 		setReferentialLimits(lowerBound-maxIntegralRange/2, upperBound+maxIntegralRange/2, Math.min(lowerBoundY, upperBoundY)-maxIntegralRange/2, Math.max(lowerBoundY, upperBoundY)+maxIntegralRange/2);
 		doubleReferentialLimits();
 		
-		lastIntegralInformation.setVisiblePointsAndUpdateBounds(getAndUpdateVisiblePoints(lastGSolveResults));
-		setIntegralHighlightGraphic();
+		updateHighlights();
 		return GSolveIntegralWindow.INTEGRAL_SUCCESS;
 	}
 	
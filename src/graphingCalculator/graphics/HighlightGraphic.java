@@ -14,69 +14,82 @@ import graphingCalculator.utils.RoundingUtils;
 
 public class HighlightGraphic extends BufferedImage {
 	
-	private final int POINT_THICKNESS = 6;
-	private final int LABEL_DECIMAL_PLACES = 3;
+	private static final int POINT_THICKNESS = 6;
+	private static final int LABEL_DECIMAL_PLACES = 3;
 	
-	private Graphics2D g2d;
 
 	public HighlightGraphic(Dimension size, List<Point> pointHighlights) {
+		this(size, pointHighlights, null);
+	}
+	
+	// each point is drawn with the color in the same position of pointColors, or black if there are no colors
+	public HighlightGraphic(Dimension size, List<Point> pointHighlights, List<Color> pointColors) {
 		super(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
 		
-		g2d = this.createGraphics();
+		Graphics2D g2d = this.createGraphics();
 		
-		g2d.setStroke(new BasicStroke(POINT_THICKNESS));
-		g2d.setColor(Color.BLACK);
-		for(Point p : pointHighlights)
-			drawPointHighlight(p);
+		drawPointHighlights(g2d, pointHighlights, pointColors);
 	}
 	
 	public HighlightGraphic(Dimension size, IntegralInformation integralInformation) {
 		super(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
 		
-		g2d = this.createGraphics();
+		Graphics2D g2d = this.createGraphics();
 		
-		drawIntegralHighlight(integralInformation);
+		drawIntegralHighlight(g2d, integralInformation);
 	}
 	
-	private void drawPointHighlight(Point p) {
-		p.roundCoords(LABEL_DECIMAL_PLACES);
-		
+	// also used to draw the highlights straight onto other images (e.g. the bands of an exported image)
+	public static void drawPointHighlights(Graphics2D g2d, List<Point> pointHighlights, List<Color> pointColors) {
+		g2d.setStroke(new BasicStroke(POINT_THICKNESS));
+		g2d.setColor(Color.BLACK);
+		for(int i = 0; i < pointHighlights.size(); i++) {
+			if(pointColors != null)
+				g2d.setColor(pointColors.get(i));
+			drawPointHighlight(g2d, pointHighlights.get(i));
+		}
+	}
+	
+	// the point itself isn't rounded since it can be drawn by more than one thread at a time
+	private static void drawPointHighlight(Graphics2D g2d, Point p) {
 		int pointX = p.getXFrameCoord() - POINT_THICKNESS/2;
 		int pointY = p.getYFrameCoord() - POINT_THICKNESS/2;
 		g2d.drawOval(pointX, pointY, POINT_THICKNESS, POINT_THICKNESS);
 		
-		String label = "(" + p.getX() + ", " + p.getY() + ")";
+		String label = getPointLabel(p);
 		int labelX = p.getXFrameCoord() - label.length()*3 + 4;
 		int labelY = p.getYFrameCoord() - POINT_THICKNESS*2;
 		g2d.drawString(label, labelX, labelY);
 	}
 	
-	private void drawIntegralHighlight(IntegralInformation integralInformation) {
+	public static void drawIntegralHighlight(Graphics2D g2d, IntegralInformation integralInformation) {
 		g2d.setStroke(new BasicStroke(2));
 		g2d.setColor(Color.LIGHT_GRAY);
 		
-		Polygon integralPointsPol = new Polygon();
-		List<Point> pointsToDraw = integralInformation.getVisiblePoints();
-		
-		for(Point p : pointsToDraw)
-			integralPointsPol.addPoint(p.getXFrameCoord(), p.getYFrameCoord());
-		
 		Point firstDrawnPoint = integralInformation.getFirstDrawnPoint();
 		Point lastDrawnPoint = integralInformation.getLastDrawnPoint();
-		integralPointsPol.addPoint(lastDrawnPoint.getXFrameCoord(), lastDrawnPoint.getYFrameCoord());
-		integralPointsPol.addPoint(firstDrawnPoint.getXFrameCoord(), firstDrawnPoint.getYFrameCoord());
-		
-		g2d.fill(integralPointsPol);
+		if(firstDrawnPoint != null) {
+			Polygon integralPointsPol = new Polygon();
+			List<Point> pointsToDraw = integralInformation.getVisiblePoints();
+			
+			for(Point p : pointsToDraw)
+				if(p != null)
+					integralPointsPol.addPoint(p.getXFrameCoord(), p.getYFrameCoord());
+			
+			integralPointsPol.addPoint(lastDrawnPoint.getXFrameCoord(), lastDrawnPoint.getYFrameCoord());
+			integralPointsPol.addPoint(firstDrawnPoint.getXFrameCoord(), firstDrawnPoint.getYFrameCoord());
+			
+			g2d.fill(integralPointsPol);
+		}
 		
 		g2d.setStroke(new BasicStroke(POINT_THICKNESS));
 		g2d.setColor(Color.BLACK);
 		if(integralInformation.lowerBoundIsVisible())
-			drawPointHighlight(integralInformation.getLowerBoundPoint());
+			drawPointHighlight(g2d, integralInformation.getLowerBoundPoint());
 		if(integralInformation.upperBoundIsVisible())
-			drawPointHighlight(integralInformation.getUpperBoundPoint());
+			drawPointHighlight(g2d, integralInformation.getUpperBoundPoint());
 		
-		String integralResult = RoundingUtils.roundToDecimalPlacesStr(integralInformation.getResult(), LABEL_DECIMAL_PLACES);
-		if(integralResult.equals("-0")) integralResult = "0";
+		String integralResult = getIntegralLabel(integralInformation);
 		
 		g2d.setStroke(new BasicStroke(2));
 		g2d.setColor(Color.WHITE);
@@ -84,5 +97,26 @@ public class HighlightGraphic extends BufferedImage {
 		g2d.setColor(Color.BLACK);
 		g2d.drawString(integralResult , 2, 15);
 	}
+	
+	// the labels are also written by SvgExporter, so an exported highlight always says the same as the drawn one
+	
+	static String getPointLabel(Point p) {
+		return "(" + RoundingUtils.roundToDecimalPlaces(p.getX(), LABEL_DECIMAL_PLACES) + ", "
+				+ RoundingUtils.roundToDecimalPlaces(p.getY(), LABEL_DECIMAL_PLACES) + ")";
+	}
+	
+	static String getIntegralLabel(IntegralInformation integralInformation) {
+		String integralResult = RoundingUtils.roundToDecimalPlacesStr(integralInformation.getResult(), LABEL_DECIMAL_PLACES);
+		if(integralResult.equals("-0")) integralResult = "0";
+		
+		// the error is only shown when it affects the shown decimal places (e.g. the confidence interval of a sampled integral)
+		String errorEstimate = RoundingUtils.roundToDecimalPlacesStr(integralInformation.getErrorEstimate(), LABEL_DECIMAL_PLACES);
+		if(!errorEstimate.equals("0")) {
+			integralResult += " \u00B1 " + errorEstimate;
+			if(!Double.isNaN(integralInformation.getConfidenceLevel()))
+				integralResult += " (" + Math.round(integralInformation.getConfidenceLevel()*100) + "%)";
+		}
+		return integralResult;
+	}
 
 }
@@ -0,0 +1,71 @@
+package graphingCalculator.graphics;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/*
+ * Keeps every label that has already been drawn as a small pre-rendered image.
+ * Drawing a label that's already in the atlas is a single image blit instead of laying out the text again with drawString().
+ */
+public class LabelAtlas {
+	
+	// when the atlas grows past this size (e.g. after a lot of zooming) it's simply cleared and filled up again
+	private final int MAX_LABELS = 1024;
+	
+	private Font font;
+	private Color color;
+	private int ascent;
+	private HashMap<String, BufferedImage> labels;
+	
+
+	public LabelAtlas() {
+		labels = new HashMap<>();
+	}
+	
+	// draws the label with its baseline at (x, y), the same way drawString() does
+	// the atlas is shared by every ReferentialGraphic, which the plot server and the banded export draw from many threads,
+	// so only looking up and adding the labels is synchronized, they're drawn outside of the lock
+	public void drawLabel(Graphics2D g2d, String label, int x, int y) {
+		BufferedImage labelImage;
+		int labelAscent;
+		synchronized(this) {
+			if(!g2d.getFont().equals(font) || !g2d.getColor().equals(color)) {
+				font = g2d.getFont();
+				color = g2d.getColor();
+				ascent = g2d.getFontMetrics(font).getAscent();
+				labels.clear();
+			}
+			
+			labelImage = labels.get(label);
+			if(labelImage == null) {
+				if(labels.size() >= MAX_LABELS) labels.clear();
+				labelImage = renderLabel(g2d, label);
+				labels.put(label, labelImage);
+			}
+			labelAscent = ascent;
+		}
+		
+		g2d.drawImage(labelImage, x, y-labelAscent, null);
+	}
+	
+	private BufferedImage renderLabel(Graphics2D g2d, String label) {
+		FontMetrics fontMetrics = g2d.getFontMetrics(font);
+		int width = Math.max(1, fontMetrics.stringWidth(label));
+		int height = Math.max(1, fontMetrics.getAscent()+fontMetrics.getDescent());
+		
+		BufferedImage labelImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D labelG2d = labelImage.createGraphics();
+		labelG2d.setRenderingHints(g2d.getRenderingHints());
+		labelG2d.setFont(font);
+		labelG2d.setColor(color);
+		labelG2d.drawString(label, 0, ascent);
+		labelG2d.dispose();
+		
+		return labelImage;
+	}
+	
+}
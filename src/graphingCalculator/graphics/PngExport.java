@@ -0,0 +1,85 @@
+package graphingCalculator.graphics;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import functionComponents.Function;
+import functionComponents.FunctionFamily;
+import functionComponents.IntegralInformation;
+import functionComponents.Point;
+import functionComponents.ReferentialLimits;
+
+/*
+ * The workspace's layers copied for a PNG of any size (e.g. for posters), to be written by a background thread.
+ * It's created on the EDT by GraphicsDrawer.createPngExport, where nothing is sampled yet, so the workspace can keep
+ * changing while it's written. The layers are only sampled at the export's resolution when the image is written.
+ */
+public class PngExport {
+	
+	private Dimension exportSize;
+	private ReferentialLimits exportLimits;
+	private boolean transparent;
+	
+	private List<Function> functions;
+	private List<Color> functionColors;
+	private FunctionFamily family;
+	private Color familyColor;
+	
+	// the integral highlight is drawn instead of the point highlights when there is one
+	private IntegralInformation integralHighlight;
+	private List<Point> highlights;
+	private List<Color> highlightColors;
+	
+	
+	PngExport(Dimension exportSize, ReferentialLimits exportLimits, boolean transparent, List<Function> functions, List<Color> functionColors,
+			FunctionFamily family, Color familyColor, IntegralInformation integralHighlight, List<Point> highlights, List<Color> highlightColors) {
+		this.exportSize = exportSize;
+		this.exportLimits = exportLimits;
+		this.transparent = transparent;
+		this.functions = functions;
+		this.functionColors = functionColors;
+		this.family = family;
+		this.familyColor = familyColor;
+		this.integralHighlight = integralHighlight;
+		this.highlights = highlights;
+		this.highlightColors = highlightColors;
+	}
+	
+	/*
+	 * Samples the layers and writes the image, in bands (see BandedImageExporter).
+	 * returns false if the listener cancelled the export, in which case out only has part of the image
+	 */
+	public boolean write(OutputStream out, ExportListener listener) throws IOException {
+		// the points are all calculated before drawing, since the bands are drawn by several threads
+		for(Function function : functions) {
+			if(listener.isCancelled()) return false;
+			function.setExportAccuracy();
+			function.getPoints();
+		}
+		if(listener.isCancelled()) return false;
+		if(integralHighlight != null)
+			integralHighlight.updateVisiblePointsAndBounds();
+		if(family != null) {
+			if(listener.isCancelled()) return false;
+			family.getSamples();
+		}
+		
+		return new BandedImageExporter(exportSize.width, exportSize.height, transparent, g2d -> {
+			// same layers as GraphicsDrawer.drawLayers
+			ReferentialGraphic.drawReferential(g2d, exportSize.width, exportSize.height, exportLimits);
+			if(family != null)
+				FunctionFamilyGraphic.drawFamily(g2d, family, familyColor);
+			for(int i = 0; i < functions.size(); i++)
+				FunctionGraphic.drawFunction(g2d, functions.get(i).getPoints(), functionColors.get(i));
+			
+			if(integralHighlight != null)
+				HighlightGraphic.drawIntegralHighlight(g2d, integralHighlight);
+			else
+				HighlightGraphic.drawPointHighlights(g2d, highlights, highlightColors);
+		}).writePng(out, listener);
+	}
+
+}
@@ -12,39 +12,34 @@ import functionComponents.ReferentialLimits;
 
 public class ReferentialGraphic extends BufferedImage {
 	
-	private int width, height;
-	private ReferentialLimits referentialLimits;
-	
-	private Graphics2D g2d;
-	
+	// tick labels repeat a lot between redraws (panning, resizing) so they're only ever rendered once
+	private static LabelAtlas labelAtlas = new LabelAtlas();
 	
 	public ReferentialGraphic(Dimension size, ReferentialLimits referentialLimits) {
 		super(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
-		this.width = this.getWidth();
-		this.height = this.getHeight();
-		this.referentialLimits = referentialLimits;
-		g2d = this.createGraphics();
+		Graphics2D g2d = this.createGraphics();
 		
-		drawReferential();
+		drawReferential(g2d, size.width, size.height, referentialLimits);
 	}
 
-	private void drawReferential() {
+	// also used to draw the referential straight onto other images (e.g. the bands of an exported image)
+	public static void drawReferential(Graphics2D g2d, int width, int height, ReferentialLimits referentialLimits) {
 		g2d.setStroke(new BasicStroke(2));
 		g2d.setColor(Color.black);
 		
 		double[] limits = referentialLimits.getLimits();
 		Point origin = new Point((double) 0, (double) 0, width, height, limits);
 		
-		int xLineYFrameCoord = getXLineYFrameCoord(origin, limits[2], limits[3]);
-		int yLineXFrameCoord = getYLineXFrameCoord(origin, limits[0], limits[1]);
+		int xLineYFrameCoord = getXLineYFrameCoord(origin, height);
+		int yLineXFrameCoord = getYLineXFrameCoord(origin, width);
 		
 		g2d.drawLine(0, xLineYFrameCoord, width, xLineYFrameCoord);		// x line
 		g2d.drawLine(yLineXFrameCoord, 0, yLineXFrameCoord, height);	// y line
 		
-		drawReferentialMarks(xLineYFrameCoord, yLineXFrameCoord);
+		drawReferentialMarks(g2d, width, height, referentialLimits, xLineYFrameCoord, yLineXFrameCoord);
 	}
 	
-	private int getXLineYFrameCoord(Point origin, double yMin, double yMax) {
+	private static int getXLineYFrameCoord(Point origin, int height) {
 		int xLineYFrameCoord = origin.getYFrameCoord();
 		if(xLineYFrameCoord < 0)
 			return 0;
@@ -53,7 +48,7 @@ public class ReferentialGraphic extends BufferedImage {
 		return xLineYFrameCoord;
 	}
 	
-	private int getYLineXFrameCoord(Point origin, double xMin, double xMax) {
+	private static int getYLineXFrameCoord(Point origin, int width) {
 		int yLineXFrameCoord = origin.getXFrameCoord();
 		if(yLineXFrameCoord < 0)
 			return 0;
@@ -62,7 +57,7 @@ public class ReferentialGraphic extends BufferedImage {
 		return yLineXFrameCoord;
 	}
 	
-	private void drawReferentialMarks(int xLineYFrameCoord, int yLineXFrameCoord) {
+	private static void drawReferentialMarks(Graphics2D g2d, int width, int height, ReferentialLimits referentialLimits, int xLineYFrameCoord, int yLineXFrameCoord) {
 		HashMap<Point,String> xReferentialMarks = referentialLimits.getXReferentialMarks();
 		HashMap<Point,String> yReferentialMarks = referentialLimits.getYReferentialMarks();
 		
@@ -73,9 +68,9 @@ public class ReferentialGraphic extends BufferedImage {
 			
 			g2d.drawLine(xFrameCoord, xLineYFrameCoord-5, xFrameCoord, xLineYFrameCoord+5);
 			if(xLineYFrameCoord <= width/2)
-				g2d.drawString(label, xFrameCoord-label.length()*3, xLineYFrameCoord+20);
+				labelAtlas.drawLabel(g2d, label, xFrameCoord-label.length()*3, xLineYFrameCoord+20);
 			else
-				g2d.drawString(label, xFrameCoord-label.length()*3, xLineYFrameCoord-10);
+				labelAtlas.drawLabel(g2d, label, xFrameCoord-label.length()*3, xLineYFrameCoord-10);
 		}
 		
 		for(Entry<Point,String> mark : yReferentialMarks.entrySet()) {
@@ -85,9 +80,9 @@ public class ReferentialGraphic extends BufferedImage {
 			
 			g2d.drawLine(yLineXFrameCoord-5, yFrameCoord, yLineXFrameCoord+5, yFrameCoord);
 			if(yLineXFrameCoord >= height/2)
-				g2d.drawString(label, yLineXFrameCoord-10-label.length()*6, yFrameCoord+4);
+				labelAtlas.drawLabel(g2d, label, yLineXFrameCoord-10-label.length()*6, yFrameCoord+4);
 			else
-				g2d.drawString(label, yLineXFrameCoord+8+label.length(), yFrameCoord+4);
+				labelAtlas.drawLabel(g2d, label, yLineXFrameCoord+8+label.length(), yFrameCoord+4);
 		}
 	}
 	
@@ -0,0 +1,267 @@
+package graphingCalculator.graphics;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import functionComponents.IntegralInformation;
+import functionComponents.Point;
+import functionComponents.ReferentialLimits;
+import graphingCalculator.utils.DecimalFormatter;
+
+/*
+ * Writes the plot as SVG, element by element, straight to a Writer, drawing the same things in the same places
+ * as the ReferentialGraphic, the FunctionGraphics and the HighlightGraphic. Nothing is built in memory (no DOM nor raster),
+ * so exporting only depends on how many vertices are written.
+ * 
+ * The coordinates are the points' exact positions (to COORDINATE_DECIMAL_PLACES of a pixel), computed from their xs and ys,
+ * instead of the pixels they're drawn on, so the curves stay smooth when the image is scaled.
+ * The functions' polylines (and the integral's outline) are decimated per pixel column: of the consecutive points in the same column only the first, the lowest,
+ * the highest and the last are written (in their original order), which covers the same pixels as all of them at the image's own size.
+ */
+public class SvgExporter {
+	
+	private final int POINT_THICKNESS = 6;
+	private final String FONT = "font-family=\"sans-serif\" font-size=\"12\"";
+	private final int COORDINATE_DECIMAL_PLACES = 2;
+	
+	private Writer writer;
+	private Dimension size;
+	private ReferentialLimits referentialLimits;
+	private double xMin, yMin, xPixelPerCoords, yPixelPerCoords;
+	// the formatter's buffer is written straight to the writer, so no String is created per coordinate
+	private DecimalFormatter coordinateFormatter = new DecimalFormatter(COORDINATE_DECIMAL_PLACES);
+	
+	// the points of the current pixel column that will be written, in the order they came in
+	private Point[] columnPoints = new Point[4];
+	private int columnPointCount;
+	private Point columnFirst, columnLow, columnHigh, columnLast;
+	private boolean polylineStarted;
+	
+	
+	public SvgExporter(Writer writer, Dimension size, ReferentialLimits referentialLimits) {
+		this.writer = writer;
+		this.size = size;
+		this.referentialLimits = referentialLimits;
+		
+		// same transformation as Point's frame coordinates, without truncating them to the pixel
+		double[] limits = referentialLimits.getLimits();
+		xMin = limits[0];
+		yMin = limits[2];
+		xPixelPerCoords = size.width/(limits[1]-limits[0]);
+		yPixelPerCoords = size.height/(limits[3]-limits[2]);
+	}
+	
+	public void writeHeader(boolean transparent) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size.width + "\" height=\"" + size.height
+				+ "\" viewBox=\"0 0 " + size.width + " " + size.height + "\">\n");
+		if(!transparent)
+			writer.write("<rect width=\"100%\" height=\"100%\" fill=\"white\"/>\n");
+	}
+	
+	public void writeFooter() throws IOException {
+		writer.write("</svg>\n");
+		writer.flush();
+	}
+	
+	// same layout as ReferentialGraphic
+	public void writeReferential() throws IOException {
+		int width = size.width, height = size.height;
+		double xLineYFrameCoord = Math.max(0, Math.min(height, getYFrameCoord(0)));
+		double yLineXFrameCoord = Math.max(0, Math.min(width, getXFrameCoord(0)));
+		
+		writer.write("<g stroke=\"black\" stroke-width=\"2\">\n");
+		writeLine(0, xLineYFrameCoord, width, xLineYFrameCoord);
+		writeLine(yLineXFrameCoord, 0, yLineXFrameCoord, height);
+		for(Point p : referentialLimits.getXReferentialMarks().keySet())
+			writeLine(getXFrameCoord(p.getX()), xLineYFrameCoord-5, getXFrameCoord(p.getX()), xLineYFrameCoord+5);
+		for(Point p : referentialLimits.getYReferentialMarks().keySet())
+			writeLine(yLineXFrameCoord-5, getYFrameCoord(p.getY()), yLineXFrameCoord+5, getYFrameCoord(p.getY()));
+		writer.write("</g>\n");
+		
+		writer.write("<g fill=\"black\" " + FONT + ">\n");
+		HashMap<Point, String> xReferentialMarks = referentialLimits.getXReferentialMarks();
+		for(Entry<Point, String> mark : xReferentialMarks.entrySet()) {
+			String label = mark.getValue();
+			double labelX = getXFrameCoord(mark.getKey().getX())-label.length()*3;
+			writeText(label, labelX, xLineYFrameCoord <= width/2 ? xLineYFrameCoord+20 : xLineYFrameCoord-10);
+		}
+		HashMap<Point, String> yReferentialMarks = referentialLimits.getYReferentialMarks();
+		for(Entry<Point, String> mark : yReferentialMarks.entrySet()) {
+			String label = mark.getValue();
+			double labelX = yLineXFrameCoord >= height/2 ? yLineXFrameCoord-10-label.length()*6 : yLineXFrameCoord+8+label.length();
+			writeText(label, labelX, getYFrameCoord(mark.getKey().getY())+4);
+		}
+		writer.write("</g>\n");
+	}
+	
+	// the points are split into separate polylines at the null ones, like in FunctionGraphic
+	public void writeFunction(List<Point> points, Color color) throws IOException {
+		writer.write("<g fill=\"none\" stroke=\"" + toSvgColor(color) + "\" stroke-width=\"2\" stroke-linejoin=\"round\">\n");
+		for(Point p : points) {
+			if(p == null)
+				endPolyline();
+			else
+				addDecimatedPoint(p);
+		}
+		endPolyline();
+		writer.write("</g>\n");
+	}
+	
+	public void writePointHighlights(List<Point> points, List<Color> colors) throws IOException {
+		for(int i = 0; i < points.size(); i++)
+			writePointHighlight(points.get(i), colors == null ? Color.BLACK : colors.get(i));
+	}
+	
+	// same layout as HighlightGraphic's integral highlight
+	public void writeIntegralHighlight(IntegralInformation integralInformation) throws IOException {
+		Point firstDrawnPoint = integralInformation.getFirstDrawnPoint();
+		Point lastDrawnPoint = integralInformation.getLastDrawnPoint();
+		if(firstDrawnPoint != null) {
+			writer.write("<polygon fill=\"" + toSvgColor(Color.LIGHT_GRAY) + "\" points=\"");
+			polylineStarted = true;
+			for(Point p : integralInformation.getVisiblePoints())
+				if(p != null)
+					addDecimatedPoint(p);
+			flushColumn();
+			polylineStarted = false;
+			writeVertex(lastDrawnPoint);
+			writeVertex(firstDrawnPoint);
+			writer.write("\"/>\n");
+		}
+		
+		if(integralInformation.lowerBoundIsVisible())
+			writePointHighlight(integralInformation.getLowerBoundPoint(), Color.BLACK);
+		if(integralInformation.upperBoundIsVisible())
+			writePointHighlight(integralInformation.getUpperBoundPoint(), Color.BLACK);
+		
+		String integralResult = HighlightGraphic.getIntegralLabel(integralInformation);
+		
+		writer.write("<rect width=\"" + integralResult.length()*7 + "\" height=\"20\" fill=\"white\"/>\n");
+		writer.write("<g fill=\"black\" " + FONT + ">");
+		writeText(integralResult, 2, 15);
+		writer.write("</g>\n");
+	}
+	
+	private void writePointHighlight(Point p, Color color) throws IOException {
+		String svgColor = toSvgColor(color);
+		int radius = POINT_THICKNESS/2;
+		double x = getXFrameCoord(p.getX()), y = getYFrameCoord(p.getY());
+		writer.write("<circle cx=\"");
+		writeCoordinate(x);
+		writer.write("\" cy=\"");
+		writeCoordinate(y);
+		writer.write("\" r=\"" + radius + "\" fill=\"none\" stroke=\"" + svgColor + "\" stroke-width=\"" + POINT_THICKNESS + "\"/>\n");
+		
+		String label = HighlightGraphic.getPointLabel(p);
+		writer.write("<g fill=\"" + svgColor + "\" " + FONT + ">");
+		writeText(label, x - label.length()*3 + 4, y - POINT_THICKNESS*2);
+		writer.write("</g>\n");
+	}
+	
+	private void addDecimatedPoint(Point p) throws IOException {
+		if(columnFirst != null && p.getXFrameCoord() != columnFirst.getXFrameCoord())
+			flushColumn();
+		
+		if(columnFirst == null) {
+			columnFirst = columnLow = columnHigh = p;
+		}
+		else {
+			if(p.getY() < columnLow.getY()) columnLow = p;
+			if(p.getY() > columnHigh.getY()) columnHigh = p;
+		}
+		columnLast = p;
+	}
+	
+	// writes the column's first, lowest, highest and last points in their original order, without repeating vertices
+	private void flushColumn() throws IOException {
+		if(columnFirst == null) return;
+		
+		columnPointCount = 0;
+		addColumnPoint(columnFirst);
+		// the lowest and the highest can come in any order, the one that came first (by x) goes first
+		if(columnLow.getX() <= columnHigh.getX()) {
+			addColumnPoint(columnLow);
+			addColumnPoint(columnHigh);
+		}
+		else {
+			addColumnPoint(columnHigh);
+			addColumnPoint(columnLow);
+		}
+		addColumnPoint(columnLast);
+		
+		if(!polylineStarted) {
+			writer.write("<polyline points=\"");
+			polylineStarted = true;
+		}
+		for(int i = 0; i < columnPointCount; i++)
+			writeVertex(columnPoints[i]);
+		
+		columnFirst = columnLow = columnHigh = columnLast = null;
+	}
+	
+	private void addColumnPoint(Point p) {
+		// the same point can be more than one of the column's first, lowest, highest and last
+		if(columnPointCount > 0 && columnPoints[columnPointCount-1] == p) return;
+		columnPoints[columnPointCount++] = p;
+	}
+	
+	private void endPolyline() throws IOException {
+		flushColumn();
+		if(polylineStarted) {
+			writer.write("\"/>\n");
+			polylineStarted = false;
+		}
+	}
+	
+	private double getXFrameCoord(double x) {
+		return (x-xMin)*xPixelPerCoords;
+	}
+	
+	private double getYFrameCoord(double y) {
+		return size.height - (y-yMin)*yPixelPerCoords;
+	}
+	
+	private void writeCoordinate(double coordinate) throws IOException {
+		writer.write(coordinateFormatter.getBuffer(), 0, coordinateFormatter.format(coordinate));
+	}
+	
+	private void writeVertex(Point p) throws IOException {
+		writeCoordinate(getXFrameCoord(p.getX()));
+		writer.write(',');
+		writeCoordinate(getYFrameCoord(p.getY()));
+		writer.write(' ');
+	}
+	
+	private void writeLine(double x1, double y1, double x2, double y2) throws IOException {
+		writer.write("<line x1=\"");
+		writeCoordinate(x1);
+		writer.write("\" y1=\"");
+		writeCoordinate(y1);
+		writer.write("\" x2=\"");
+		writeCoordinate(x2);
+		writer.write("\" y2=\"");
+		writeCoordinate(y2);
+		writer.write("\"/>\n");
+	}
+	
+	private void writeText(String text, double x, double y) throws IOException {
+		writer.write("<text x=\"");
+		writeCoordinate(x);
+		writer.write("\" y=\"");
+		writeCoordinate(y);
+		writer.write("\">");
+		writer.write(text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+		writer.write("</text>");
+	}
+	
+	private String toSvgColor(Color color) {
+		return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
+	}
+	
+}
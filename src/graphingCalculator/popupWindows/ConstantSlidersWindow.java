@@ -0,0 +1,157 @@
+package graphingCalculator.popupWindows;
+
+import java.awt.BorderLayout;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.WindowEvent;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import functionComponents.ConstantValues;
+import graphingCalculator.graphics.GraphicsDrawer;
+import graphingCalculator.utils.RoundingUtils;
+import graphingCalculator.utils.SwingUtils;
+
+/*
+ * A slider for each of the named constants, with the functions that use them redrawn while the sliders move.
+ * 
+ * A slider sends far more changes than can be drawn, so the changes are coalesced: the sliders only keep their latest value
+ * and a single redraw is queued until it runs, which then uses whatever the values are by that time.
+ * Only the constants whose sliders were moved are set, the others keep their exact values (e.g. ones loaded from a project).
+ */
+@SuppressWarnings("serial")
+public class ConstantSlidersWindow extends PopupWindow {
+	
+	// the sliders go from MIN_VALUE to MAX_VALUE in steps of 1/SLIDER_STEPS_PER_UNIT,
+	// or further to fit a value outside of that range, up to MAX_RANGE (so the slider's steps still fit in an int)
+	private final int MIN_VALUE = -10;
+	private final int MAX_VALUE = 10;
+	private final int MAX_RANGE = 1000000;
+	private final int SLIDER_STEPS_PER_UNIT = 100;
+	
+	private JSlider[] sliders;
+	// the sliders moved since the last redraw
+	private boolean[] slidersChanged;
+	private JLabel[] valueLabels;
+	private JButton closeButton;
+	
+	private boolean redrawQueued;
+	
+	
+	public ConstantSlidersWindow(JFrame parent, String title, GraphicsDrawer graphicsDrawer) {
+		super(parent, title, graphicsDrawer);
+	}
+	
+	@Override
+	protected void addComponents(Container contentPane) {
+		ConstantValues constants = graphicsDrawer.getConstants();
+		String[] names = ConstantValues.NAMES;
+		sliders = new JSlider[names.length];
+		valueLabels = new JLabel[names.length];
+		slidersChanged = new boolean[names.length];
+		
+		JPanel slidersPane = new JPanel(new GridLayout(names.length, 1));
+		for(int i = 0; i < names.length; i++) {
+			double value = constants.getValue(names[i]);
+			int min = (int) Math.max(-MAX_RANGE, Math.min(MIN_VALUE, Math.floor(value)));
+			int max = (int) Math.min(MAX_RANGE, Math.max(MAX_VALUE, Math.ceil(value)));
+			value = Math.max(min, Math.min(max, value));
+			sliders[i] = new JSlider(min*SLIDER_STEPS_PER_UNIT, max*SLIDER_STEPS_PER_UNIT, (int) Math.round(value*SLIDER_STEPS_PER_UNIT));
+			sliders[i].setFocusable(false);
+			valueLabels[i] = new JLabel();
+			valueLabels[i].setPreferredSize(new Dimension(50, valueLabels[i].getPreferredSize().height));
+			
+			int sliderPos = i;
+			sliders[i].addChangeListener(new ChangeListener() {
+				public void stateChanged(ChangeEvent e) {
+					slidersChanged[sliderPos] = true;
+					updateValueLabels();
+					queueRedraw();
+				}
+			});
+			
+			JPanel sliderPane = new JPanel(new BorderLayout(10, 0));
+			sliderPane.add(new JLabel(names[i] + ":"), BorderLayout.WEST);
+			sliderPane.add(sliders[i], BorderLayout.CENTER);
+			sliderPane.add(valueLabels[i], BorderLayout.EAST);
+			slidersPane.add(sliderPane);
+		}
+		updateValueLabels();
+		
+		closeButton = new JButton("Close");
+		closeButton.setFocusable(false);
+		closeButton.addActionListener(this);
+		
+		JPanel buttonPane = new JPanel();
+		buttonPane.add(closeButton);
+		
+		contentPane.add(slidersPane, BorderLayout.CENTER);
+		contentPane.add(buttonPane, BorderLayout.PAGE_END);
+		((JComponent) contentPane).setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
+	}
+	
+	private double getSliderValue(int i) {
+		return (double) sliders[i].getValue()/SLIDER_STEPS_PER_UNIT;
+	}
+	
+	// a slider that wasn't moved shows the constant's value, which can be outside of its range
+	private void updateValueLabels() {
+		ConstantValues constants = graphicsDrawer.getConstants();
+		for(int i = 0; i < sliders.length; i++) {
+			double value = slidersChanged[i] ? getSliderValue(i) : constants.getValue(ConstantValues.NAMES[i]);
+			valueLabels[i].setText(RoundingUtils.roundToDecimalPlacesStr(value, 2));
+		}
+	}
+	
+	// the redraw runs after the slider events that are already waiting, so it skips all of them but the last
+	private void queueRedraw() {
+		if(redrawQueued) return;
+		redrawQueued = true;
+		SwingUtilities.invokeLater(this::redraw);
+	}
+	
+	private void redraw() {
+		redrawQueued = false;
+		
+		ConstantValues constants = graphicsDrawer.getConstants();
+		boolean adjusting = false;
+		for(int i = 0; i < sliders.length; i++) {
+			if(slidersChanged[i])
+				constants.setValue(ConstantValues.NAMES[i], getSliderValue(i));
+			slidersChanged[i] = false;
+			adjusting |= sliders[i].getValueIsAdjusting();
+		}
+		
+		graphicsDrawer.updateConstantGraphics(adjusting);
+		graphicsDrawer.repaint();
+	}
+	
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		// the functions are always left sampled normally
+		graphicsDrawer.updateConstantGraphics(false);
+		SwingUtils.updateFrameContents(parent);
+		
+		parent.setEnabled(true);
+		this.dispose();
+	}
+	
+	@Override
+	public void windowClosing(WindowEvent e) {
+		graphicsDrawer.updateConstantGraphics(false);
+		SwingUtils.updateFrameContents(parent);
+		super.windowClosing(e);
+	}
+
+}
@@ -0,0 +1,140 @@
+package graphingCalculator.popupWindows;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.event.ActionEvent;
+import java.util.EmptyStackException;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+
+import functionComponents.FunctionFamily;
+import graphingCalculator.graphics.GraphicsDrawer;
+import graphingCalculator.utils.SwingUtils;
+import net.objecthunter.exp4j.tokenizer.UnknownFunctionOrVariableException;
+
+/*
+ * Plots a family of curves f(x; a), with a swept over a range, as a single layer (replacing the previous family, if any).
+ */
+@SuppressWarnings("serial")
+public class FunctionFamilyWindow extends PopupWindow {
+	
+	private final Color FAMILY_COLOR = Color.DARK_GRAY;
+	private final int DEFAULT_CURVES = 21;
+	
+	private JTextField expressionTF, parameterMinTF, parameterMaxTF, curvesTF;
+	private JButton plotButton, removeButton;
+	
+	
+	public FunctionFamilyWindow(JFrame parent, String title, GraphicsDrawer graphicsDrawer) {
+		super(parent, title, graphicsDrawer);
+	}
+	
+	@Override
+	protected void addComponents(Container contentPane) {
+		plotButton = new JButton("Plot");
+		plotButton.setFocusable(false);
+		plotButton.addActionListener(this);
+		
+		removeButton = new JButton("Remove");
+		removeButton.setFocusable(false);
+		removeButton.addActionListener(this);
+		
+		JButton cancelButton = new JButton("Cancel");
+		cancelButton.setFocusable(false);
+		cancelButton.addActionListener(this);
+		
+		// the current family is shown so it can be changed
+		FunctionFamily family = graphicsDrawer.getFunctionFamily();
+		removeButton.setEnabled(family != null);
+		expressionTF = new JTextField(family == null ? "" : family.getExpression());
+		parameterMinTF = new JTextField(family == null ? "-5" : String.valueOf(family.getParameterMin()), 5);
+		parameterMaxTF = new JTextField(family == null ? "5" : String.valueOf(family.getParameterMax()), 5);
+		curvesTF = new JTextField(String.valueOf(family == null ? DEFAULT_CURVES : family.getCurveCount()), 5);
+		for(JTextField textField : new JTextField[] {expressionTF, parameterMinTF, parameterMaxTF, curvesTF}) {
+			textField.getInputMap().put(KeyStroke.getKeyStroke("pressed ENTER"), "enter");
+			textField.getActionMap().put("enter", new SimulateButtonPressAction(plotButton));
+		}
+		
+		JPanel inputPane = new JPanel();
+		inputPane.setLayout(new BoxLayout(inputPane, BoxLayout.PAGE_AXIS));
+		inputPane.add(new JLabel("Enter the expression, with " + FunctionFamily.PARAMETER + " as the parameter:"));
+		inputPane.add(Box.createRigidArea(new Dimension(0,10)));
+		inputPane.add(expressionTF);
+		
+		JPanel parameterPane = new JPanel();
+		parameterPane.add(new JLabel(FunctionFamily.PARAMETER + " from:"));
+		parameterPane.add(parameterMinTF);
+		parameterPane.add(new JLabel("to:"));
+		parameterPane.add(parameterMaxTF);
+		parameterPane.add(Box.createRigidArea(new Dimension(10, 0)));
+		parameterPane.add(new JLabel("Curves:"));
+		parameterPane.add(curvesTF);
+		inputPane.add(parameterPane);
+		
+		JPanel buttonPane = new JPanel();
+		buttonPane.add(plotButton);
+		buttonPane.add(Box.createRigidArea(new Dimension(10, 0)));
+		buttonPane.add(removeButton);
+		buttonPane.add(Box.createRigidArea(new Dimension(10, 0)));
+		buttonPane.add(cancelButton);
+		
+		contentPane.add(inputPane, BorderLayout.CENTER);
+		contentPane.add(buttonPane, BorderLayout.PAGE_END);
+		((JComponent) contentPane).setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
+		
+		SwingUtils.evenButtonsWidth(plotButton, cancelButton);
+		SwingUtils.evenButtonsWidth(removeButton, cancelButton);
+	}
+	
+	private void plotFamily() {
+		double parameterMin = Double.parseDouble(parameterMinTF.getText().trim());
+		double parameterMax = Double.parseDouble(parameterMaxTF.getText().trim());
+		int curves = Integer.parseInt(curvesTF.getText().trim());
+		
+		FunctionFamily family = new FunctionFamily(graphicsDrawer.getFrameSize(), graphicsDrawer.getReferentialLimits(),
+				expressionTF.getText().trim(), parameterMin, parameterMax, curves);
+		graphicsDrawer.setFunctionFamily(family, FAMILY_COLOR);
+		SwingUtils.updateFrameContents(parent);
+	}
+	
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		if(e.getSource() == plotButton) {
+			try {
+				plotFamily();
+			} catch(UnknownFunctionOrVariableException e1) {
+				SwingUtils.showErrorMessageDialog(this, "Invalid function");
+				return;
+			} catch(EmptyStackException e2) {
+				SwingUtils.showErrorMessageDialog(this, "Check the number of parentheses");
+				return;
+			} catch(NumberFormatException e3) {
+				SwingUtils.showErrorMessageDialog(this, "Invalid parameter range or number of curves");
+				return;
+			} catch(IllegalArgumentException e4) {
+				SwingUtils.showErrorMessageDialog(this, e4.getMessage());
+				return;
+			}
+		}
+		
+		if(e.getSource() == removeButton) {
+			graphicsDrawer.removeFunctionFamily();
+			SwingUtils.updateFrameContents(parent);
+		}
+		
+		parent.setEnabled(true);
+		this.dispose();
+	}
+
+}
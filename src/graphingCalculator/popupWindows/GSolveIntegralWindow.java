@@ -8,6 +8,7 @@ import java.awt.event.ActionEvent;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -29,6 +30,7 @@ public class GSolveIntegralWindow extends PopupWindow {
 	public static final int INTEGRAL_CALCULATION_ERROR = 3;
 
 	private JTextField lowerBoundTF, upperBoundTF;
+	private JCheckBox quasiMonteCarloCheckbox;
 	private JButton calculateButton;
 	
 	private GSolveStateWrapper gSolveState;
@@ -51,6 +53,10 @@ public class GSolveIntegralWindow extends PopupWindow {
 		upperBoundTF.getInputMap().put(KeyStroke.getKeyStroke("pressed ENTER"), "enter");
 		upperBoundTF.getActionMap().put("enter", new SimulateButtonPressAction(calculateButton));
 		
+		// for integrands that are highly oscillatory or discontinuous, where sampling does better than quadrature
+		quasiMonteCarloCheckbox = new JCheckBox("quasi-Monte Carlo sampling");
+		quasiMonteCarloCheckbox.setFocusable(false);
+		
 		JButton cancelButton = new JButton("Cancel");
 		cancelButton.setFocusable(false);
 		cancelButton.addActionListener(this);
@@ -63,12 +69,16 @@ public class GSolveIntegralWindow extends PopupWindow {
 		boundsInputTFPane.add(upperBoundTF);
 		boundsInputTFPane.setBorder(BorderFactory.createEmptyBorder(0,0,10,0));
 		
+		JPanel optionsPane = new JPanel();
+		optionsPane.add(quasiMonteCarloCheckbox);
+		
 		JPanel buttonPane = new JPanel();
 		buttonPane.add(calculateButton);
 		buttonPane.add(Box.createRigidArea(new Dimension(10, 0)));
 		buttonPane.add(cancelButton);
 		
 		contentPane.add(boundsInputTFPane, BorderLayout.PAGE_START);
+		contentPane.add(optionsPane, BorderLayout.CENTER);
 		contentPane.add(buttonPane, BorderLayout.PAGE_END);
 		((JComponent) contentPane).setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
 		
@@ -76,7 +86,7 @@ public class GSolveIntegralWindow extends PopupWindow {
 	}
 	
 	private void executeGSolve(double lowerBound, double upperBound) {
-		switch(graphicsDrawer.gSolveIntegral(lowerBound, upperBound)) {
+		switch(graphicsDrawer.gSolveIntegral(lowerBound, upperBound, quasiMonteCarloCheckbox.isSelected())) {
 		case(INTEGRAL_LOWER_BOUND_ERROR): 
 			SwingUtils.showErrorMessageDialog(this, "Invalid lower bound");
 			gSolveState.state = GSolveState.NONE;
@@ -15,6 +15,7 @@ import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
 
+import graphingCalculator.GraphingCalculatorFrame;
 import graphingCalculator.gSolveState.GSolveState;
 import graphingCalculator.gSolveState.GSolveStateWrapper;
 import graphingCalculator.graphics.GraphicsDrawer;
@@ -83,10 +84,7 @@ public class GSolveXYValueWindow extends PopupWindow {
 			}
 			break;
 		case X_VALUE: 
-			if(!graphicsDrawer.gSolveXValue(var)) {
-				gSolveState.state = GSolveState.NONE;
-				SwingUtils.showErrorMessageDialog(this, "No solutions found");
-			}
+			((GraphingCalculatorFrame) parent).startGSolve(GSolveState.X_VALUE, graphicsDrawer.gSolveXValue(var), "No solutions found");
 			break;
 		default: break;
 		}
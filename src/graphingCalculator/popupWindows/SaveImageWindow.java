@@ -4,10 +4,20 @@ import java.awt.BorderLayout;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.imageio.ImageIO;
 import javax.swing.AbstractButton;
@@ -18,12 +28,17 @@ import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import graphingCalculator.graphics.ExportListener;
 import graphingCalculator.graphics.GraphicsDrawer;
+import graphingCalculator.graphics.PngExport;
 import graphingCalculator.saver.ImageFileFilter;
 import graphingCalculator.utils.SwingUtils;
 
@@ -32,13 +47,15 @@ public class SaveImageWindow extends PopupWindow {
 	
 	private ButtonGroup buttonGroup;
 	private JCheckBox transparentCheckbox;
-	private JButton saveButton;
+	private JTextField widthTF, heightTF;
+	private JButton saveButton, cancelButton;
+	private PngExportWorker exportWorker;
+	
 	
-
 	public SaveImageWindow(JFrame parent, String title, GraphicsDrawer graphicsDrawer) {
 		super(parent, title, graphicsDrawer);
 	}
-
+	
 	@Override
 	protected void addComponents(Container contentPane) {
 		JRadioButton jpgButton = new JRadioButton("jpg");
@@ -46,10 +63,26 @@ public class SaveImageWindow extends PopupWindow {
 		jpgButton.setSelected(true);
 		JRadioButton pngButton = new JRadioButton("png");	// keep this order when adding new formats (jpg -> png)
 		pngButton.setFocusable(false);
+		JRadioButton svgButton = new JRadioButton("svg");
+		svgButton.setFocusable(false);
 		
 		buttonGroup = new ButtonGroup();
 		buttonGroup.add(jpgButton);
 		buttonGroup.add(pngButton);
+		buttonGroup.add(svgButton);
+		
+		// png images can be saved at any size, they're drawn and written in bands instead of as a single image
+		Dimension frameSize = graphicsDrawer.getFrameSize();
+		widthTF = new JTextField(String.valueOf(frameSize.width), 5);
+		heightTF = new JTextField(String.valueOf(frameSize.height), 5);
+		widthTF.setEnabled(false);
+		heightTF.setEnabled(false);
+		pngButton.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+				widthTF.setEnabled(pngButton.isSelected());
+				heightTF.setEnabled(pngButton.isSelected());
+			}
+		});
 		
 		transparentCheckbox = new JCheckBox("transparent background");
 		transparentCheckbox.setFocusable(false);
@@ -79,7 +112,7 @@ public class SaveImageWindow extends PopupWindow {
 		saveButton.setFocusable(false);
 		saveButton.addActionListener(this);
 		
-		JButton cancelButton = new JButton("Cancel");
+		cancelButton = new JButton("Cancel");
 		cancelButton.setFocusable(false);
 		cancelButton.addActionListener(this);
 		
@@ -87,10 +120,19 @@ public class SaveImageWindow extends PopupWindow {
 		fileTypePane.setLayout(new BoxLayout(fileTypePane, BoxLayout.PAGE_AXIS));
 		fileTypePane.add(jpgButton);
 		fileTypePane.add(pngButton);
+		fileTypePane.add(svgButton);
 		fileTypePane.setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
 		
+		JPanel sizePane = new JPanel();
+		sizePane.add(new JLabel("Size:"));
+		sizePane.add(widthTF);
+		sizePane.add(new JLabel("x"));
+		sizePane.add(heightTF);
+		
 		JPanel optionsPane = new JPanel();
+		optionsPane.setLayout(new BoxLayout(optionsPane, BoxLayout.PAGE_AXIS));
 		optionsPane.add(transparentCheckbox);
+		optionsPane.add(sizePane);
 		optionsPane.setBorder(BorderFactory.createEmptyBorder(0,10,10,10));
 		
 		JPanel buttonPane = new JPanel();
@@ -106,10 +148,34 @@ public class SaveImageWindow extends PopupWindow {
 		SwingUtils.evenButtonsWidth(saveButton, cancelButton);
 	}
 	
+	// returns whether the window can be closed
 	private boolean saveImage(boolean transparent, String format) throws IOException {
+		Dimension exportSize = null;
+		if(format.equals("png")) {
+			exportSize = new Dimension(Integer.parseInt(widthTF.getText().trim()), Integer.parseInt(heightTF.getText().trim()));
+			if(exportSize.width <= 0 || exportSize.height <= 0)
+				throw new NumberFormatException();
+		}
+		
 		String filePath = SwingUtils.showSaveFileDialog(this, format, new ImageFileFilter("."+format));
 		if(filePath == null) return false;
 		
+		// a big png can take a while, so it's written in the background and the window is only closed once it's done
+		if(format.equals("png")) {
+			exportWorker = new PngExportWorker(graphicsDrawer.createPngExport(exportSize, transparent), Paths.get(filePath));
+			saveButton.setEnabled(false);
+			exportWorker.execute();
+			return false;
+		}
+		
+		// the svg is streamed straight to the file instead of being rendered first
+		if(format.equals("svg")) {
+			try(Writer writer = Files.newBufferedWriter(Paths.get(filePath), StandardCharsets.UTF_8)) {
+				graphicsDrawer.writeSvg(writer, transparent);
+			}
+			return true;
+		}
+		
 		//if(format.equals("jpg")) format = "jpeg";		// to test if this line matters
 		BufferedImage saveImg = graphicsDrawer.getBufferedImage(transparent);
 		ImageIO.write(saveImg, format, new File(filePath));
@@ -118,15 +184,35 @@ public class SaveImageWindow extends PopupWindow {
 	
 	@Override
 	public void actionPerformed(ActionEvent e) {
+		// while a png is being written the save button is disabled, only cancel can be pressed
+		if(e.getSource() == cancelButton && exportWorker != null)
+			exportWorker.cancel(false);
+		
 		if(e.getSource() == saveButton) {
 			try {
 				if(!saveImage(transparentCheckbox.isSelected(), getSelectedButtonText(buttonGroup)))
 					return;
+			} catch (NumberFormatException e2) {
+				SwingUtils.showErrorMessageDialog(this, "Invalid image size.");
+				return;
 			} catch (IOException e1) {
 				SwingUtils.showErrorMessageDialog(this, "There was a problem saving the image.");
 			}
 		}
 		
+		closeWindow();
+	}
+	
+	@Override
+	public void windowClosing(WindowEvent e) {
+		if(exportWorker != null)
+			exportWorker.cancel(false);
+		exportWorker = null;
+		super.windowClosing(e);
+	}
+	
+	private void closeWindow() {
+		exportWorker = null;
 		parent.setEnabled(true);
 		this.dispose();
 	}
@@ -140,4 +226,68 @@ public class SaveImageWindow extends PopupWindow {
 
         return null;
     }
+	
+	/*
+	 * Writes a png export in the background, showing its progress in the window's title.
+	 * Cancelling it (cancel(false)) makes the export stop before its next band, and the partially written file is deleted.
+	 */
+	private class PngExportWorker extends SwingWorker<Boolean, Double> implements ExportListener {
+		
+		private PngExport export;
+		private Path filePath;
+		private String windowTitle;
+		
+		
+		public PngExportWorker(PngExport export, Path filePath) {
+			this.export = export;
+			this.filePath = filePath;
+			windowTitle = getTitle();
+		}
+		
+		@Override
+		protected Boolean doInBackground() throws IOException {
+			boolean written;
+			try {
+				try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(filePath))) {
+					written = export.write(out, this);
+				}
+			} catch(IOException e) {
+				Files.deleteIfExists(filePath);
+				throw e;
+			}
+			
+			if(!written)
+				Files.deleteIfExists(filePath);
+			return written;
+		}
+		
+		@Override
+		public void progressUpdated(double fractionWritten) {
+			publish(fractionWritten);
+		}
+		
+		// only the latest progress matters
+		@Override
+		protected void process(List<Double> progressUpdates) {
+			if(isCancelled()) return;
+			
+			int percentage = (int) (progressUpdates.get(progressUpdates.size()-1)*100);
+			setTitle(windowTitle + " - " + percentage + "% written (Cancel to stop)");
+		}
+		
+		// a cancelled export's window was already closed by whoever cancelled it
+		@Override
+		protected void done() {
+			setTitle(windowTitle);
+			if(isCancelled() || exportWorker != this) return;
+			
+			try {
+				get();
+			} catch(InterruptedException | ExecutionException e) {
+				SwingUtils.showErrorMessageDialog(SaveImageWindow.this, "There was a problem saving the image.");
+			}
+			closeWindow();
+		}
+		
+	}
 }
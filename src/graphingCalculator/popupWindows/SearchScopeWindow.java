@@ -0,0 +1,159 @@
+package graphingCalculator.popupWindows;
+
+import java.awt.BorderLayout;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.ButtonGroup;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JRadioButton;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+
+import functionComponents.SearchScope;
+import graphingCalculator.graphics.GraphicsDrawer;
+import graphingCalculator.utils.RoundingUtils;
+import graphingCalculator.utils.SwingUtils;
+
+@SuppressWarnings("serial")
+public class SearchScopeWindow extends PopupWindow {
+	
+	private final int LIMITS_DECIMAL_PLACES = 3;
+	
+	private JRadioButton autoButton, visibleRangeButton, customIntervalButton;
+	private JTextField minTF, maxTF;
+	private JButton changeButton;
+
+	public SearchScopeWindow(JFrame parent, String title, GraphicsDrawer graphicsDrawer) {
+		super(parent, title, graphicsDrawer);
+	}
+
+	@Override
+	protected void addComponents(Container contentPane) {
+		SearchScope searchScope = graphicsDrawer.getSearchScope();
+		
+		changeButton = new JButton("Change");
+		changeButton.setFocusable(false);
+		changeButton.addActionListener(this);
+		
+		JButton cancelButton = new JButton("Cancel");
+		cancelButton.setFocusable(false);
+		cancelButton.addActionListener(this);
+		
+		autoButton = new JRadioButton("Auto (around the visible range)");
+		visibleRangeButton = new JRadioButton("Visible range");
+		customIntervalButton = new JRadioButton("Custom interval:");
+		autoButton.addActionListener(this);
+		visibleRangeButton.addActionListener(this);
+		customIntervalButton.addActionListener(this);
+		
+		ButtonGroup modeGroup = new ButtonGroup();
+		modeGroup.add(autoButton);
+		modeGroup.add(visibleRangeButton);
+		modeGroup.add(customIntervalButton);
+		
+		if(searchScope.getMode() == SearchScope.Mode.AUTO) autoButton.setSelected(true);
+		if(searchScope.getMode() == SearchScope.Mode.VISIBLE_RANGE) visibleRangeButton.setSelected(true);
+		if(searchScope.getMode() == SearchScope.Mode.CUSTOM_INTERVAL) customIntervalButton.setSelected(true);
+		
+		// the custom interval starts as the visible range if it was never set
+		double customMin = searchScope.getCustomMin(), customMax = searchScope.getCustomMax();
+		if(customMin >= customMax) {
+			customMin = graphicsDrawer.getReferentialLimits().getXMin();
+			customMax = graphicsDrawer.getReferentialLimits().getXMax();
+		}
+		
+		minTF = new JTextField(5);
+		maxTF = new JTextField(5);
+		minTF.setText(RoundingUtils.roundToDecimalPlacesStr(customMin, LIMITS_DECIMAL_PLACES));
+		maxTF.setText(RoundingUtils.roundToDecimalPlacesStr(customMax, LIMITS_DECIMAL_PLACES));
+		for(JTextField textField : new JTextField[] {minTF, maxTF}) {
+			textField.getInputMap().put(KeyStroke.getKeyStroke("pressed ENTER"), "enter");
+			textField.getActionMap().put("enter", new SimulateButtonPressAction(changeButton));
+		}
+		updateTextFields();
+		
+		JPanel modePane = new JPanel(new GridLayout(0, 1));
+		modePane.add(autoButton);
+		modePane.add(visibleRangeButton);
+		modePane.add(customIntervalButton);
+		modePane.setBorder(BorderFactory.createEmptyBorder(10,10,0,10));
+		
+		JPanel intervalPane = new JPanel();
+		intervalPane.add(new JLabel("min X:"));
+		intervalPane.add(minTF);
+		intervalPane.add(Box.createRigidArea(new Dimension(10, 0)));
+		intervalPane.add(new JLabel("max X:"));
+		intervalPane.add(maxTF);
+		intervalPane.setBorder(BorderFactory.createEmptyBorder(0,10,10,10));
+		
+		JPanel buttonPane = new JPanel();
+		buttonPane.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+		buttonPane.add(changeButton);
+		buttonPane.add(Box.createRigidArea(new Dimension(10, 0)));
+		buttonPane.add(cancelButton);
+		
+		contentPane.add(modePane, BorderLayout.PAGE_START);
+		contentPane.add(intervalPane, BorderLayout.CENTER);
+		contentPane.add(buttonPane, BorderLayout.PAGE_END);
+		
+		SwingUtils.evenButtonsWidth(changeButton, cancelButton);
+	}
+	
+	private void updateTextFields() {
+		minTF.setEnabled(customIntervalButton.isSelected());
+		maxTF.setEnabled(customIntervalButton.isSelected());
+	}
+	
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		if(e.getSource() instanceof JRadioButton) {
+			updateTextFields();
+			return;
+		}
+		
+		if(e.getSource() == changeButton) {
+			SearchScope searchScope = graphicsDrawer.getSearchScope();
+			
+			if(customIntervalButton.isSelected()) {
+				double min, max;
+				try {
+					min = Double.parseDouble(minTF.getText());
+					max = Double.parseDouble(maxTF.getText());
+				} catch (NumberFormatException ignore) {
+					SwingUtils.showErrorMessageDialog(this, "Invalid Values.");
+					return;
+				}
+				
+				// parseDouble also accepts "NaN" and "Infinity"
+				if(!Double.isFinite(min) || !Double.isFinite(max)) {
+					SwingUtils.showErrorMessageDialog(this, "Invalid Values.");
+					return;
+				}
+				
+				if(min >= max) {
+					SwingUtils.showErrorMessageDialog(this, "max X must be greater than min X.");
+					return;
+				}
+				
+				searchScope.setCustomInterval(min, max);
+				searchScope.setMode(SearchScope.Mode.CUSTOM_INTERVAL);
+			}
+			else if(visibleRangeButton.isSelected())
+				searchScope.setMode(SearchScope.Mode.VISIBLE_RANGE);
+			else
+				searchScope.setMode(SearchScope.Mode.AUTO);
+		}
+		
+		parent.setEnabled(true);
+		this.dispose();
+	}
+
+}
@@ -13,7 +13,7 @@ public class GraphingCalculatorProjectFileFilter extends FileFilter {
 
 	    String extension = getExtension(f);
 	    if (extension == null) return false;
-	    return extension.equals("gpp");
+	    return extension.equals(ProjectFileFormat.BINARY_EXTENSION) || extension.equals(ProjectFileFormat.TEXT_EXTENSION);
 	}
 	
 	public static String getExtension(File f) {
@@ -29,7 +29,7 @@ public class GraphingCalculatorProjectFileFilter extends FileFilter {
 
 	@Override
 	public String getDescription() {
-		return "Graph Plotter Project Files (.gpp)";
+		return "Graph Plotter Project Files (.gpp, .gpt)";
 	}
 
 }
@@ -1,35 +1,152 @@
 package graphingCalculator.saver;
 
 import java.awt.Color;
-import java.io.Serializable;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 
-import functionComponents.ReferentialLimits;
+import functionComponents.ConstantValues;
+import functionComponents.FunctionFamily;
+import functionComponents.SearchScope;
 import graphingCalculator.graphics.GraphicsDrawer;
 
-public class GraphingCalculatorProjectSave implements Serializable {
-	
-	private static final long serialVersionUID = 1L;
-	
-	private ReferentialLimits referentialLimits;
-	private HashMap<Color, String> functions;
-	
-	
+/*
+ * What a project file keeps: the view's limits (not the whole ReferentialLimits, its marks depend on the window),
+ * the functions in the order they're drawn, the search scope, the constants' values and the parameter family.
+ * It's written and read by ProjectFileFormat.
+ */
+public class GraphingCalculatorProjectSave {
+
+	// the frame's default view, for a project file without one
+	private static final double[] DEFAULT_LIMITS = {-10, 10, -10, 10};
+
+	private double[] limits;
+
+	// in the order they're drawn, functions can share a color
+	private ArrayList<String> functionExpressions;
+	private ArrayList<Color> functionColors;
+
+	private SearchScope.Mode searchScopeMode;
+	private double customMin, customMax;
+
+	private LinkedHashMap<String, Double> constants;
+
+	// the family's expression is null when there's no family
+	private String familyExpression;
+	private double familyParameterMin, familyParameterMax;
+	private int familyCurveCount;
+	private Color familyColor;
+
+
+	// an empty project, which ProjectFileFormat fills while reading a file
+	public GraphingCalculatorProjectSave() {
+		limits = DEFAULT_LIMITS.clone();
+		functionExpressions = new ArrayList<>();
+		functionColors = new ArrayList<>();
+		searchScopeMode = SearchScope.Mode.AUTO;
+		constants = new LinkedHashMap<>();
+	}
+
 	public GraphingCalculatorProjectSave(GraphicsDrawer graphicsDrawer) {
-		referentialLimits = graphicsDrawer.getReferentialLimits();
-		
+		this();
+		limits = graphicsDrawer.getReferentialLimits().getLimits();
+
 		int functionCount = graphicsDrawer.getFunctionCount();
-		functions = new HashMap<>(functionCount);
 		for(int i = 0; i < functionCount; i++)
-			functions.put(graphicsDrawer.getFunctionColor(i), graphicsDrawer.getFunctionExpression(i));
+			addFunction(graphicsDrawer.getFunctionExpression(i), graphicsDrawer.getFunctionColor(i));
+
+		SearchScope searchScope = graphicsDrawer.getSearchScope();
+		setSearchScope(searchScope.getMode(), searchScope.getCustomMin(), searchScope.getCustomMax());
+
+		for(String name : ConstantValues.NAMES)
+			constants.put(name, graphicsDrawer.getConstants().getValue(name));
+
+		FunctionFamily family = graphicsDrawer.getFunctionFamily();
+		if(family != null)
+			setFamily(family.getExpression(), family.getParameterMin(), family.getParameterMax(), family.getCurveCount(), graphicsDrawer.getFunctionFamilyColor());
+	}
+
+	public double[] getLimits() {
+		return limits;
 	}
-	
-	public ReferentialLimits getReferentiaLimits() {
-		return referentialLimits;
+
+	public void setLimits(double xMin, double xMax, double yMin, double yMax) {
+		limits = new double[] {xMin, xMax, yMin, yMax};
 	}
-	
-	public HashMap<Color, String> getFunctions() {
-		return functions;
+
+	public int getFunctionCount() {
+		return functionExpressions.size();
+	}
+
+	public String getFunctionExpression(int pos) {
+		return functionExpressions.get(pos);
+	}
+
+	public Color getFunctionColor(int pos) {
+		return functionColors.get(pos);
+	}
+
+	public void addFunction(String expression, Color color) {
+		functionExpressions.add(expression);
+		functionColors.add(color);
+	}
+
+	public SearchScope.Mode getSearchScopeMode() {
+		return searchScopeMode;
 	}
-	
+
+	public double getCustomMin() {
+		return customMin;
+	}
+
+	public double getCustomMax() {
+		return customMax;
+	}
+
+	public void setSearchScope(SearchScope.Mode mode, double customMin, double customMax) {
+		searchScopeMode = mode;
+		this.customMin = customMin;
+		this.customMax = customMax;
+	}
+
+	// only the constants that were saved, by name
+	public LinkedHashMap<String, Double> getConstants() {
+		return constants;
+	}
+
+	public void setConstant(String name, double value) {
+		constants.put(name, value);
+	}
+
+	public boolean hasFamily() {
+		return familyExpression != null;
+	}
+
+	public String getFamilyExpression() {
+		return familyExpression;
+	}
+
+	public double getFamilyParameterMin() {
+		return familyParameterMin;
+	}
+
+	public double getFamilyParameterMax() {
+		return familyParameterMax;
+	}
+
+	public int getFamilyCurveCount() {
+		return familyCurveCount;
+	}
+
+	public Color getFamilyColor() {
+		return familyColor;
+	}
+
+	public void setFamily(String expression, double parameterMin, double parameterMax, int curveCount, Color color) {
+		familyExpression = expression;
+		familyParameterMin = parameterMin;
+		familyParameterMax = parameterMax;
+		familyCurveCount = curveCount;
+		familyColor = color;
+	}
+
 }
@@ -0,0 +1,88 @@
+package graphingCalculator.saver;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+import functionComponents.Point;
+import functionComponents.ReferentialLimits;
+
+/*
+ * Reads the projects saved by the older versions, which wrote their GraphingCalculatorProjectSave with Java serialization,
+ * and converts them to the current GraphingCalculatorProjectSave (which has the same name but isn't Serializable anymore).
+ *
+ * The old class is read as LegacyProjectSave, which has the same fields and serialVersionUID.
+ * Only the classes that old projects are made of can be read, so a crafted file can't make any other class be deserialized.
+ */
+class LegacyProjectReader {
+	
+	private static final String SAVE_CLASS_NAME = "graphingCalculator.saver.GraphingCalculatorProjectSave";
+	
+	private static final HashSet<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+			LegacyProjectSave.class.getName(), ReferentialLimits.class.getName(), Point.class.getName(),
+			HashMap.class.getName(), Color.class.getName(), float[].class.getName()));
+	
+	
+	public static GraphingCalculatorProjectSave read(byte[] contents) throws IOException {
+		LegacyProjectSave legacySave;
+		// a broken stream can fail in many ways while it's deserialized (not only with IOExceptions), they all mean the same to the user
+		try(LegacyObjectInputStream in = new LegacyObjectInputStream(new ByteArrayInputStream(contents))) {
+			legacySave = (LegacyProjectSave) in.readObject();
+		} catch(IOException | ClassNotFoundException | RuntimeException e) {
+			throw new IOException("The project file is corrupted.", e);
+		}
+		
+		if(legacySave.referentialLimits == null || legacySave.functions == null)
+			throw new IOException("The project file is corrupted.");
+		
+		ReferentialLimits limits = legacySave.referentialLimits;
+		GraphingCalculatorProjectSave save = new GraphingCalculatorProjectSave();
+		save.setLimits(limits.getXMin(), limits.getXMax(), limits.getYMin(), limits.getYMax());
+		// the old versions kept a function per color, in no particular order, and nothing else
+		for(Entry<Color, String> function : legacySave.functions.entrySet())
+			save.addFunction(function.getValue(), function.getKey());
+		return save;
+	}
+	
+	// the old GraphingCalculatorProjectSave, only its fields are needed
+	private static class LegacyProjectSave implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private ReferentialLimits referentialLimits;
+		private HashMap<Color, String> functions;
+	}
+	
+	private static class LegacyObjectInputStream extends ObjectInputStream {
+		
+		public LegacyObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+		
+		// the old class's descriptor is swapped for LegacyProjectSave's, their fields are the same
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			ObjectStreamClass descriptor = super.readClassDescriptor();
+			if(descriptor.getName().equals(SAVE_CLASS_NAME))
+				return ObjectStreamClass.lookup(LegacyProjectSave.class);
+			return descriptor;
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+			if(!ALLOWED_CLASSES.contains(descriptor.getName()))
+				throw new InvalidClassException(descriptor.getName(), "Not part of a project file.");
+			return super.resolveClass(descriptor);
+		}
+	}
+
+}
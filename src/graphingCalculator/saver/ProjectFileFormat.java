@@ -0,0 +1,347 @@
+package graphingCalculator.saver;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import functionComponents.SearchScope;
+import graphingCalculator.utils.ChannelTextWriter;
+
+/*
+ * Reads and writes the project files, in a compact binary format (.gpp) or in a text format that can be read and edited by hand (.gpt).
+ * Both are read and written in one go through a FileChannel.
+ *
+ * Binary: the MAGIC bytes, the version (a short) and then the sections, each one as a 4 letter tag, its length (an int) and its contents:
+ * - VIEW: xMin, xMax, yMin, yMax (doubles)
+ * - FUNC: the number of functions (int) and then each function's ARGB color (int) and expression, in the order they're drawn
+ * - SCOP: the search scope's mode, its custom interval's min and max (doubles)
+ * - CNST: the number of constants (int) and then each constant's name and value (double)
+ * - FAML: the parameter family's ARGB color (int), parameter min and max (doubles), number of curves (int) and expression
+ * Strings are their length in bytes (int) followed by their UTF-8 bytes.
+ *
+ * Text: a header line with the version and then a line per item, starting with its keyword (view, function, scope, constant or family)
+ * followed by the same values as the binary sections, with the colors as #rrggbb and the expressions last (they can have spaces).
+ *
+ * Older versions skip the sections (or lines) they don't know and the values at the end of a section they don't know about,
+ * so later versions can add to a project without breaking the files for the older ones. A search scope mode they don't know is read as AUTO,
+ * and a project without a view gets the default one.
+ *
+ * The files written with Java serialization by the versions before these formats are read by LegacyProjectReader.
+ */
+public class ProjectFileFormat {
+	
+	public static final String BINARY_EXTENSION = "gpp";
+	public static final String TEXT_EXTENSION = "gpt";
+	
+	private static final byte[] MAGIC = {'G', 'P', 'P', 'B'};
+	private static final String TEXT_HEADER = "graph-plotter-project";
+	private static final short VERSION = 1;
+	
+	// the first bytes of a file written with Java serialization, which the older versions used
+	private static final byte[] SERIALIZATION_MAGIC = {(byte) 0xAC, (byte) 0xED};
+	
+	private static final String VIEW = "VIEW", FUNCTIONS = "FUNC", SEARCH_SCOPE = "SCOP", CONSTANTS = "CNST", FAMILY = "FAML";
+	
+	private static final int INITIAL_BUFFER_SIZE = 1 << 12;
+	
+	
+	// the format is chosen by the file's extension, it's binary unless it's TEXT_EXTENSION
+	public static void write(GraphingCalculatorProjectSave save, Path path) throws IOException {
+		if(path.getFileName().toString().toLowerCase().endsWith("." + TEXT_EXTENSION))
+			writeText(save, path);
+		else
+			writeBinary(save, path);
+	}
+	
+	// the format is told by the file's first bytes, not by its extension
+	public static GraphingCalculatorProjectSave read(Path path) throws IOException {
+		ByteBuffer contents;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException("The project file is too big.");
+			contents = ByteBuffer.allocate((int) channel.size());
+			while(contents.hasRemaining() && channel.read(contents) >= 0);
+			contents.flip();
+		}
+		
+		try {
+			if(startsWith(contents, MAGIC))
+				return readBinary(contents);
+			if(startsWith(contents, SERIALIZATION_MAGIC))
+				return LegacyProjectReader.read(Arrays.copyOf(contents.array(), contents.limit()));
+			return readText(new String(contents.array(), 0, contents.limit(), StandardCharsets.UTF_8));
+		} catch(BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("The project file is corrupted.", e);
+		}
+	}
+	
+	private static boolean startsWith(ByteBuffer contents, byte[] prefix) {
+		if(contents.remaining() < prefix.length) return false;
+		for(int i = 0; i < prefix.length; i++)
+			if(contents.get(contents.position()+i) != prefix[i])
+				return false;
+		return true;
+	}
+	
+	
+	// Binary format
+	
+	private static void writeBinary(GraphingCalculatorProjectSave save, Path path) throws IOException {
+		SectionBuffer buffer = new SectionBuffer();
+		buffer.ensureRemaining(MAGIC.length + 2);
+		buffer.bytes.put(MAGIC).putShort(VERSION);
+		
+		buffer.startSection(VIEW);
+		for(double limit : save.getLimits())
+			buffer.putDouble(limit);
+		buffer.endSection();
+		
+		buffer.startSection(FUNCTIONS);
+		buffer.putInt(save.getFunctionCount());
+		for(int i = 0; i < save.getFunctionCount(); i++) {
+			buffer.putInt(save.getFunctionColor(i).getRGB());
+			buffer.putString(save.getFunctionExpression(i));
+		}
+		buffer.endSection();
+		
+		buffer.startSection(SEARCH_SCOPE);
+		buffer.putString(save.getSearchScopeMode().name());
+		buffer.putDouble(save.getCustomMin());
+		buffer.putDouble(save.getCustomMax());
+		buffer.endSection();
+		
+		buffer.startSection(CONSTANTS);
+		buffer.putInt(save.getConstants().size());
+		for(Entry<String, Double> constant : save.getConstants().entrySet()) {
+			buffer.putString(constant.getKey());
+			buffer.putDouble(constant.getValue());
+		}
+		buffer.endSection();
+		
+		if(save.hasFamily()) {
+			buffer.startSection(FAMILY);
+			buffer.putInt(save.getFamilyColor().getRGB());
+			buffer.putDouble(save.getFamilyParameterMin());
+			buffer.putDouble(save.getFamilyParameterMax());
+			buffer.putInt(save.getFamilyCurveCount());
+			buffer.putString(save.getFamilyExpression());
+			buffer.endSection();
+		}
+		
+		ByteBuffer bytes = buffer.bytes;
+		bytes.flip();
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while(bytes.hasRemaining())
+				channel.write(bytes);
+		}
+	}
+	
+	private static GraphingCalculatorProjectSave readBinary(ByteBuffer contents) {
+		contents.position(contents.position() + MAGIC.length);
+		contents.getShort();	// every version so far can be read the same way
+		
+		GraphingCalculatorProjectSave save = new GraphingCalculatorProjectSave();
+		while(contents.remaining() > 0) {
+			String tag = new String(getBytes(contents, 4), StandardCharsets.US_ASCII);
+			int length = contents.getInt();
+			if(length < 0 || length > contents.remaining())
+				throw new IllegalArgumentException("Invalid section length.");
+			
+			// the section is read from its own view, so whatever a newer version added at its end is skipped
+			ByteBuffer section = contents.slice();
+			section.limit(length);
+			contents.position(contents.position() + length);
+			
+			switch(tag) {
+			case VIEW:
+				save.setLimits(section.getDouble(), section.getDouble(), section.getDouble(), section.getDouble());
+				break;
+			case FUNCTIONS:
+				int functionCount = section.getInt();
+				for(int i = 0; i < functionCount; i++) {
+					Color color = new Color(section.getInt(), true);
+					save.addFunction(getString(section), color);
+				}
+				break;
+			case SEARCH_SCOPE:
+				save.setSearchScope(parseSearchScopeMode(getString(section)), section.getDouble(), section.getDouble());
+				break;
+			case CONSTANTS:
+				int constantCount = section.getInt();
+				for(int i = 0; i < constantCount; i++)
+					save.setConstant(getString(section), section.getDouble());
+				break;
+			case FAMILY:
+				Color color = new Color(section.getInt(), true);
+				double parameterMin = section.getDouble(), parameterMax = section.getDouble();
+				int curveCount = section.getInt();
+				save.setFamily(getString(section), parameterMin, parameterMax, curveCount, color);
+				break;
+			}
+		}
+		return save;
+	}
+	
+	private static byte[] getBytes(ByteBuffer buffer, int length) {
+		if(length < 0 || length > buffer.remaining())
+			throw new BufferUnderflowException();
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+	
+	private static String getString(ByteBuffer buffer) {
+		return new String(getBytes(buffer, buffer.getInt()), StandardCharsets.UTF_8);
+	}
+	
+	// a heap buffer that grows as needed and fills in each section's length once the section is done
+	private static class SectionBuffer {
+		
+		private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		private int sectionLengthPos;
+		
+		private void ensureRemaining(int needed) {
+			if(bytes.remaining() >= needed) return;
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(bytes.capacity()*2, bytes.position() + needed));
+			bytes.flip();
+			grown.put(bytes);
+			bytes = grown;
+		}
+		
+		private void startSection(String tag) {
+			ensureRemaining(8);
+			bytes.put(tag.getBytes(StandardCharsets.US_ASCII));
+			sectionLengthPos = bytes.position();
+			bytes.putInt(0);
+		}
+		
+		private void endSection() {
+			bytes.putInt(sectionLengthPos, bytes.position() - sectionLengthPos - 4);
+		}
+		
+		private void putInt(int value) {
+			ensureRemaining(4);
+			bytes.putInt(value);
+		}
+		
+		private void putDouble(double value) {
+			ensureRemaining(8);
+			bytes.putDouble(value);
+		}
+		
+		private void putString(String value) {
+			byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+			ensureRemaining(4 + valueBytes.length);
+			bytes.putInt(valueBytes.length);
+			bytes.put(valueBytes);
+		}
+	}
+	
+	
+	// Text format
+	
+	private static void writeText(GraphingCalculatorProjectSave save, Path path) throws IOException {
+		StringBuilder text = new StringBuilder();
+		text.append(TEXT_HEADER).append(' ').append(VERSION).append('\n');
+		
+		double[] limits = save.getLimits();
+		text.append("view ").append(limits[0]).append(' ').append(limits[1]).append(' ').append(limits[2]).append(' ').append(limits[3]).append('\n');
+		for(int i = 0; i < save.getFunctionCount(); i++)
+			text.append("function ").append(toHexColor(save.getFunctionColor(i))).append(' ').append(save.getFunctionExpression(i)).append('\n');
+		text.append("scope ").append(save.getSearchScopeMode().name()).append(' ').append(save.getCustomMin()).append(' ').append(save.getCustomMax()).append('\n');
+		for(Entry<String, Double> constant : save.getConstants().entrySet())
+			text.append("constant ").append(constant.getKey()).append(' ').append(constant.getValue()).append('\n');
+		if(save.hasFamily())
+			text.append("family ").append(toHexColor(save.getFamilyColor())).append(' ').append(save.getFamilyParameterMin()).append(' ')
+				.append(save.getFamilyParameterMax()).append(' ').append(save.getFamilyCurveCount()).append(' ').append(save.getFamilyExpression()).append('\n');
+		
+		try(ChannelTextWriter writer = new ChannelTextWriter(FileChannel.open(path,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+			writer.write(text);
+		}
+	}
+	
+	private static GraphingCalculatorProjectSave readText(String text) throws IOException {
+		String[] lines = text.split("\r?\n");
+		if(lines.length == 0 || !lines[0].startsWith(TEXT_HEADER))
+			throw new IOException("The file isn't a project file.");
+		
+		GraphingCalculatorProjectSave save = new GraphingCalculatorProjectSave();
+		for(int i = 1; i < lines.length; i++) {
+			try {
+				readTextLine(save, lines[i].trim());
+			} catch(IllegalArgumentException e) {
+				throw new IllegalArgumentException("Line " + (i+1) + ": " + e.getMessage(), e);
+			}
+		}
+		return save;
+	}
+	
+	private static void readTextLine(GraphingCalculatorProjectSave save, String line) {
+		int keywordEnd = line.indexOf(' ');
+		if(keywordEnd < 0) return;
+		
+		String keyword = line.substring(0, keywordEnd);
+		String values = line.substring(keywordEnd+1).trim();
+		String[] fields;
+		switch(keyword) {
+		case "view":
+			fields = splitFields(values, 4, false);
+			save.setLimits(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), Double.parseDouble(fields[3]));
+			break;
+		case "function":
+			fields = splitFields(values, 2, true);
+			save.addFunction(fields[1].trim(), fromHexColor(fields[0]));
+			break;
+		case "scope":
+			fields = splitFields(values, 3, false);
+			save.setSearchScope(parseSearchScopeMode(fields[0]), Double.parseDouble(fields[1]), Double.parseDouble(fields[2]));
+			break;
+		case "constant":
+			fields = splitFields(values, 2, false);
+			save.setConstant(fields[0], Double.parseDouble(fields[1]));
+			break;
+		case "family":
+			fields = splitFields(values, 5, true);
+			save.setFamily(fields[4].trim(), Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), Integer.parseInt(fields[3]), fromHexColor(fields[0]));
+			break;
+		}
+	}
+	
+	/*
+	 * The values of a line, which must have at least count of them. The values after them are ones a newer version added, unless
+	 * the last value is an expression (which can have spaces), in which case everything after the other values is the expression.
+	 */
+	private static String[] splitFields(String values, int count, boolean endsWithExpression) {
+		String[] fields = values.split("\\s+", endsWithExpression ? count : 0);
+		if(fields.length < count)
+			throw new IllegalArgumentException("Expected " + count + " values, found " + fields.length + ".");
+		return fields;
+	}
+	
+	// a mode added by a newer version is searched like AUTO
+	private static SearchScope.Mode parseSearchScopeMode(String name) {
+		for(SearchScope.Mode mode : SearchScope.Mode.values())
+			if(mode.name().equals(name))
+				return mode;
+		return SearchScope.Mode.AUTO;
+	}
+	
+	private static String toHexColor(Color color) {
+		return String.format("#%06x", color.getRGB() & 0xFFFFFF);
+	}
+	
+	private static Color fromHexColor(String hex) {
+		if(!hex.startsWith("#"))
+			throw new IllegalArgumentException("Invalid color: " + hex);
+		return new Color(Integer.parseInt(hex.substring(1), 16));
+	}
+
+}
@@ -0,0 +1,168 @@
+package graphingCalculator.saver;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/*
+ * Writes a PNG one row at a time, so an image can be saved without ever having all of its pixels in memory.
+ * The rows go through a single deflate stream that is cut into IDAT chunks as it fills up, so only the chunk buffer
+ * and the previous row (needed by the Up filter) are kept around.
+ */
+public class StreamingPngWriter {
+	
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+	private static final int CHUNK_SIZE = 1 << 16;
+	
+	private static final byte COLOR_TYPE_RGB = 2;
+	private static final byte COLOR_TYPE_RGBA = 6;
+	private static final byte FILTER_UP = 2;
+	
+	private DataOutputStream out;
+	private int width, height;
+	private int bytesPerPixel;
+	private int rowsWritten;
+	
+	private byte[] row, previousRow;
+	private IdatOutputStream idatChunks;
+	private DeflaterOutputStream idatStream;
+	private Deflater deflater;
+	
+	
+	public StreamingPngWriter(OutputStream out, int width, int height, boolean alpha) throws IOException {
+		if(width <= 0 || height <= 0)
+			throw new IllegalArgumentException("The image size must be positive.");
+		
+		this.out = new DataOutputStream(out);
+		this.width = width;
+		this.height = height;
+		bytesPerPixel = alpha ? 4 : 3;
+		
+		row = new byte[1 + width*bytesPerPixel];
+		previousRow = new byte[row.length];
+		deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+		idatChunks = new IdatOutputStream();
+		idatStream = new DeflaterOutputStream(idatChunks, deflater, CHUNK_SIZE);
+		
+		writeHeader(alpha);
+	}
+	
+	private void writeHeader(boolean alpha) throws IOException {
+		out.write(PNG_SIGNATURE);
+		
+		byte[] ihdr = new byte[13];
+		writeInt(ihdr, 0, width);
+		writeInt(ihdr, 4, height);
+		ihdr[8] = 8;	// bits per channel
+		ihdr[9] = alpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB;
+		// compression, filter and interlace methods are all 0
+		writeChunk("IHDR", ihdr, ihdr.length);
+	}
+	
+	/*
+	 * Writes the next rows of the image, taken from ARGB pixels (like the ones of a TYPE_INT_ARGB BufferedImage)
+	 * starting at offset and with scanline pixels between the start of each row.
+	 */
+	public void writeRows(int[] argbPixels, int offset, int scanline, int rowCount) throws IOException {
+		if(rowsWritten + rowCount > height)
+			throw new IllegalStateException("More rows were written than the image height.");
+		
+		for(int r = 0; r < rowCount; r++) {
+			int pixel = offset + r*scanline;
+			int b = 1;
+			for(int x = 0; x < width; x++, pixel++) {
+				int argb = argbPixels[pixel];
+				row[b++] = (byte) (argb >> 16);
+				row[b++] = (byte) (argb >> 8);
+				row[b++] = (byte) argb;
+				if(bytesPerPixel == 4)
+					row[b++] = (byte) (argb >>> 24);
+			}
+			writeFilteredRow();
+		}
+		rowsWritten += rowCount;
+	}
+	
+	// the Up filter (each byte minus the one above it) does well on plots, which are mostly long vertical runs of the same color
+	private void writeFilteredRow() throws IOException {
+		byte[] filtered = previousRow;
+		filtered[0] = FILTER_UP;
+		for(int i = 1; i < row.length; i++)
+			filtered[i] = (byte) (row[i] - filtered[i]);
+		idatStream.write(filtered);
+		
+		// the current row becomes the previous one of the next row
+		previousRow = row;
+		row = filtered;
+	}
+	
+	// must be called after all the rows were written, it doesn't close the underlying stream
+	public void finish() throws IOException {
+		if(rowsWritten != height)
+			throw new IllegalStateException("Only " + rowsWritten + " of the " + height + " rows were written.");
+		
+		idatStream.finish();
+		idatChunks.flush();
+		deflater.end();
+		writeChunk("IEND", new byte[0], 0);
+		out.flush();
+	}
+	
+	private void writeChunk(String type, byte[] data, int length) throws IOException {
+		byte[] typeBytes = type.getBytes("US-ASCII");
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data, 0, length);
+		
+		out.writeInt(length);
+		out.write(typeBytes);
+		out.write(data, 0, length);
+		out.writeInt((int) crc.getValue());
+	}
+	
+	private static void writeInt(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte) (value >>> 24);
+		buffer[offset+1] = (byte) (value >>> 16);
+		buffer[offset+2] = (byte) (value >>> 8);
+		buffer[offset+3] = (byte) value;
+	}
+	
+	// cuts the compressed data into IDAT chunks of up to CHUNK_SIZE bytes
+	private class IdatOutputStream extends OutputStream {
+		
+		private byte[] buffer = new byte[CHUNK_SIZE];
+		private int count;
+		
+		@Override
+		public void write(int b) throws IOException {
+			if(count == buffer.length) flushChunk();
+			buffer[count++] = (byte) b;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while(len > 0) {
+				if(count == buffer.length) flushChunk();
+				int n = Math.min(len, buffer.length - count);
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			if(count > 0) flushChunk();
+		}
+		
+		private void flushChunk() throws IOException {
+			writeChunk("IDAT", buffer, count);
+			count = 0;
+		}
+	}
+
+}
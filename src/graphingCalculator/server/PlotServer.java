@@ -0,0 +1,227 @@
+package graphingCalculator.server;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import functionComponents.Function;
+import functionComponents.ReferentialLimits;
+import graphingCalculator.graphics.GraphicsDrawer;
+
+/*
+ * Renders plots to PNG over HTTP (only on the loopback address), without any frame.
+ * POST /plot with these parameters form encoded, in the body or in the query string:
+ *   expression					one per function, can be repeated
+ *   color						the functions' colors in the same order, as RRGGBB (black by default)
+ *   xMin, xMax, yMin, yMax		the view (-10 to 10 by default)
+ *   width, height				the image's size (800x600 by default, at most MAX_SIZE)
+ *   transparent				true for a transparent background
+ * 
+ * Usage: PlotServer [-p port] [-t threads]
+ * 
+ * Rendering only uses the CPU, so the requests are handled by a pool with a thread per processor.
+ * The parsed expressions are kept across requests (the least recently used are dropped after MAX_PARSED_FUNCTIONS),
+ * and the functions' samples are shared through the SampleTileCache, so a plot rendered again isn't parsed nor evaluated again.
+ */
+public class PlotServer {
+	
+	private static final int DEFAULT_PORT = 8080;
+	private static final int MAX_SIZE = 4096;
+	private static final int MAX_BODY_LENGTH = 1 << 16;
+	private static final int MAX_PARSED_FUNCTIONS = 256;
+	private static final Dimension DEFAULT_SIZE = new Dimension(800, 600);
+	private static final double DEFAULT_LIMIT = 10;
+	
+	private HttpServer server;
+	private ExecutorService executor;
+	
+	private final Map<String, Function> parsedFunctions = Collections.synchronizedMap(new LinkedHashMap<String, Function>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Function> eldest) {
+			return size() > MAX_PARSED_FUNCTIONS;
+		}
+	});
+	
+	
+	public PlotServer(int port, int threads) throws IOException {
+		// the PNGs are encoded in memory, there's no need for ImageIO's temporary files
+		ImageIO.setUseCache(false);
+		
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.createContext("/plot", this::handlePlot);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+	}
+	
+	public void start() {
+		server.start();
+	}
+	
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+	
+	private void handlePlot(HttpExchange exchange) throws IOException {
+		try {
+			if(!exchange.getRequestMethod().equals("POST")) {
+				sendText(exchange, 405, "Only POST is supported");
+				return;
+			}
+			
+			BufferedImage image = render(readParameters(exchange));
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+			ImageIO.write(image, "png", png);
+			
+			exchange.getResponseHeaders().set("Content-Type", "image/png");
+			exchange.sendResponseHeaders(200, png.size());
+			try(OutputStream body = exchange.getResponseBody()) {
+				png.writeTo(body);
+			}
+		} catch(IllegalArgumentException e) {
+			// invalid parameters, including expressions exp4j can't parse
+			sendText(exchange, 400, e.getMessage() == null ? "Invalid request" : e.getMessage());
+		} catch(RuntimeException e) {
+			sendText(exchange, 500, "Couldn't render the plot: " + e);
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	private BufferedImage render(Map<String, List<String>> parameters) {
+		List<String> expressions = parameters.getOrDefault("expression", Collections.emptyList());
+		List<String> colors = parameters.getOrDefault("color", Collections.emptyList());
+		
+		Dimension size = new Dimension(getInt(parameters, "width", DEFAULT_SIZE.width), getInt(parameters, "height", DEFAULT_SIZE.height));
+		if(size.width < 1 || size.height < 1 || size.width > MAX_SIZE || size.height > MAX_SIZE)
+			throw new IllegalArgumentException("The size must be between 1 and " + MAX_SIZE);
+		
+		double xMin = getDouble(parameters, "xMin", -DEFAULT_LIMIT), xMax = getDouble(parameters, "xMax", DEFAULT_LIMIT);
+		double yMin = getDouble(parameters, "yMin", -DEFAULT_LIMIT), yMax = getDouble(parameters, "yMax", DEFAULT_LIMIT);
+		if(!(xMin < xMax) || !(yMin < yMax))
+			throw new IllegalArgumentException("The minimum limits must be lower than the maximum ones");
+		
+		ReferentialLimits referentialLimits = new ReferentialLimits(size, xMin, xMax, yMin, yMax);
+		GraphicsDrawer graphicsDrawer = new GraphicsDrawer(size, referentialLimits);
+		for(int i = 0; i < expressions.size(); i++) {
+			Color color = i < colors.size() ? Color.decode("#" + colors.get(i)) : Color.BLACK;
+			graphicsDrawer.addFunction(new Function(size, referentialLimits, getParsedFunction(expressions.get(i))), color);
+		}
+		
+		boolean transparent = Boolean.parseBoolean(getParameter(parameters, "transparent"));
+		return graphicsDrawer.getBufferedImage(transparent);
+	}
+	
+	// the cached functions are only ever copied (with a snapshot of their constants), never evaluated, so they can be shared by every request
+	private Function getParsedFunction(String expression) {
+		Function parsedFunction = parsedFunctions.get(expression);
+		if(parsedFunction == null) {
+			parsedFunction = new Function(DEFAULT_SIZE, new ReferentialLimits(DEFAULT_SIZE, -DEFAULT_LIMIT, DEFAULT_LIMIT, -DEFAULT_LIMIT, DEFAULT_LIMIT), expression);
+			parsedFunctions.put(expression, parsedFunction);
+		}
+		return parsedFunction;
+	}
+	
+	private Map<String, List<String>> readParameters(HttpExchange exchange) throws IOException {
+		Map<String, List<String>> parameters = new HashMap<>();
+		addParameters(parameters, exchange.getRequestURI().getRawQuery());
+		
+		try(InputStream body = exchange.getRequestBody()) {
+			byte[] bytes = body.readNBytes(MAX_BODY_LENGTH+1);
+			if(bytes.length > MAX_BODY_LENGTH)
+				throw new IllegalArgumentException("The request is too long");
+			addParameters(parameters, new String(bytes, StandardCharsets.UTF_8));
+		}
+		
+		return parameters;
+	}
+	
+	private void addParameters(Map<String, List<String>> parameters, String form) {
+		if(form == null || form.isEmpty()) return;
+		
+		for(String pair : form.split("&")) {
+			if(pair.isEmpty()) continue;
+			int separator = pair.indexOf('=');
+			String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+			String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator+1), StandardCharsets.UTF_8);
+			parameters.computeIfAbsent(name.trim(), k -> new ArrayList<>()).add(value.trim());
+		}
+	}
+	
+	private String getParameter(Map<String, List<String>> parameters, String name) {
+		List<String> values = parameters.get(name);
+		return values == null ? null : values.get(0);
+	}
+	
+	private int getInt(Map<String, List<String>> parameters, String name, int defaultValue) {
+		String value = getParameter(parameters, name);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+	
+	private double getDouble(Map<String, List<String>> parameters, String name, double defaultValue) {
+		String value = getParameter(parameters, name);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+	
+	private void sendText(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try(OutputStream body = exchange.getResponseBody()) {
+			body.write(bytes);
+		}
+	}
+	
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		try {
+			for(int i = 0; i < args.length; i++) {
+				switch(args[i]) {
+					case "-p": port = Integer.parseInt(args[++i]); break;
+					case "-t": threads = Integer.parseInt(args[++i]); break;
+					default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+			}
+			if(threads < 1)
+				throw new IllegalArgumentException("There must be at least 1 thread");
+		} catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			System.err.println("Usage: PlotServer [-p port] [-t threads]");
+			System.exit(2);
+		}
+		
+		try {
+			new PlotServer(port, threads).start();
+			System.out.println("Plot server listening on http://localhost:" + port + "/plot");
+		} catch(IOException e) {
+			System.err.println("Couldn't start the plot server: " + e);
+			System.exit(1);
+		}
+	}
+	
+}
@@ -0,0 +1,55 @@
+package graphingCalculator.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Encodes text (e.g. the batch calculator's results or a text project file) straight into a fixed size buffer
+ * that's written to the channel whenever it's full, so the text never needs more memory than the buffer no matter how long it is.
+ */
+public class ChannelTextWriter implements Closeable {
+	
+	private final int BUFFER_SIZE = 1 << 16;
+	
+	private WritableByteChannel channel;
+	private ByteBuffer buffer;
+	private CharsetEncoder encoder;
+	
+	
+	public ChannelTextWriter(WritableByteChannel channel) {
+		this.channel = channel;
+		buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		encoder = StandardCharsets.UTF_8.newEncoder();
+	}
+	
+	public void write(CharSequence text) throws IOException {
+		CharBuffer chars = CharBuffer.wrap(text);
+		while(encoder.encode(chars, buffer, false) == CoderResult.OVERFLOW)
+			flushBuffer();
+	}
+	
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		CharBuffer noChars = CharBuffer.allocate(0);
+		while(encoder.encode(noChars, buffer, true) == CoderResult.OVERFLOW)
+			flushBuffer();
+		while(encoder.flush(buffer) == CoderResult.OVERFLOW)
+			flushBuffer();
+		flushBuffer();
+		channel.close();
+	}
+	
+}
@@ -0,0 +1,185 @@
+package graphingCalculator.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/*
+ * Formats doubles with a fixed maximum number of decimal places (HALF_EVEN, trailing zeros removed),
+ * producing the same output as a DecimalFormat("#.###") but without going through BigDecimal or intermediate Strings.
+ * 
+ * The digits are written into a char buffer owned by the formatter which is reused by every call,
+ * so a formatter must not be shared between threads. RoundingUtils keeps one per precision and per thread.
+ */
+public class DecimalFormatter {
+	
+	// 10^22 is the largest power of 10 that's exactly representable as a double
+	public static final int MAX_DECIMAL_PLACES = 22;
+	
+	// above this any double is an integer, so the rounded value can't be computed exactly in a long with arithmetic alone
+	private static final double MAX_EXACT_SCALED_VALUE = 4503599627370496.0;	// 2^52
+	
+	private static final double[] POWERS_OF_TEN = new double[MAX_DECIMAL_PLACES+1];
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for(int i = 1; i <= MAX_DECIMAL_PLACES; i++)
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i-1]*10;
+	}
+	
+	private static final BigDecimal HALF = new BigDecimal("0.5");
+	
+	private final int decimalPlaces;
+	private final double scale;
+	
+	// long digits (up to 19) + sign + decimal point + leading zeros
+	private char[] buffer;
+	private int length;
+	
+	
+	public DecimalFormatter(int decimalPlaces) {
+		if(decimalPlaces < 1 || decimalPlaces > MAX_DECIMAL_PLACES)
+			throw new IllegalArgumentException("decimal places must be between 1 and " + MAX_DECIMAL_PLACES);
+		
+		this.decimalPlaces = decimalPlaces;
+		this.scale = POWERS_OF_TEN[decimalPlaces];
+		this.buffer = new char[decimalPlaces + 24];
+	}
+	
+	public int getDecimalPlaces() {
+		return decimalPlaces;
+	}
+	
+	/*
+	 * Rounds the number using only arithmetic.
+	 * The scaled product number*10^decimalPlaces is split into its rounded value and its exact rounding error (using fma)
+	 * so that ties are decided on the number's exact binary value, just like BigDecimal would.
+	 * Dividing the resulting integer by the (exact) power of 10 then yields the closest double to the rounded decimal.
+	 */
+	public double round(double number) {
+		if(!Double.isFinite(number)) return number;
+		
+		double scaled = number*scale;
+		if(Math.abs(scaled) >= MAX_EXACT_SCALED_VALUE)
+			return roundLargeNumber(number).doubleValue();
+		
+		double rounded = roundScaled(number, scaled);
+		if(rounded == 0) return Math.copySign(0.0, number);
+		return rounded/scale;
+	}
+	
+	/*
+	 * Formats the number into the internal buffer and returns the amount of chars written.
+	 * The chars can then be read with getBuffer() until the next call.
+	 */
+	public int format(double number) {
+		length = 0;
+		
+		if(Double.isNaN(number)) {
+			append("NaN");
+			return length;
+		}
+		if(Double.isInfinite(number)) {
+			if(number < 0) buffer[length++] = '-';
+			buffer[length++] = '\u221E';
+			return length;
+		}
+		
+		double scaled = number*scale;
+		if(Math.abs(scaled) >= MAX_EXACT_SCALED_VALUE) {
+			// these numbers have more integer digits than a long can hold together with the decimals, which is rare enough to not be worth optimizing
+			append(roundLargeNumber(number).toPlainString());
+			return length;
+		}
+		
+		long digits = (long) Math.abs(roundScaled(number, scaled));
+		
+		// like DecimalFormat, negative numbers that round to 0 keep their sign ("-0")
+		if(number < 0 || (number == 0 && 1/number < 0))
+			buffer[length++] = '-';
+		
+		int fractionDigits = decimalPlaces;
+		while(fractionDigits > 0 && digits%10 == 0) {
+			digits /= 10;
+			fractionDigits--;
+		}
+		
+		// digits are written backwards from the end of the number
+		int digitCount = Math.max(countDigits(digits), fractionDigits+1);
+		int end = length + digitCount + (fractionDigits > 0 ? 1 : 0);
+		int pos = end;
+		for(int i = 0; i < digitCount; i++) {
+			if(i == fractionDigits && fractionDigits > 0)
+				buffer[--pos] = '.';
+			buffer[--pos] = (char) ('0' + digits%10);
+			digits /= 10;
+		}
+		
+		length = end;
+		return length;
+	}
+	
+	public char[] getBuffer() {
+		return buffer;
+	}
+	
+	public String formatToString(double number) {
+		return new String(buffer, 0, format(number));
+	}
+	
+	public void appendTo(StringBuilder sb, double number) {
+		sb.append(buffer, 0, format(number));
+	}
+	
+	// HALF_EVEN rounding of the exact value of number*scale, where scaled is that product rounded to a double
+	private double roundScaled(double number, double scaled) {
+		double error = Math.fma(number, scale, -scaled);
+		double floor = Math.floor(scaled);
+		double fraction = scaled-floor;
+		
+		boolean roundUp;
+		if(fraction != 0.5)
+			roundUp = fraction > 0.5;
+		else if(error != 0)
+			roundUp = error > 0;
+		else
+			roundUp = floor%2 != 0;
+		
+		return roundUp ? floor+1 : floor;
+	}
+	
+	/*
+	 * Same rounding DecimalFormat does: the shortest decimal representation of the number is rounded,
+	 * and only when it's an exact tie is the number's exact binary value used to break it.
+	 */
+	private BigDecimal roundLargeNumber(double number) {
+		BigDecimal shortest = new BigDecimal(Double.toString(number));
+		if(shortest.scale() <= decimalPlaces) return shortest.stripTrailingZeros();
+		
+		RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+		BigDecimal discarded = shortest.subtract(shortest.setScale(decimalPlaces, RoundingMode.DOWN)).abs().movePointRight(decimalPlaces);
+		if(discarded.compareTo(HALF) == 0) {
+			int exactComparison = new BigDecimal(number).abs().compareTo(shortest.abs());
+			if(exactComparison > 0) roundingMode = RoundingMode.UP;
+			else if(exactComparison < 0) roundingMode = RoundingMode.DOWN;
+		}
+		
+		return shortest.setScale(decimalPlaces, roundingMode).stripTrailingZeros();
+	}
+	
+	private static int countDigits(long number) {
+		int count = 1;
+		while(number >= 10) {
+			number /= 10;
+			count++;
+		}
+		return count;
+	}
+	
+	private void append(String str) {
+		if(length+str.length() > buffer.length)
+			buffer = Arrays.copyOf(buffer, length+str.length());
+		for(int i = 0; i < str.length(); i++)
+			buffer[length++] = str.charAt(i);
+	}
+	
+}
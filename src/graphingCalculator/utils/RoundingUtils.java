@@ -1,24 +1,28 @@
 package graphingCalculator.utils;
 
-import java.math.RoundingMode;
-import java.text.DecimalFormat;
-
 public class RoundingUtils {
+	
+	// formatters hold a reusable buffer, so each thread gets its own set, created on demand for each precision
+	private static final ThreadLocal<DecimalFormatter[]> FORMATTERS =
+			ThreadLocal.withInitial(() -> new DecimalFormatter[DecimalFormatter.MAX_DECIMAL_PLACES+1]);
+	
+	public static DecimalFormatter getFormatter(int decimalPlaces) {
+		DecimalFormatter[] formatters = FORMATTERS.get();
+		if(formatters[decimalPlaces] == null)
+			formatters[decimalPlaces] = new DecimalFormatter(decimalPlaces);
+		return formatters[decimalPlaces];
+	}
 
 	public static String roundToDecimalPlacesStr(double number, int decimalPlaces) {
 		if(decimalPlaces <= 0) return String.valueOf(Math.round(number));
-		
-		String format = "#.";
-		for(int i=0; i<decimalPlaces; i++)
-			format += '#';
-		
-		DecimalFormat df = new DecimalFormat(format);
-		df.setRoundingMode(RoundingMode.HALF_EVEN);
-		return df.format(number);
+		decimalPlaces = Math.min(decimalPlaces, DecimalFormatter.MAX_DECIMAL_PLACES);
+		return getFormatter(decimalPlaces).formatToString(number);
 	}
 	
 	public static double roundToDecimalPlaces(double number, int decimalPlaces) {
-		return Double.parseDouble(roundToDecimalPlacesStr(number, decimalPlaces));
+		if(decimalPlaces <= 0) return Math.round(number);
+		decimalPlaces = Math.min(decimalPlaces, DecimalFormatter.MAX_DECIMAL_PLACES);
+		return getFormatter(decimalPlaces).round(number);
 	}
 	
 	public static int numberOfDecimalPlaces(double number) {	
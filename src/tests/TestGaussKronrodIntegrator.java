@@ -0,0 +1,34 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+import functionComponents.GaussKronrodIntegrator;
+import functionComponents.IntegralResult;
+
+public class TestGaussKronrodIntegrator {
+
+	@Test
+	void testSmoothIntegrals() {
+		IntegralResult result = new GaussKronrodIntegrator(x -> x*x).integrate(0, 3);
+		assertEquals(9, result.getValue(), 1e-12);
+		
+		result = new GaussKronrodIntegrator(Math::sin).integrate(Math.PI, 0);
+		assertEquals(-2, result.getValue(), 1e-12);
+	}
+	
+	@Test
+	void testEndpointSingularity() {
+		IntegralResult result = new GaussKronrodIntegrator(x -> 1/Math.sqrt(x)).integrate(0, 1);
+		assertEquals(2, result.getValue(), 1e-8);
+		assertTrue(result.getErrorEstimate() < 1e-8);
+	}
+	
+	@Test
+	void testDivergentIntegral() {
+		assertNull(new GaussKronrodIntegrator(x -> 1/x).integrate(0, 1));
+		assertNull(new GaussKronrodIntegrator(Math::sqrt).integrate(-1, 1));
+	}
+	
+}
@@ -0,0 +1,57 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import functionComponents.Polynomial;
+import functionComponents.PolynomialParser;
+
+public class TestPolynomial {
+
+	@Test
+	void testParsing() {
+		Polynomial p = PolynomialParser.parse("-2x^2 + 3(x-1) - x/2");
+		assertEquals(2, p.getDegree());
+		assertEquals(-3, p.getCoefficient(0), 1e-15);
+		assertEquals(2.5, p.getCoefficient(1), 1e-15);
+		assertEquals(-2, p.getCoefficient(2), 1e-15);
+		
+		assertEquals(6, PolynomialParser.parse("(x+1)^3*(x-2)^3").getDegree());
+		
+		assertNull(PolynomialParser.parse("sin(x)"));
+		assertNull(PolynomialParser.parse("1/x"));
+		assertNull(PolynomialParser.parse("x^0.5"));
+		assertNull(PolynomialParser.parse("2^x"));
+	}
+	
+	@Test
+	void testMultipleRoots() {
+		// (x-1)^3 * (x+2)^2 * x
+		ArrayList<Polynomial.Root> roots = PolynomialParser.parse("(x-1)^3*(x+2)^2*x").getRealRoots();
+		assertEquals(3, roots.size());
+		
+		assertEquals(-2, roots.get(0).getX(), 1e-9);
+		assertEquals(2, roots.get(0).getMultiplicity());
+		assertEquals(0, roots.get(1).getX(), 1e-12);
+		assertEquals(1, roots.get(1).getMultiplicity());
+		assertEquals(1, roots.get(2).getX(), 1e-9);
+		assertEquals(3, roots.get(2).getMultiplicity());
+		
+		assertTrue(PolynomialParser.parse("x^2+1").getRealRoots().isEmpty());
+	}
+	
+	@Test
+	void testLocalExtremes() {
+		Polynomial p = PolynomialParser.parse("x^3-3x");
+		assertEquals(-1, p.getLocalExtremes(true).get(0), 1e-12);
+		assertEquals(1, p.getLocalExtremes(false).get(0), 1e-12);
+		
+		// x^3 has an inflection at 0, not an extreme
+		assertTrue(PolynomialParser.parse("x^3").getLocalExtremes(true).isEmpty());
+		assertTrue(PolynomialParser.parse("x^3").getLocalExtremes(false).isEmpty());
+	}
+	
+}
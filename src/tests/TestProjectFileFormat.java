@@ -0,0 +1,102 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import functionComponents.SearchScope;
+import graphingCalculator.saver.GraphingCalculatorProjectSave;
+import graphingCalculator.saver.ProjectFileFormat;
+
+public class TestProjectFileFormat {
+	
+	private GraphingCalculatorProjectSave createSave() {
+		GraphingCalculatorProjectSave save = new GraphingCalculatorProjectSave();
+		save.setLimits(-3.5, 7.25, -1, 10);
+		// functions sharing a color used to be lost
+		save.addFunction("sin(x)", Color.RED);
+		save.addFunction("x^2 + a", Color.RED);
+		save.addFunction("1/x", Color.BLUE);
+		save.setSearchScope(SearchScope.Mode.CUSTOM_INTERVAL, -2, 9);
+		save.setConstant("a", 2.5);
+		save.setFamily("a*x + b", -2, 2, 21, Color.DARK_GRAY);
+		return save;
+	}
+	
+	private void assertSameProject(GraphingCalculatorProjectSave expected, GraphingCalculatorProjectSave actual) {
+		assertArrayEquals(expected.getLimits(), actual.getLimits(), 0);
+		assertEquals(expected.getFunctionCount(), actual.getFunctionCount());
+		for(int i = 0; i < expected.getFunctionCount(); i++) {
+			assertEquals(expected.getFunctionExpression(i), actual.getFunctionExpression(i));
+			assertEquals(expected.getFunctionColor(i), actual.getFunctionColor(i));
+		}
+		assertEquals(expected.getSearchScopeMode(), actual.getSearchScopeMode());
+		assertEquals(expected.getCustomMax(), actual.getCustomMax(), 0);
+		assertEquals(expected.getConstants(), actual.getConstants());
+		assertEquals(expected.getFamilyExpression(), actual.getFamilyExpression());
+		assertEquals(expected.getFamilyCurveCount(), actual.getFamilyCurveCount());
+	}
+	
+	@Test
+	void testRoundTrip() throws IOException {
+		GraphingCalculatorProjectSave save = createSave();
+		for(String extension : new String[] {ProjectFileFormat.BINARY_EXTENSION, ProjectFileFormat.TEXT_EXTENSION}) {
+			Path file = Files.createTempFile("project", "." + extension);
+			try {
+				ProjectFileFormat.write(save, file);
+				assertSameProject(save, ProjectFileFormat.read(file));
+			} finally {
+				Files.delete(file);
+			}
+		}
+	}
+	
+	@Test
+	void testUnknownTextLinesAreIgnored() throws IOException {
+		Path file = Files.createTempFile("project", ".gpt");
+		try {
+			Files.write(file, "graph-plotter-project 2\nlegend top\nfunction #ff0000 x + 1\n".getBytes("UTF-8"));
+			GraphingCalculatorProjectSave save = ProjectFileFormat.read(file);
+			assertEquals(1, save.getFunctionCount());
+			assertEquals("x + 1", save.getFunctionExpression(0));
+			assertFalse(save.hasFamily());
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	void testTruncatedTextLineIsRejected() throws IOException {
+		Path file = Files.createTempFile("project", ".gpt");
+		try {
+			Files.write(file, "graph-plotter-project 1\nview -1 1\n".getBytes("UTF-8"));
+			try {
+				ProjectFileFormat.read(file);
+				fail("A view with 2 values was read.");
+			} catch(IOException e) {
+				assertTrue(e.getCause().getMessage().startsWith("Line 2:"));
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	void testUnknownModeAndMissingViewFallBack() throws IOException {
+		Path file = Files.createTempFile("project", ".gpt");
+		try {
+			Files.write(file, "graph-plotter-project 2\nscope NEWER_MODE 0 1\nfunction #ff0000 x\n".getBytes("UTF-8"));
+			GraphingCalculatorProjectSave save = ProjectFileFormat.read(file);
+			assertEquals(SearchScope.Mode.AUTO, save.getSearchScopeMode());
+			assertArrayEquals(new double[] {-10, 10, -10, 10}, save.getLimits(), 0);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+import graphingCalculator.utils.RoundingUtils;
+
+public class TestRoundingUtils {
+
+	@Test
+	void testRoundToDecimalPlacesStr() {
+		assertEquals("0.5", RoundingUtils.roundToDecimalPlacesStr(0.5, 3));
+		assertEquals("-0.005", RoundingUtils.roundToDecimalPlacesStr(-0.005, 3));
+		assertEquals("5000", RoundingUtils.roundToDecimalPlacesStr(5000, 3));
+		assertEquals("-0", RoundingUtils.roundToDecimalPlacesStr(-0.0004, 3));
+		assertEquals("100000000000000000000", RoundingUtils.roundToDecimalPlacesStr(1e20, 3));
+	}
+	
+	@Test
+	void testRoundToDecimalPlacesHalfEven() {
+		assertEquals(0.12, RoundingUtils.roundToDecimalPlaces(0.125, 2), 0);
+		assertEquals(0.38, RoundingUtils.roundToDecimalPlaces(0.375, 2), 0);
+		// 2.675 is stored as 2.67499999... so it rounds down
+		assertEquals(2.67, RoundingUtils.roundToDecimalPlaces(2.675, 2), 0);
+		assertEquals(-1000.3, RoundingUtils.roundToDecimalPlaces(-1000.3 + 1e-9, 1), 0);
+	}
+	
+}